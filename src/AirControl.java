@@ -46,15 +46,31 @@ import java.io.IOException;
 
 public class AirControl {
     /**
-     * This is a placeholder for test cases that call the interface methods.
+     * With no arguments this does nothing: the interface methods are
+     * exercised by the test cases. With "serve [port]" it serves a
+     * ConcurrentWorldDB over TCP on the loopback interface (see
+     * AtcServer) until the process is killed.
      *
      * @param args
-     *     Command line parameters: There are none
+     *     Command line parameters: none, or "serve" and an optional port
+     *     (default 3114)
      * @throws IOException
+     *     if the port cannot be bound
      */
     public static void main(String[] args)
         throws IOException
     {
-        // There is nothing that we need to do here
+        if (args.length == 0 || !args[0].equals("serve")) {
+            return;
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 3114;
+        AtcServer server = new AtcServer(new ConcurrentWorldDB(null), port);
+        System.out.println("Serving ATC on port " + server.getPort());
+        try {
+            server.join();
+        }
+        catch (InterruptedException e) {
+            server.close();
+        }
     }
 }
@@ -0,0 +1,293 @@
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A non-blocking front end for a WorldDB. Every operation is queued and
+ * returns a CompletableFuture, so a controller session never waits on a
+ * long collisions() run.
+ *
+ * All operations go through one writer thread in the order they were
+ * called, so the WorldDB itself stays single-threaded. Writes and the
+ * cheap name queries (print, rangeprint, printskiplist) run there. The
+ * spatial queries (printbintree, intersect, collisions) only take a
+ * snapshot of the Bintree on the writer thread, which is constant time
+ * because the tree is a PersistentBintree, and then run on a pool of
+ * reader threads while later writes go ahead. Every query therefore sees
+ * exactly the writes called before it.
+ *
+ * A query called again, with the same arguments, while an identical one
+ * is still pending and no write was called in between, is not run
+ * again: both callers get the same result.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class AsyncATC implements AutoCloseable {
+
+    /**
+     * A WorldDB whose Bintree can be snapshotted.
+     */
+    private static final class SnapshotWorldDB extends WorldDB {
+        SnapshotWorldDB(Random r) {
+            super(r);
+        }
+
+        @Override
+        Bintree newBintree(int size) {
+            return new PersistentBintree(size);
+        }
+
+        PersistentBintree spatialSnapshot() {
+            return ((PersistentBintree) getBintree()).snapshot();
+        }
+    }
+
+    private final SnapshotWorldDB db;
+    private final Executor writer;
+    private final Executor readers;
+    private final ExecutorService[] owned;
+    private final SkipList<String, CompletableFuture<String>> pending;
+    private long writes; // bumped by every write call
+    private long coalesced;
+
+    /**
+     * Constructor.
+     * @param r       The Random used for SkipList levels (null for a new
+     *                one).
+     * @param threads The number of reader threads.
+     */
+    public AsyncATC(Random r, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(
+                "threads must be at least 1: " + threads);
+        }
+        ExecutorService w = Executors.newSingleThreadExecutor(
+            task -> daemon(task, "AsyncATC-writer"));
+        AtomicInteger n = new AtomicInteger();
+        ExecutorService rd = Executors.newFixedThreadPool(threads,
+            task -> daemon(task, "AsyncATC-reader-" + n.getAndIncrement()));
+        this.db = new SnapshotWorldDB(r);
+        this.writer = w;
+        this.readers = rd;
+        this.owned = new ExecutorService[] {w, rd};
+        this.pending = new SkipList<>(new Random(0));
+    }
+
+    /**
+     * Constructor with the caller's executors, which close() leaves
+     * alone.
+     * @param r       The Random used for SkipList levels.
+     * @param writer  Runs the tasks one at a time, in order.
+     * @param readers Runs the spatial queries.
+     */
+    AsyncATC(Random r, Executor writer, Executor readers) {
+        this.db = new SnapshotWorldDB(r);
+        this.writer = writer;
+        this.readers = readers;
+        this.owned = new ExecutorService[0];
+        this.pending = new SkipList<>(new Random(0));
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread t = new Thread(task, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * Gets the number of queries answered by one already pending.
+     * @return The count.
+     */
+    public synchronized long coalescedQueries() {
+        return coalesced;
+    }
+
+    /**
+     * Stop the threads this object started, after the queued operations.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService e : owned) {
+            e.shutdown();
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Writes
+
+    /**
+     * Queue a clear().
+     * @return Completes when the database is empty.
+     */
+    public CompletableFuture<Void> clear() {
+        return write(() -> {
+            db.clear();
+            return null;
+        });
+    }
+
+    /**
+     * Queue an add().
+     * @param a The AirObject.
+     * @return True iff it was added.
+     */
+    public CompletableFuture<Boolean> add(AirObject a) {
+        return write(() -> db.add(a));
+    }
+
+    /**
+     * Queue a delete().
+     * @param name The AirObject's name.
+     * @return Its toString(), or null if there was no such name.
+     */
+    public CompletableFuture<String> delete(String name) {
+        return write(() -> db.delete(name));
+    }
+
+    private synchronized <T> CompletableFuture<T> write(Supplier<T> op) {
+        writes++;
+        return CompletableFuture.supplyAsync(op, writer);
+    }
+
+    // ----------------------------------------------------------
+    // Name queries, on the writer thread
+
+    /**
+     * Queue a printskiplist().
+     * @return The SkipList listing.
+     */
+    public CompletableFuture<String> printskiplist() {
+        return query("printskiplist", () -> CompletableFuture.supplyAsync(
+            db::printskiplist, writer));
+    }
+
+    /**
+     * Queue a print().
+     * @param name The AirObject's name.
+     * @return Its toString(), or null if there is no such name.
+     */
+    public CompletableFuture<String> print(String name) {
+        return query(key("print", name), () -> CompletableFuture
+            .supplyAsync(() -> db.print(name), writer));
+    }
+
+    /**
+     * Queue a rangeprint().
+     * @param start Minimum of the range.
+     * @param end   Maximum of the range.
+     * @return The AirObjects in the range.
+     */
+    public CompletableFuture<String> rangeprint(String start, String end) {
+        return query(key("rangeprint", start, end),
+            () -> CompletableFuture.supplyAsync(
+                () -> db.rangeprint(start, end), writer));
+    }
+
+    // ----------------------------------------------------------
+    // Spatial queries, on a snapshot
+
+    /**
+     * Queue a printbintree().
+     * @return The Bintree listing.
+     */
+    public CompletableFuture<String> printbintree() {
+        return spatial("printbintree", Bintree::print);
+    }
+
+    /**
+     * Queue a collisions().
+     * @return The collisions.
+     */
+    public CompletableFuture<String> collisions() {
+        return spatial("collisions", Bintree::collisions);
+    }
+
+    /**
+     * Queue an intersect().
+     * @param x    Query box x-origin.
+     * @param y    Query box y-origin.
+     * @param z    Query box z-origin.
+     * @param xwid Query box x-width.
+     * @param ywid Query box y-width.
+     * @param zwid Query box z-width.
+     * @return The objects in the box, or null if the box is invalid.
+     */
+    public CompletableFuture<String> intersect(int x, int y, int z,
+        int xwid, int ywid, int zwid) {
+        if (!db.isValidBox(x, y, z, xwid, ywid, zwid)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return spatial(key("intersect", x, y, z, xwid, ywid, zwid),
+            tree -> tree.intersect(x, y, z, xwid, ywid, zwid));
+    }
+
+    private CompletableFuture<String> spatial(String key,
+        Function<PersistentBintree, String> run) {
+        return query(key, () -> CompletableFuture.supplyAsync(
+            db::spatialSnapshot, writer).thenApplyAsync(run, readers));
+    }
+
+    // ----------------------------------------------------------
+    // Coalescing
+
+    /**
+     * Build the coalescing key of a query. Each argument is written with
+     * its length, so arguments holding spaces cannot run together.
+     * @param op   The query name.
+     * @param args The arguments.
+     * @return The key.
+     */
+    private static String key(String op, Object... args) {
+        StringBuilder sb = new StringBuilder(op);
+        for (Object arg : args) {
+            if (arg == null) {
+                sb.append(" -");
+            }
+            else {
+                String text = arg.toString();
+                sb.append(' ').append(text.length()).append(':')
+                    .append(text);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Start a query, or join an identical one still pending with no
+     * write called since.
+     * @param key   The query and its arguments.
+     * @param start Starts the query.
+     * @return A future of the result, for this caller only.
+     */
+    private CompletableFuture<String> query(String key,
+        Supplier<CompletableFuture<String>> start) {
+        CompletableFuture<String> shared;
+        String versioned;
+        synchronized (this) {
+            versioned = writes + " " + key;
+            shared = pending.find(versioned);
+            if (shared != null) {
+                coalesced++;
+                return shared.copy();
+            }
+            shared = start.get();
+            pending.insert(versioned, shared);
+        }
+        CompletableFuture<String> done = shared;
+        shared.whenComplete((result, error) -> forget(versioned, done));
+        return shared.copy();
+    }
+
+    private synchronized void forget(String key,
+        CompletableFuture<String> query) {
+        if (pending.find(key) == query) {
+            pending.remove(key);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import student.TestCase;
+
+/**
+ * Tests for the AsyncATC class.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class AsyncATCTest extends TestCase {
+
+    /**
+     * An executor that only runs its tasks when asked to.
+     */
+    private static class Manual implements Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.poll().run();
+            }
+        }
+    }
+
+    /**
+     * Tests that queued operations give the same results as calling a
+     * WorldDB directly, in order.
+     */
+    public void testMatchesWorldDB() {
+        Workload.Operation[] ops = new Workload(8, 1024).generate(1500);
+        WorldDB db = new WorldDB(new Random(8));
+        String[] expected = new String[ops.length];
+        for (int i = 0; i < ops.length; i++) {
+            expected[i] = ops[i].apply(db);
+        }
+
+        AsyncATC async = new AsyncATC(new Random(8), 3);
+        CompletableFuture<?>[] results = new CompletableFuture<?>[ops.length];
+        for (int i = 0; i < ops.length; i++) {
+            Workload.Operation op = ops[i];
+            AirObject obj = op.getObject();
+            String[] args = op.toString().split(" ");
+            switch (op.getKind()) {
+                case ADD:
+                    results[i] = async.add(obj);
+                    break;
+                case DELETE:
+                    results[i] = async.delete(args[1]);
+                    break;
+                case PRINT:
+                    results[i] = async.print(args[1]);
+                    break;
+                case RANGEPRINT:
+                    results[i] = async.rangeprint(args[1], args[2]);
+                    break;
+                case INTERSECT:
+                    results[i] = async.intersect(Integer.parseInt(args[1]),
+                        Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                        Integer.parseInt(args[4]), Integer.parseInt(args[5]),
+                        Integer.parseInt(args[6]));
+                    break;
+                default:
+                    results[i] = async.collisions();
+                    break;
+            }
+        }
+        for (int i = 0; i < ops.length; i++) {
+            Object out = results[i].join();
+            assertEquals(expected[i], out == null ? null : out.toString());
+        }
+        assertEquals(db.printbintree(), async.printbintree().join());
+        assertEquals(db.printskiplist(), async.printskiplist().join());
+        async.clear().join();
+        assertEquals("SkipList is empty", async.printskiplist().join());
+        async.close();
+    }
+
+    /**
+     * Tests that identical pending queries are run once, unless a write
+     * was called between them.
+     */
+    public void testCoalescing() {
+        Manual writer = new Manual();
+        Manual readers = new Manual();
+        AsyncATC async = new AsyncATC(new Random(1), writer, readers);
+        CompletableFuture<Boolean> added = async.add(
+            new Balloon("b1", 10, 10, 10, 5, 5, 5, "hot", 3));
+        CompletableFuture<String> first = async.collisions();
+        CompletableFuture<String> second = async.collisions();
+        CompletableFuture<String> box = async.intersect(0, 0, 0, 20, 20, 20);
+        CompletableFuture<String> sameBox =
+            async.intersect(0, 0, 0, 20, 20, 20);
+        assertEquals(2, async.coalescedQueries());
+        assertNotSame(first, second);
+
+        async.delete("b1");
+        CompletableFuture<String> after = async.intersect(0, 0, 0, 20, 20,
+            20);
+        assertEquals(2, async.coalescedQueries());
+        assertNull(async.intersect(0, 0, 0, 0, 20, 20).join());
+
+        writer.runAll();
+        readers.runAll();
+        assertTrue(added.join());
+        assertEquals(first.join(), second.join());
+        assertEquals(box.join(), sameBox.join());
+        assertTrue(box.join().contains("b1"));
+        assertFalse(after.join().contains("b1"));
+
+        // Nothing pending any more, so this one runs again
+        CompletableFuture<String> again = async.collisions();
+        writer.runAll();
+        readers.runAll();
+        assertEquals(2, async.coalescedQueries());
+        assertEquals("The following collisions exist in the database:\n",
+            again.join());
+
+        // Arguments holding spaces must not make two queries look alike
+        CompletableFuture<String> spaced = async.rangeprint("a b", "c");
+        CompletableFuture<String> moved = async.rangeprint("a", "b c");
+        writer.runAll();
+        assertEquals(2, async.coalescedQueries());
+        assertEquals("Found these records in the range a to b c\n",
+            moved.join());
+        assertFalse(spaced.join().equals(moved.join()));
+    }
+}
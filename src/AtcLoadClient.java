@@ -0,0 +1,195 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Measures how many small queries per second an AtcServer answers.
+ *
+ * The client first adds a set of objects, then opens several
+ * connections. Each connection sends print queries for random names in
+ * pipelined windows: a window of requests is written in one go, then
+ * all of its responses are read.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class AtcLoadClient {
+
+    /**
+     * What one load run measured.
+     */
+    public static class Result {
+        private final long requests;
+        private final long nanos;
+        private final long misses;
+
+        private Result(long requests, long nanos, long misses) {
+            this.requests = requests;
+            this.nanos = nanos;
+            this.misses = misses;
+        }
+
+        /**
+         * Gets the number of queries answered.
+         * @return The count.
+         */
+        public long requests() {
+            return requests;
+        }
+
+        /**
+         * Gets the number of queries for a name the server did not have.
+         * @return The count, 0 if every preloaded object was found.
+         */
+        public long misses() {
+            return misses;
+        }
+
+        /**
+         * Gets the wall-clock time of the run.
+         * @return The time in nanoseconds.
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        /**
+         * Gets the throughput.
+         * @return Queries per second.
+         */
+        public double throughput() {
+            return nanos == 0 ? 0 : requests * 1e9 / nanos;
+        }
+
+        /**
+         * Returns a one-line report.
+         * @return The report.
+         */
+        @Override
+        public String toString() {
+            return String.format("%d queries in %.1f ms, %.0f queries/s,"
+                + " %d misses", requests, nanos / 1e6, throughput(), misses);
+        }
+    }
+
+    /**
+     * Load a server and measure it.
+     * @param port        The server's port on the loopback interface.
+     * @param objects     The number of objects to add first.
+     * @param connections The number of connections.
+     * @param requests    The number of queries per connection.
+     * @param window      The number of queries in flight per connection.
+     * @return What was measured.
+     * @throws IOException if a connection fails.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public static Result run(int port, int objects, int connections,
+        int requests, int window) throws IOException, InterruptedException {
+        String[] names = new String[objects];
+        try (Socket s = connect(port)) {
+            OutputStream out = new BufferedOutputStream(s.getOutputStream());
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            Random rnd = new Random(1);
+            for (int i = 0; i < objects; i++) {
+                names[i] = "load" + i;
+                send(out, "add Drone " + names[i] + " " + rnd.nextInt(1000)
+                    + " " + rnd.nextInt(1000) + " " + rnd.nextInt(1000)
+                    + " 4 4 4 Droners 2");
+            }
+            out.flush();
+            for (int i = 0; i < objects; i++) {
+                AtcServer.readResult(in);
+            }
+        }
+
+        Thread[] threads = new Thread[connections];
+        long[] misses = new long[connections];
+        IOException[] failure = new IOException[1];
+        long start = System.nanoTime();
+        for (int c = 0; c < connections; c++) {
+            int id = c;
+            threads[c] = new Thread(() -> {
+                try {
+                    misses[id] = query(port, names, requests, window, id);
+                }
+                catch (IOException e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                }
+            }, "AtcLoadClient-" + c);
+            threads[c].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        long nanos = System.nanoTime() - start;
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        long missed = 0;
+        for (long m : misses) {
+            missed += m;
+        }
+        return new Result((long) connections * requests, nanos, missed);
+    }
+
+    private static long query(int port, String[] names, int requests,
+        int window, long seed) throws IOException {
+        long misses = 0;
+        Random rnd = new Random(seed);
+        try (Socket s = connect(port)) {
+            OutputStream out = new BufferedOutputStream(s.getOutputStream(),
+                1 << 16);
+            InputStream in = new BufferedInputStream(s.getInputStream(),
+                1 << 16);
+            for (int done = 0; done < requests; done += window) {
+                int n = Math.min(window, requests - done);
+                for (int i = 0; i < n; i++) {
+                    send(out, "print " + names[rnd.nextInt(names.length)]);
+                }
+                out.flush();
+                for (int i = 0; i < n; i++) {
+                    if (AtcServer.readResult(in) == null) {
+                        misses++;
+                    }
+                }
+            }
+            send(out, "quit");
+            out.flush();
+        }
+        return misses;
+    }
+
+    private static Socket connect(int port) throws IOException {
+        Socket s = new Socket(InetAddress.getLoopbackAddress(), port);
+        s.setTcpNoDelay(true);
+        return s;
+    }
+
+    private static void send(OutputStream out, String line)
+        throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Load a running server and print the report.
+     * @param args The port, then optionally the number of connections
+     *             (default 4), queries per connection (default 250000)
+     *             and queries in flight (default 64).
+     * @throws Exception if the run fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 250000;
+        int window = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+        System.out.println(run(port, 10000, connections, requests, window));
+    }
+}
@@ -0,0 +1,339 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the ATC commands of one database over TCP on the loopback
+ * interface.
+ *
+ * Requests are lines of text, the same as Workload.Operation.toString():
+ * <pre>
+ * add Airplane Air1 0 10 1 20 2 30 USAir 717 4
+ * delete Air1
+ * print Air1
+ * rangeprint a z
+ * intersect 0 0 0 1024 1024 1024
+ * collisions | printbintree | printskiplist | clear | quit
+ * </pre>
+ * Each response starts with a header line: the length in bytes of the
+ * UTF-8 result that follows, -1 for a null result, or "!" and a message
+ * for a request that could not be parsed or that failed.
+ *
+ * A client may pipeline requests: send many before reading any response.
+ * The responses come back in order, and are written out in one batch
+ * when the server has caught up with the requests already received.
+ * Each connection is served by its own thread, and the connections share
+ * the database, so it should be thread-safe (a ConcurrentWorldDB).
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class AtcServer implements AutoCloseable {
+
+    private static final int OUT_BUFFER = 1 << 16;
+
+    private final ATC atc;
+    private final ServerSocket server;
+    private final ExecutorService connections;
+    private final Thread acceptor;
+    private Socket[] open = new Socket[8];
+    private int openCount;
+
+    /**
+     * Start serving on the loopback interface.
+     * @param atc  The database.
+     * @param port The port, or 0 for any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public AtcServer(ATC atc, int port) throws IOException {
+        this.atc = atc;
+        this.server = new ServerSocket(port, 128,
+            InetAddress.getLoopbackAddress());
+        int[] n = {0};
+        this.connections = Executors.newCachedThreadPool(task -> {
+            Thread t = new Thread(task, "AtcServer-connection-" + n[0]++);
+            t.setDaemon(true);
+            return t;
+        });
+        this.acceptor = new Thread(this::acceptAll, "AtcServer-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Gets the port being served.
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Wait until the server is closed.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void join() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * Stop accepting connections and close the open ones.
+     * @throws IOException if the server socket fails to close.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        synchronized (this) {
+            for (int i = 0; i < openCount; i++) {
+                open[i].close();
+            }
+            openCount = 0;
+        }
+        connections.shutdown();
+    }
+
+    private void acceptAll() {
+        try {
+            while (true) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                track(socket);
+                connections.execute(() -> serve(socket));
+            }
+        }
+        catch (IOException e) {
+            // The server socket was closed
+        }
+    }
+
+    private synchronized void track(Socket socket) {
+        if (openCount == open.length) {
+            Socket[] bigger = new Socket[2 * openCount];
+            System.arraycopy(open, 0, bigger, 0, openCount);
+            open = bigger;
+        }
+        open[openCount++] = socket;
+    }
+
+    private synchronized void untrack(Socket socket) {
+        for (int i = 0; i < openCount; i++) {
+            if (open[i] == socket) {
+                open[i] = open[--openCount];
+                open[openCount] = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Answer the requests of one connection until it closes.
+     */
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                s.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = new BufferedOutputStream(s.getOutputStream(),
+                OUT_BUFFER);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.equals("quit")) {
+                    break;
+                }
+                try {
+                    writeResult(out, execute(atc, line));
+                }
+                catch (IllegalArgumentException e) {
+                    writeError(out, e.getMessage());
+                }
+                catch (RuntimeException e) {
+                    // A request that failed inside the database must not
+                    // end the session
+                    writeError(out, e.toString());
+                }
+                // Batch the responses while more requests are waiting
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
+        catch (SocketException e) {
+            // Closed by the client or by close()
+        }
+        catch (IOException e) {
+            // Nothing more can be sent on this connection
+        }
+        finally {
+            untrack(socket);
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Protocol
+
+    /**
+     * Run one request line against an ATC.
+     * @param atc  The database.
+     * @param line The request.
+     * @return The result, as the ATC method returned it (add and clear
+     *         give "true", "false" or "").
+     * @throws IllegalArgumentException if the request cannot be parsed.
+     */
+    static String execute(ATC atc, String line) {
+        String[] t = line.trim().split(" +");
+        try {
+            switch (t[0]) {
+                case "add":
+                    return String.valueOf(atc.add(parseObject(t)));
+                case "delete":
+                    return atc.delete(arg(t, 1, 2));
+                case "print":
+                    return atc.print(arg(t, 1, 2));
+                case "rangeprint":
+                    return atc.rangeprint(arg(t, 1, 3), t[2]);
+                case "intersect":
+                    arg(t, 1, 7);
+                    return atc.intersect(Integer.parseInt(t[1]),
+                        Integer.parseInt(t[2]), Integer.parseInt(t[3]),
+                        Integer.parseInt(t[4]), Integer.parseInt(t[5]),
+                        Integer.parseInt(t[6]));
+                case "collisions":
+                    return atc.collisions();
+                case "printbintree":
+                    return atc.printbintree();
+                case "printskiplist":
+                    return atc.printskiplist();
+                case "clear":
+                    atc.clear();
+                    return "";
+                default:
+                    throw new IllegalArgumentException(
+                        "Unknown command: " + t[0]);
+            }
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad number in: " + line);
+        }
+    }
+
+    private static String arg(String[] t, int i, int length) {
+        if (t.length != length) {
+            throw new IllegalArgumentException(t[0] + " takes "
+                + (length - 1) + " arguments");
+        }
+        return t[i];
+    }
+
+    /**
+     * Build an AirObject from "add Type name x y z xw yw zw fields...".
+     */
+    private static AirObject parseObject(String[] t) {
+        if (t.length < 2) {
+            throw new IllegalArgumentException("add needs an object");
+        }
+        int fields = t[1].equals("Airplane") ? 3 : 2;
+        arg(t, 1, 9 + fields);
+        String name = t[2];
+        int x = Integer.parseInt(t[3]);
+        int y = Integer.parseInt(t[4]);
+        int z = Integer.parseInt(t[5]);
+        int xw = Integer.parseInt(t[6]);
+        int yw = Integer.parseInt(t[7]);
+        int zw = Integer.parseInt(t[8]);
+        switch (t[1]) {
+            case "Airplane":
+                return new AirPlane(name, x, y, z, xw, yw, zw, t[9],
+                    Integer.parseInt(t[10]), Integer.parseInt(t[11]));
+            case "Balloon":
+                return new Balloon(name, x, y, z, xw, yw, zw, t[9],
+                    Integer.parseInt(t[10]));
+            case "Bird":
+                return new Bird(name, x, y, z, xw, yw, zw, t[9],
+                    Integer.parseInt(t[10]));
+            case "Drone":
+                return new Drone(name, x, y, z, xw, yw, zw, t[9],
+                    Integer.parseInt(t[10]));
+            case "Rocket":
+                return new Rocket(name, x, y, z, xw, yw, zw,
+                    Integer.parseInt(t[9]), Double.parseDouble(t[10]));
+            default:
+                throw new IllegalArgumentException(
+                    "Unknown object type: " + t[1]);
+        }
+    }
+
+    /**
+     * Write one result with its header line.
+     * @param out    The stream.
+     * @param result The result, or null.
+     * @throws IOException if writing fails.
+     */
+    static void writeResult(OutputStream out, String result)
+        throws IOException {
+        if (result == null) {
+            out.write("-1\n".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        byte[] bytes = result.getBytes(StandardCharsets.UTF_8);
+        out.write((bytes.length + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+    }
+
+    private static void writeError(OutputStream out, String message)
+        throws IOException {
+        out.write(("!" + String.valueOf(message).replace('\n', ' ') + "\n")
+            .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read one response.
+     * @param in The stream, buffered.
+     * @return The result, or null.
+     * @throws IOException if the stream ends, or the server rejected the
+     *         request (the message says why).
+     */
+    static String readResult(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header.startsWith("!")) {
+            throw new IOException(header.substring(1));
+        }
+        int length = Integer.parseInt(header);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        int got = 0;
+        while (got < length) {
+            int n = in.read(bytes, got, length - got);
+            if (n < 0) {
+                throw new EOFException("Connection closed mid-response");
+            }
+            got += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(16);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("Connection closed");
+            }
+            line.write(b);
+        }
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
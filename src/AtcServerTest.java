@@ -0,0 +1,140 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the AtcServer and AtcLoadClient classes.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class AtcServerTest extends TestCase {
+
+    private AtcServer server;
+
+    /**
+     * Starts a server on a free port.
+     * @throws IOException if it cannot start.
+     */
+    public void setUp() throws IOException {
+        server = new AtcServer(new ConcurrentWorldDB(new Random(2)), 0);
+    }
+
+    /**
+     * Stops the server.
+     * @throws IOException if it cannot stop.
+     */
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    /**
+     * Tests that pipelined requests get the same answers, in order, as
+     * calling a WorldDB directly.
+     * @throws IOException if the connection fails.
+     */
+    public void testPipelinedMatchesWorldDB() throws IOException {
+        Workload.Operation[] ops = new Workload(5, 1024).generate(800);
+        WorldDB db = new ConcurrentWorldDB(new Random(2));
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(),
+            server.getPort())) {
+            OutputStream out = s.getOutputStream();
+            StringBuilder requests = new StringBuilder();
+            for (Workload.Operation op : ops) {
+                requests.append(op).append("\n");
+            }
+            requests.append("printbintree\nprintskiplist\n");
+            out.write(requests.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            for (Workload.Operation op : ops) {
+                assertEquals(op.apply(db), AtcServer.readResult(in));
+            }
+            assertEquals(db.printbintree(), AtcServer.readResult(in));
+            assertEquals(db.printskiplist(), AtcServer.readResult(in));
+        }
+    }
+
+    /**
+     * Tests that bad requests are answered with an error and the
+     * connection keeps going.
+     * @throws IOException if the connection fails.
+     */
+    public void testBadRequests() throws IOException {
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(),
+            server.getPort())) {
+            OutputStream out = s.getOutputStream();
+            out.write(("fly away\nprint\nintersect 1 2 x 4 5 6\n"
+                + "add Zeppelin z 1 1 1 1 1 1 a 1\nprint nobody\nclear\n")
+                .getBytes(StandardCharsets.UTF_8));
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            String[] errors = {"Unknown command", "print takes",
+                "Bad number", "Unknown object type"};
+            for (String error : errors) {
+                Exception thrown = null;
+                try {
+                    AtcServer.readResult(in);
+                }
+                catch (IOException e) {
+                    thrown = e;
+                }
+                assertNotNull(thrown);
+                assertTrue(thrown.getMessage().startsWith(error));
+            }
+            assertNull(AtcServer.readResult(in));
+            assertEquals("", AtcServer.readResult(in));
+        }
+    }
+
+    /**
+     * Tests that a request failing inside the database is answered with
+     * an error and the connection keeps going.
+     * @throws IOException if the connection fails.
+     */
+    public void testFailingRequest() throws IOException {
+        WorldDB broken = new ConcurrentWorldDB(new Random(2)) {
+            @Override
+            public String collisions() {
+                throw new IllegalStateException("broken");
+            }
+        };
+        try (AtcServer other = new AtcServer(broken, 0);
+            Socket s = new Socket(InetAddress.getLoopbackAddress(),
+                other.getPort())) {
+            OutputStream out = s.getOutputStream();
+            out.write("collisions\nprint nobody\n"
+                .getBytes(StandardCharsets.UTF_8));
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            Exception thrown = null;
+            try {
+                AtcServer.readResult(in);
+            }
+            catch (IOException e) {
+                thrown = e;
+            }
+            assertNotNull(thrown);
+            assertTrue(thrown.getMessage().contains("broken"));
+            assertNull(AtcServer.readResult(in));
+        }
+    }
+
+    /**
+     * Tests a small load run.
+     * @throws Exception if the run fails.
+     */
+    public void testLoadClient() throws Exception {
+        AtcLoadClient.Result result =
+            AtcLoadClient.run(server.getPort(), 200, 3, 2000, 32);
+        assertEquals(6000, result.requests());
+        assertEquals(0, result.misses());
+        assertTrue(result.throughput() > 0);
+        assertTrue(result.toString().contains("6000 queries"));
+    }
+}
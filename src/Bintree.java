@@ -8,52 +8,269 @@
  */
 public class Bintree {
 
-    private BintreeNode root;
+    private volatile BintreeNode root;
     private int worldSize;
+    private final int[] worldBox;
 
     public Bintree(int worldSize) {
         this.worldSize = worldSize;
+        this.worldBox =
+            new int[] {0, 0, 0, worldSize, worldSize, worldSize};
         this.root = EmptyNode.getInstance();
     }
 
+    /**
+     * Get the current root node.
+     * @return The root of the tree.
+     */
+    BintreeNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Replace the root node.
+     * @param root The new root of the tree.
+     */
+    void setRoot(BintreeNode root) {
+        this.root = root;
+    }
+
+    /**
+     * Get the size of the world this tree covers.
+     * @return The world size.
+     */
+    public int getWorldSize() {
+        return worldSize;
+    }
+
+    /**
+     * Remove every object from the tree.
+     */
+    public void clear() {
+        root = EmptyNode.getInstance();
+    }
+
     public void insert(AirObject obj) {
         root = root.insert(obj, 0, 0, 0,
             worldSize, worldSize, worldSize, 0);
     }
 
+    /**
+     * Insert a batch of objects, building the tree top-down.
+     * Each node is created exactly once: the batch is split along the
+     * same halving planes the tree uses, and a region becomes a leaf as
+     * soon as its objects would not make a leaf split. The result is the
+     * same tree (with leaf contents in the same order) that inserting the
+     * objects one at a time, in array order, would produce.
+     * If the tree is not empty, the objects are inserted one at a time.
+     *
+     * @param objs The objects to insert.
+     */
+    public void bulkLoad(AirObject[] objs) {
+        if (!(root instanceof EmptyNode)) {
+            BintreeNode node = root;
+            for (int i = 0; i < objs.length; i++) {
+                node = node.insert(objs[i], 0, 0, 0,
+                    worldSize, worldSize, worldSize, 0);
+            }
+            root = node;
+            return;
+        }
+        AirObject[] batch = new AirObject[objs.length];
+        System.arraycopy(objs, 0, batch, 0, objs.length);
+        root = build(batch, batch.length, 0, 0, 0,
+            worldSize, worldSize, worldSize, 0);
+    }
+
+    /**
+     * Build the subtree for a region from the objects that intersect it.
+     *
+     * @param objs   The objects, in insertion order (the array is reused).
+     * @param n      The number of objects in use.
+     * @param x      The x-origin of the region.
+     * @param y      The y-origin of the region.
+     * @param z      The z-origin of the region.
+     * @param xWid   The width of the region in x.
+     * @param yWid   The width of the region in y.
+     * @param zWid   The width of the region in z.
+     * @param depth  The depth of the region in the tree.
+     * @return The root of the subtree.
+     */
+    private BintreeNode build(AirObject[] objs, int n, int x, int y, int z,
+        int xWid, int yWid, int zWid, int depth) {
+        if (n == 0) {
+            return EmptyNode.getInstance();
+        }
+        // Same rule as LeafNode.insert: split only > 3 objects that do
+        // not all intersect
+        if (n <= 3 || allIntersect(objs, n)) {
+            SimpleList data = new SimpleList();
+            for (int i = 0; i < n; i++) {
+                data.add(objs[i]);
+            }
+            return newLeaf(data);
+        }
+
+        int axis = depth % 3;
+        int newDepth = depth + 1;
+        int lxWid = xWid;
+        int lyWid = yWid;
+        int lzWid = zWid;
+        int rx = x;
+        int ry = y;
+        int rz = z;
+        if (axis == 0) {
+            lxWid = xWid / 2;
+            rx = x + lxWid;
+        }
+        else if (axis == 1) {
+            lyWid = yWid / 2;
+            ry = y + lyWid;
+        }
+        else {
+            lzWid = zWid / 2;
+            rz = z + lzWid;
+        }
+
+        // The right half is gathered into a new array first; the left
+        // half can then be compacted in place.
+        AirObject[] upper = new AirObject[n];
+        int rn = 0;
+        int ln = 0;
+        for (int i = 0; i < n; i++) {
+            AirObject obj = objs[i];
+            if (obj.intersects(rx, ry, rz, lxWid, lyWid, lzWid)) {
+                upper[rn++] = obj;
+            }
+            if (obj.intersects(x, y, z, lxWid, lyWid, lzWid)) {
+                objs[ln++] = obj;
+            }
+        }
+        BintreeNode left = build(objs, ln, x, y, z,
+            lxWid, lyWid, lzWid, newDepth);
+        BintreeNode right = build(upper, rn, rx, ry, rz,
+            lxWid, lyWid, lzWid, newDepth);
+        return newInternal(left, right, n);
+    }
+
+    /**
+     * Check whether the first n objects share a common intersection box,
+     * as LeafNode.allIntersect does for a leaf holding them.
+     *
+     * @param objs The objects.
+     * @param n    The number of objects in use, at least 1.
+     * @return True if they all intersect, false otherwise.
+     */
+    private static boolean allIntersect(AirObject[] objs, int n) {
+        int x1 = objs[0].getXorig();
+        int y1 = objs[0].getYorig();
+        int z1 = objs[0].getZorig();
+        int x2 = x1 + objs[0].getXwidth();
+        int y2 = y1 + objs[0].getYwidth();
+        int z2 = z1 + objs[0].getZwidth();
+        for (int i = 1; i < n; i++) {
+            AirObject obj = objs[i];
+            x1 = Math.max(x1, obj.getXorig());
+            y1 = Math.max(y1, obj.getYorig());
+            z1 = Math.max(z1, obj.getZorig());
+            x2 = Math.min(x2, obj.getXorig() + obj.getXwidth());
+            y2 = Math.min(y2, obj.getYorig() + obj.getYwidth());
+            z2 = Math.min(z2, obj.getZorig() + obj.getZwidth());
+            if (x1 >= x2 || y1 >= y2 || z1 >= z2) {
+                return false; // No overlap
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create a leaf node for bulkLoad. Subclasses using other node types
+     * override this.
+     * @param data The objects in the leaf.
+     * @return The new leaf.
+     */
+    LeafNode newLeaf(SimpleList data) {
+        return new LeafNode(data);
+    }
+
+    /**
+     * Create an internal node for bulkLoad. Subclasses using other node
+     * types override this.
+     * @param left  The left child.
+     * @param right The right child.
+     * @param count The number of unique objects in the two children.
+     * @return The new internal node.
+     */
+    InternalNode newInternal(BintreeNode left, BintreeNode right,
+        int count) {
+        return new InternalNode(left, right, count);
+    }
+
     public void remove(AirObject obj) {
         root = root.remove(obj, 0, 0, 0,
             worldSize, worldSize, worldSize, 0);
     }
 
+    /**
+     * Walk the tree and report its shape: leaf depths and sizes, how
+     * many leaves each object is in, and an estimate of its memory.
+     * @return The shape of the tree.
+     */
+    public BintreeShape shape() {
+        return BintreeShape.of(getRoot());
+    }
+
     public String print() {
+        SlowQueryEvent event = new SlowQueryEvent();
+        event.begin();
         StringBuilder sb = new StringBuilder();
-        int nodeCount = root.print(sb, 0, 0, 0,
+        int nodeCount = getRoot().print(sb, 0, 0, 0,
             worldSize, worldSize, worldSize, 0);
+        Metrics.bintreeNodesVisited(nodeCount);
         sb.append(nodeCount);
         sb.append(" Bintree nodes printed\n");
+        event.finish("printbintree", worldBox, nodeCount, sb);
         return sb.toString();
     }
     
     public String collisions() {
+        return collisions(PairwiseCollisionEngine.getInstance());
+    }
+
+    /**
+     * List all collisions, using the given engine for the pairs inside
+     * each leaf. The output is the same for every engine.
+     * @param engine The engine that finds the pairs inside a leaf.
+     * @return String listing the collisions.
+     */
+    public String collisions(CollisionEngine engine) {
+        SlowQueryEvent event = new SlowQueryEvent();
+        event.begin();
         StringBuilder sb = new StringBuilder();
         sb.append("The following collisions exist in the database:\n");
-        root.collisions(sb, 0, 0, 0, worldSize, worldSize, worldSize, 0);
+        getRoot().collisions(sb, 0, 0, 0, worldSize, worldSize, worldSize, 0,
+            engine);
+        event.finish("collisions", worldBox, -1, sb);
         return sb.toString();
     }
     
     public String intersect(int x, int y, int z, int xwid, int ywid, int zwid) {
+        SlowQueryEvent event = new SlowQueryEvent();
+        event.begin();
         StringBuilder sb = new StringBuilder();
         sb.append(String.format(
             "The following objects intersect (%d %d %d %d %d %d):\n",
             x, y, z, xwid, ywid, zwid));
             
-        int nodesVisited = root.intersect(
+        int nodesVisited = getRoot().intersect(
              sb, x, y, z, xwid, ywid, zwid,
              0, 0, 0, worldSize, worldSize, worldSize, 0);
+        Metrics.bintreeNodesVisited(nodesVisited);
             
         sb.append(nodesVisited);
         sb.append(" nodes were visited in the bintree\n");
+        event.finish("intersect", new int[] {x, y, z, xwid, ywid, zwid},
+            nodesVisited, sb);
         return sb.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+/**
+ * Records the regions of the Bintree whose node structure a write
+ * changed: an empty node that became a leaf, a leaf that split or
+ * emptied, an internal node that merged or emptied. Queries whose box
+ * misses all of these regions walk exactly the same nodes as before the
+ * write, which is what lets QueryCache keep their results.
+ *
+ * Recording is per thread and only between start() and stop(); the
+ * hooks in the nodes cost one volatile read when nobody is recording.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+final class BintreeChanges {
+
+    private static final ThreadLocal<BintreeChanges> CURRENT =
+        new ThreadLocal<>();
+    private static volatile int recording;
+
+    private int[] regions = new int[6 * 4];
+    private int count;
+
+    private BintreeChanges() {
+    }
+
+    /**
+     * Gets an empty record, for a write that changed no Bintree nodes
+     * the caller's cache depends on.
+     * @return A record with no regions.
+     */
+    static BintreeChanges none() {
+        return new BintreeChanges();
+    }
+
+    /**
+     * Start recording the changes made by this thread.
+     * @return The recorder.
+     */
+    static BintreeChanges start() {
+        BintreeChanges changes = new BintreeChanges();
+        CURRENT.set(changes);
+        synchronized (BintreeChanges.class) {
+            recording++;
+        }
+        return changes;
+    }
+
+    /**
+     * Stop recording on this thread.
+     */
+    void stop() {
+        CURRENT.remove();
+        synchronized (BintreeChanges.class) {
+            recording--;
+        }
+    }
+
+    /**
+     * Hook: the node with this region changed structure.
+     * @param x    The x-origin of the region.
+     * @param y    The y-origin of the region.
+     * @param z    The z-origin of the region.
+     * @param xWid The width of the region in x.
+     * @param yWid The width of the region in y.
+     * @param zWid The width of the region in z.
+     */
+    static void changed(int x, int y, int z, int xWid, int yWid, int zWid) {
+        if (recording == 0) {
+            return;
+        }
+        BintreeChanges changes = CURRENT.get();
+        if (changes != null) {
+            changes.add(x, y, z, xWid, yWid, zWid);
+        }
+    }
+
+    private void add(int x, int y, int z, int xWid, int yWid, int zWid) {
+        // A split records its own region before the leaves it creates
+        for (int i = 0; i < count; i += 6) {
+            if (x >= regions[i] && y >= regions[i + 1] && z >= regions[i + 2]
+                && x + xWid <= regions[i] + regions[i + 3]
+                && y + yWid <= regions[i + 1] + regions[i + 4]
+                && z + zWid <= regions[i + 2] + regions[i + 5]) {
+                return;
+            }
+        }
+        if (count == regions.length) {
+            int[] bigger = new int[2 * count];
+            System.arraycopy(regions, 0, bigger, 0, count);
+            regions = bigger;
+        }
+        regions[count++] = x;
+        regions[count++] = y;
+        regions[count++] = z;
+        regions[count++] = xWid;
+        regions[count++] = yWid;
+        regions[count++] = zWid;
+    }
+
+    /**
+     * Gets the number of regions recorded.
+     * @return The count.
+     */
+    int size() {
+        return count / 6;
+    }
+
+    /**
+     * Checks if a query box overlaps, or touches, any recorded region.
+     * @param box The box: x, y, z, xWid, yWid, zWid.
+     * @return True if a query with this box might now walk other nodes.
+     */
+    boolean touches(int[] box) {
+        for (int i = 0; i < count; i += 6) {
+            if (box[0] <= regions[i] + regions[i + 3]
+                && box[0] + box[3] >= regions[i]
+                && box[1] <= regions[i + 1] + regions[i + 4]
+                && box[1] + box[4] >= regions[i + 1]
+                && box[2] <= regions[i + 2] + regions[i + 5]
+                && box[2] + box[5] >= regions[i + 2]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
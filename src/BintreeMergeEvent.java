@@ -0,0 +1,22 @@
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Recorded when an internal node merges back into a leaf and building
+ * the merged leaf takes at least the threshold.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+@Name("WorldDB.BintreeMerge")
+@Label("Bintree Merge")
+@Description("An internal node merged back into a leaf")
+@Threshold("1 ms")
+class BintreeMergeEvent extends BintreeRegionEvent {
+
+    @Label("Objects")
+    @Description("Objects in the merged leaf")
+    int objects;
+}
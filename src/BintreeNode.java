@@ -74,8 +74,30 @@ public interface BintreeNode {
      * @param zWid   The width of the region in z.
      * @param depth  The depth of the current node in the tree.
      */
+    default void collisions(StringBuilder sb, int x, int y, int z,
+        int xWid, int yWid, int zWid, int depth) {
+        collisions(sb, x, y, z, xWid, yWid, zWid, depth,
+            PairwiseCollisionEngine.getInstance());
+    }
+
+
+    /**
+     * Finds all collisions within this node (and its children) using
+     * the given engine for the pairs inside each leaf, and appends them
+     * to the StringBuilder.
+     *
+     * @param sb     The StringBuilder to append to.
+     * @param x      The x-origin of the current node's region.
+     * @param y      The y-origin of the current node's region.
+     * @param z      The z-origin of the current node's region.
+     * @param xWid   The width of the region in x.
+     * @param yWid   The width of the region in y.
+     * @param zWid   The width of the region in z.
+     * @param depth  The depth of the current node in the tree.
+     * @param engine The engine that finds the pairs inside a leaf.
+     */
     void collisions(StringBuilder sb, int x, int y, int z,
-        int xWid, int yWid, int zWid, int depth);
+        int xWid, int yWid, int zWid, int depth, CollisionEngine engine);
 
 
     /**
@@ -0,0 +1,56 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the Java Flight Recorder events about one Bintree node. Holds
+ * the node's depth and region.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+@Category({"WorldDB", "Bintree"})
+abstract class BintreeRegionEvent extends Event {
+
+    @Label("Depth")
+    int depth;
+
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Z")
+    int z;
+
+    @Label("X Width")
+    int xWid;
+
+    @Label("Y Width")
+    int yWid;
+
+    @Label("Z Width")
+    int zWid;
+
+    /**
+     * Fill in the node's region.
+     * @param x     Region x-origin.
+     * @param y     Region y-origin.
+     * @param z     Region z-origin.
+     * @param xWid  Region x-width.
+     * @param yWid  Region y-width.
+     * @param zWid  Region z-width.
+     * @param depth Node depth.
+     */
+    void setRegion(int x, int y, int z, int xWid, int yWid, int zWid,
+                   int depth) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.xWid = xWid;
+        this.yWid = yWid;
+        this.zWid = zWid;
+        this.depth = depth;
+    }
+}
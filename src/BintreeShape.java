@@ -0,0 +1,289 @@
+import java.util.Random;
+
+/**
+ * The shape of a Bintree: how deep its leaves are, how full they are,
+ * how many times each object is stored, and roughly how much memory the
+ * nodes take. Built by walking the tree once; see Bintree.shape().
+ *
+ * Byte estimates assume a 64-bit JVM with compressed references (12-byte
+ * object headers, 4-byte references, 8-byte alignment). They count the
+ * nodes and leaf lists only, not the AirObjects, which the SkipList
+ * shares.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class BintreeShape {
+
+    /** Object header size in bytes. */
+    static final int HEADER = 12;
+    /** Array header size in bytes (object header plus length). */
+    static final int ARRAY_HEADER = 16;
+    /** Reference size in bytes. */
+    static final int REF = 4;
+
+    private static final long INTERNAL_BYTES = align(HEADER + 2 * REF + 4);
+    private static final long LEAF_BYTES = align(HEADER + REF + 7 * 4 + 1);
+    private static final long LIST_BYTES = align(HEADER + REF + 2 * 4);
+
+    private int internalNodes;
+    private int leafNodes;
+    private int emptyNodes;
+    private int oversizedLeaves;
+    private long entries;
+    private int uniqueObjects;
+    private int maxReplication;
+    private long bytes;
+    private int[] leavesByDepth = new int[8];
+    private int[] leavesBySize = new int[8];
+    private int[] objectsByReplication = new int[8];
+
+    /**
+     * Leaves each object was found in so far, by name.
+     */
+    private final SkipList<String, int[]> copies =
+        new SkipList<>(new Random(0));
+
+    /**
+     * Walk a whole tree.
+     * @param root The root node.
+     * @return The shape of the tree.
+     */
+    static BintreeShape of(BintreeNode root) {
+        BintreeShape shape = new BintreeShape();
+        shape.walk(root, 0);
+        return shape;
+    }
+
+    /**
+     * Add a subtree to the shape.
+     * @param node  The subtree's root.
+     * @param depth Its depth in the whole tree.
+     */
+    void walk(BintreeNode node, int depth) {
+        if (node instanceof InternalNode) {
+            InternalNode in = (InternalNode) node;
+            internalNodes++;
+            bytes += INTERNAL_BYTES;
+            walk(in.getLeft(), depth + 1);
+            walk(in.getRight(), depth + 1);
+        }
+        else if (node instanceof LeafNode) {
+            addLeaf(((LeafNode) node).getData(), depth);
+        }
+        else {
+            emptyNodes++;
+        }
+    }
+
+    /**
+     * Count internal nodes that are not walked, such as the levels above
+     * the shards of a ShardedWorldDB.
+     * @param n The number of nodes.
+     */
+    void addInternal(int n) {
+        internalNodes += n;
+        bytes += n * INTERNAL_BYTES;
+    }
+
+    private void addLeaf(SimpleList data, int depth) {
+        int size = data.size();
+        leafNodes++;
+        entries += size;
+        bytes += LEAF_BYTES + LIST_BYTES
+            + align(ARRAY_HEADER + (long)REF * data.capacity());
+        if (size > 3) {
+            oversizedLeaves++;
+        }
+        leavesByDepth = bump(leavesByDepth, depth);
+        leavesBySize = bump(leavesBySize, size);
+
+        for (int i = 0; i < size; i++) {
+            String name = data.get(i).getName();
+            int[] seen = copies.find(name);
+            if (seen == null) {
+                seen = new int[1];
+                copies.insert(name, seen);
+                uniqueObjects++;
+            }
+            else {
+                objectsByReplication[seen[0]]--;
+            }
+            seen[0]++;
+            objectsByReplication = bump(objectsByReplication, seen[0]);
+            maxReplication = Math.max(maxReplication, seen[0]);
+        }
+    }
+
+    private static int[] bump(int[] counts, int index) {
+        if (index >= counts.length) {
+            int[] bigger = new int[Math.max(index + 1, counts.length * 2)];
+            System.arraycopy(counts, 0, bigger, 0, counts.length);
+            counts = bigger;
+        }
+        counts[index]++;
+        return counts;
+    }
+
+    /**
+     * Round a size up to the JVM's 8-byte object alignment.
+     * @param size The unaligned size.
+     * @return The aligned size.
+     */
+    static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Gets the number of internal nodes.
+     * @return The count.
+     */
+    public int internalNodes() {
+        return internalNodes;
+    }
+
+    /**
+     * Gets the number of leaf nodes.
+     * @return The count.
+     */
+    public int leafNodes() {
+        return leafNodes;
+    }
+
+    /**
+     * Gets the number of empty children. They all share one flyweight.
+     * @return The count.
+     */
+    public int emptyNodes() {
+        return emptyNodes;
+    }
+
+    /**
+     * Gets the number of leaves holding more than 3 objects, which only
+     * happens when all of them intersect and the leaf cannot split.
+     * @return The count.
+     */
+    public int oversizedLeaves() {
+        return oversizedLeaves;
+    }
+
+    /**
+     * Gets the number of leaves at a depth.
+     * @param depth The depth (the root is 0).
+     * @return The count.
+     */
+    public int leavesAtDepth(int depth) {
+        return depth < leavesByDepth.length ? leavesByDepth[depth] : 0;
+    }
+
+    /**
+     * Gets the number of leaves holding a number of objects.
+     * @param size The number of objects.
+     * @return The count.
+     */
+    public int leavesOfSize(int size) {
+        return size < leavesBySize.length ? leavesBySize[size] : 0;
+    }
+
+    /**
+     * Gets the number of objects stored in exactly this many leaves.
+     * @param leaves The number of leaves.
+     * @return The count.
+     */
+    public int objectsInLeaves(int leaves) {
+        return leaves < objectsByReplication.length
+            ? objectsByReplication[leaves] : 0;
+    }
+
+    /**
+     * Gets the depth of the deepest leaf.
+     * @return The depth, or -1 if there are no leaves.
+     */
+    public int maxDepth() {
+        for (int d = leavesByDepth.length - 1; d >= 0; d--) {
+            if (leavesByDepth[d] > 0) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of (leaf, object) entries.
+     * @return The count.
+     */
+    public long entries() {
+        return entries;
+    }
+
+    /**
+     * Gets the number of distinct objects in the tree.
+     * @return The count.
+     */
+    public int uniqueObjects() {
+        return uniqueObjects;
+    }
+
+    /**
+     * Gets the average number of leaves an object is stored in.
+     * @return The replication factor, or 0 for an empty tree.
+     */
+    public double replicationFactor() {
+        return uniqueObjects == 0 ? 0 : (double)entries / uniqueObjects;
+    }
+
+    /**
+     * Gets the most leaves any one object is stored in.
+     * @return The count.
+     */
+    public int maxReplication() {
+        return maxReplication;
+    }
+
+    /**
+     * Gets the estimated bytes retained by the nodes and leaf lists.
+     * @return The estimate.
+     */
+    public long estimatedBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns a multi-line report of the shape.
+     * @return The report.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Bintree: ").append(internalNodes).append(" internal, ")
+          .append(leafNodes).append(" leaf, ").append(emptyNodes)
+          .append(" empty nodes\n");
+        sb.append("leaves by depth:");
+        appendHistogram(sb, leavesByDepth);
+        sb.append("leaves by size:");
+        appendHistogram(sb, leavesBySize);
+        sb.append("oversized leaves ").append(oversizedLeaves).append("\n");
+        sb.append("objects ").append(uniqueObjects).append(", entries ")
+          .append(entries).append(", replication ")
+          .append(String.format("%.2f", replicationFactor()))
+          .append(", max ").append(maxReplication).append("\n");
+        sb.append("objects by leaves:");
+        appendHistogram(sb, objectsByReplication);
+        sb.append("estimated bytes ").append(bytes).append("\n");
+        return sb.toString();
+    }
+
+    /**
+     * Append the non-zero entries of a histogram as " index:count".
+     * @param sb     The builder.
+     * @param counts The histogram.
+     */
+    static void appendHistogram(StringBuilder sb, int[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                sb.append(" ").append(i).append(":").append(counts[i]);
+            }
+        }
+        sb.append("\n");
+    }
+}
@@ -0,0 +1,22 @@
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Recorded when a leaf splits into an internal node and the split
+ * (including any splits it causes below) takes at least the threshold.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+@Name("WorldDB.BintreeSplit")
+@Label("Bintree Split")
+@Description("A leaf split into an internal node")
+@Threshold("1 ms")
+class BintreeSplitEvent extends BintreeRegionEvent {
+
+    @Label("Objects")
+    @Description("Objects in the leaf that split")
+    int objects;
+}
@@ -0,0 +1,156 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the Bintree class.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class BintreeTest extends TestCase {
+
+    private Bintree tree;
+    private Bintree incremental;
+
+    /**
+     * Sets up two empty trees.
+     */
+    public void setUp() {
+        tree = new Bintree(1024);
+        incremental = new Bintree(1024);
+    }
+
+    /**
+     * Make a batch of random objects, with a clustered group that
+     * produces non-splitting leaves.
+     */
+    private AirObject[] batch(int n, long seed) {
+        Random rnd = new Random(seed);
+        AirObject[] objs = new AirObject[n];
+        for (int i = 0; i < n; i++) {
+            if (i % 5 == 0) {
+                objs[i] = new Bird("flock" + i, 500 + rnd.nextInt(10),
+                    500 + rnd.nextInt(10), 500, 30, 30, 30, "geese", 40);
+            }
+            else {
+                int w = 1 + rnd.nextInt(100);
+                objs[i] = new AirPlane("P" + i, rnd.nextInt(1024 - w),
+                    rnd.nextInt(1024 - w), rnd.nextInt(1024 - w), w, w, w,
+                    "Delta", i + 1, 2);
+            }
+        }
+        return objs;
+    }
+
+    /**
+     * Tests that bulk loading builds the same tree as inserting.
+     */
+    public void testBulkLoadMatchesInsert() {
+        AirObject[] objs = batch(500, 21);
+        tree.bulkLoad(objs);
+        for (AirObject obj : objs) {
+            incremental.insert(obj);
+        }
+        assertEquals(incremental.print(), tree.print());
+        assertEquals(incremental.collisions(), tree.collisions());
+        assertEquals(incremental.intersect(100, 200, 300, 400, 400, 400),
+            tree.intersect(100, 200, 300, 400, 400, 400));
+
+        // The batch array is not changed
+        assertEquals("flock0", objs[0].getName());
+        assertEquals("P499", objs[499].getName());
+
+        // Removes work on a bulk loaded tree
+        for (int i = 0; i < objs.length; i += 2) {
+            tree.remove(objs[i]);
+            incremental.remove(objs[i]);
+        }
+        assertEquals(incremental.print(), tree.print());
+    }
+
+    /**
+     * Tests small and empty batches.
+     */
+    public void testBulkLoadSmall() {
+        tree.bulkLoad(new AirObject[0]);
+        assertEquals(incremental.print(), tree.print());
+        AirObject[] objs = batch(3, 4);
+        tree.bulkLoad(objs);
+        for (AirObject obj : objs) {
+            incremental.insert(obj);
+        }
+        assertEquals(incremental.print(), tree.print());
+    }
+
+    /**
+     * Tests that a bulk load into a non-empty tree inserts one at a time.
+     */
+    public void testBulkLoadNonEmpty() {
+        AirObject[] objs = batch(100, 8);
+        AirObject[] first = new AirObject[40];
+        AirObject[] rest = new AirObject[60];
+        System.arraycopy(objs, 0, first, 0, 40);
+        System.arraycopy(objs, 40, rest, 0, 60);
+        tree.bulkLoad(first);
+        tree.bulkLoad(rest);
+        for (AirObject obj : objs) {
+            incremental.insert(obj);
+        }
+        assertEquals(incremental.print(), tree.print());
+    }
+
+    /**
+     * Tests that the persistent tree bulk loads persistent nodes.
+     */
+    public void testBulkLoadPersistent() {
+        PersistentBintree persistent = new PersistentBintree(1024);
+        AirObject[] objs = batch(200, 2);
+        persistent.bulkLoad(objs);
+        PersistentBintree snap = persistent.snapshot();
+        String before = snap.print();
+        persistent.remove(objs[1]);
+        assertEquals(before, snap.print());
+        assertTrue(persistent.getRoot() instanceof PersistentInternalNode);
+    }
+
+    /**
+     * Tests the shape report of a small tree.
+     */
+    public void testShape() {
+        BintreeShape empty = tree.shape();
+        assertEquals(0, empty.leafNodes());
+        assertEquals(1, empty.emptyNodes());
+        assertEquals(-1, empty.maxDepth());
+        assertEquals(0.0, empty.replicationFactor(), 0.0);
+
+        // Four objects in the lower x half, one straddling the split
+        tree.insert(new Bird("a", 0, 0, 0, 10, 10, 10, "crow", 1));
+        tree.insert(new Bird("b", 100, 0, 0, 10, 10, 10, "crow", 1));
+        tree.insert(new Bird("c", 900, 0, 0, 10, 10, 10, "crow", 1));
+        tree.insert(new Bird("d", 500, 0, 0, 24, 10, 10, "crow", 1));
+        // Five clustered objects that all intersect
+        for (int i = 0; i < 5; i++) {
+            tree.insert(new Bird("f" + i, 700 + i, 700, 700, 20, 20, 20,
+                "geese", 1));
+        }
+
+        BintreeShape shape = tree.shape();
+        assertEquals(9, shape.uniqueObjects());
+        assertEquals(2, shape.maxReplication());
+        assertEquals(8, shape.objectsInLeaves(1));
+        assertEquals(1, shape.objectsInLeaves(2));
+        assertEquals(10, shape.entries());
+        assertEquals(10.0 / 9, shape.replicationFactor(), 1e-9);
+        assertEquals(1, shape.oversizedLeaves());
+        assertEquals(1, shape.leavesOfSize(5));
+        int leaves = 0;
+        for (int d = 0; d <= shape.maxDepth(); d++) {
+            leaves += shape.leavesAtDepth(d);
+        }
+        assertEquals(shape.leafNodes(), leaves);
+        assertEquals(shape.internalNodes() + 1,
+            shape.leafNodes() + shape.emptyNodes());
+        assertTrue(shape.estimatedBytes() > 0);
+        assertTrue(shape.toString().contains("oversized leaves 1"));
+    }
+}
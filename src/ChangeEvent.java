@@ -0,0 +1,72 @@
+/**
+ * One entry of a WorldDB change feed: an add, a delete or a clear,
+ * numbered in the order the database applied them.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public final class ChangeEvent {
+
+    /**
+     * What changed.
+     */
+    public enum Kind {
+        /** An object was added. */
+        ADD,
+        /** An object was deleted. */
+        DELETE,
+        /** Every object was removed. */
+        CLEAR
+    }
+
+    private final long sequence;
+    private final Kind kind;
+    private final AirObject object;
+
+    /**
+     * Constructor.
+     * @param sequence The position in the feed, from 1.
+     * @param kind     What changed.
+     * @param object   The object added or deleted, or null for a clear.
+     */
+    ChangeEvent(long sequence, Kind kind, AirObject object) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.object = object;
+    }
+
+    /**
+     * Gets the position in the feed. Each event is one more than the
+     * last.
+     * @return The sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets what changed.
+     * @return The kind.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the object added or deleted.
+     * @return The object, or null for a clear.
+     */
+    public AirObject getObject() {
+        return object;
+    }
+
+    /**
+     * Returns the event as "sequence kind object".
+     * @return The text.
+     */
+    @Override
+    public String toString() {
+        String text = sequence + " " + kind.name().toLowerCase();
+        return object == null ? text : text + " " + object;
+    }
+}
@@ -0,0 +1,181 @@
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An ordered, sequence-numbered feed of the changes made to a WorldDB,
+ * kept in a bounded ring so a follower can keep a copy of the database
+ * current without dumping it again.
+ *
+ * The database appends from its write path, one write at a time, and
+ * never waits: the ring keeps the most recent capacity() events and
+ * overwrites older ones. Each follower reads through its own Cursor,
+ * with no locks, in batches as large as it likes, so a slow follower
+ * catches up in a few large reads. A follower that falls more than
+ * capacity() events behind has lost events; its next poll() throws and
+ * it has to start again from a new snapshot.
+ *
+ * A follower starts from WorldDB.feedSnapshot(): the objects stored at
+ * some sequence number, plus a cursor at the event after it.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class ChangeFeed {
+
+    /**
+     * The capacity used when none is given.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+
+    private final AtomicReferenceArray<ChangeEvent> ring;
+    private final int mask;
+    private volatile long sequence; // last event appended
+
+    /**
+     * Where one follower is in the feed.
+     */
+    public final class Cursor {
+        private long next;
+
+        private Cursor(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Gets the sequence number of the next event this cursor reads.
+         * @return The sequence number.
+         */
+        public long position() {
+            return next;
+        }
+
+        /**
+         * Gets the number of events appended but not yet read.
+         * @return The lag.
+         */
+        public long lag() {
+            return sequence - next + 1;
+        }
+
+        /**
+         * Read the next events, oldest first.
+         * @param batch Filled from index 0.
+         * @return The number of events read, 0 if there are none yet.
+         * @throws IllegalStateException if the events this cursor needs
+         *         were overwritten.
+         */
+        public int poll(ChangeEvent[] batch) {
+            long last = sequence;
+            int n = (int) Math.min(batch.length, last - next + 1);
+            for (int i = 0; i < n; i++) {
+                ChangeEvent e = ring.get((int) (next + i) & mask);
+                if (e == null || e.getSequence() != next + i) {
+                    throw new IllegalStateException("Change feed overwrote"
+                        + " event " + (next + i) + "; take a new snapshot");
+                }
+                batch[i] = e;
+            }
+            next += n;
+            return n;
+        }
+    }
+
+    /**
+     * The objects of a database at one point in the feed, and a cursor at
+     * the first change after it.
+     */
+    public static final class Snapshot {
+        private final long sequence;
+        private final AirObject[] objects;
+        private final Cursor cursor;
+
+        /**
+         * Constructor.
+         * @param feed    The feed.
+         * @param objects The objects stored after the last event appended.
+         */
+        Snapshot(ChangeFeed feed, AirObject[] objects) {
+            this.sequence = feed.sequence();
+            this.objects = objects;
+            this.cursor = feed.new Cursor(sequence + 1);
+        }
+
+        /**
+         * Gets the sequence number of the last change the snapshot holds.
+         * @return The sequence number, 0 before any change.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Gets the objects stored, in name order.
+         * @return A copy of the objects.
+         */
+        public AirObject[] getObjects() {
+            return objects.clone();
+        }
+
+        /**
+         * Gets the cursor that continues from the snapshot.
+         * @return The cursor.
+         */
+        public Cursor getCursor() {
+            return cursor;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param capacity The number of events kept, rounded up to a power
+     *                 of two.
+     */
+    public ChangeFeed(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException(
+                "capacity must be 1 to 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        ring = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Gets the number of events kept.
+     * @return The capacity.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Gets the sequence number of the last event appended.
+     * @return The sequence number, 0 before any.
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Append an event. Only one thread may append at a time.
+     * @param kind   What changed.
+     * @param object The object added or deleted, or null for a clear.
+     * @return The event's sequence number.
+     */
+    long append(ChangeEvent.Kind kind, AirObject object) {
+        long seq = sequence + 1;
+        ring.set((int) seq & mask, new ChangeEvent(seq, kind, object));
+        sequence = seq;
+        return seq;
+    }
+
+    /**
+     * Get a cursor at the next event to be appended.
+     * @return The cursor.
+     */
+    public Cursor tail() {
+        return new Cursor(sequence + 1);
+    }
+}
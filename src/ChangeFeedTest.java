@@ -0,0 +1,139 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the ChangeFeed class and the WorldDB change feed.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class ChangeFeedTest extends TestCase {
+
+    private Balloon balloon(String name) {
+        return new Balloon(name, 10, 10, 10, 5, 5, 5, "hot", 3);
+    }
+
+    /**
+     * Tests appending and reading in batches.
+     */
+    public void testBatches() {
+        ChangeFeed feed = new ChangeFeed(5);
+        assertEquals(8, feed.capacity());
+        ChangeFeed.Cursor cursor = feed.tail();
+        ChangeEvent[] batch = new ChangeEvent[3];
+        assertEquals(0, cursor.poll(batch));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1, feed.append(ChangeEvent.Kind.ADD,
+                balloon("b" + i)));
+        }
+        assertEquals(5, cursor.lag());
+        assertEquals(3, cursor.poll(batch));
+        assertEquals("1 add " + balloon("b0"), batch[0].toString());
+        assertEquals(3, batch[2].getSequence());
+        assertEquals(2, cursor.poll(batch));
+        assertEquals(5, batch[1].getSequence());
+        assertEquals(0, cursor.lag());
+        assertEquals(6, cursor.position());
+
+        feed.append(ChangeEvent.Kind.CLEAR, null);
+        assertEquals(1, cursor.poll(batch));
+        assertNull(batch[0].getObject());
+        assertEquals("6 clear", batch[0].toString());
+
+        Exception thrown = null;
+        try {
+            new ChangeFeed(0);
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests that a cursor that falls a whole ring behind is told so
+     * instead of skipping events.
+     */
+    public void testOverrun() {
+        ChangeFeed feed = new ChangeFeed(4);
+        ChangeFeed.Cursor cursor = feed.tail();
+        for (int i = 0; i < 5; i++) {
+            feed.append(ChangeEvent.Kind.ADD, balloon("b" + i));
+        }
+        Exception thrown = null;
+        try {
+            cursor.poll(new ChangeEvent[8]);
+        }
+        catch (IllegalStateException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertEquals(1, cursor.position());
+    }
+
+    /**
+     * Tests that a plain WorldDB publishes its adds and deletes.
+     */
+    public void testPlainWorldDB() {
+        WorldDB db = new WorldDB(new Random(1));
+        ChangeFeed.Cursor cursor = db.changeFeed().tail();
+        assertTrue(db.add(balloon("b1")));
+        assertNotNull(db.delete("b1"));
+        assertNull(db.delete("b1"));
+        ChangeEvent[] batch = new ChangeEvent[4];
+        assertEquals(2, cursor.poll(batch));
+        assertEquals("1 add " + balloon("b1"), batch[0].toString());
+        assertEquals("2 delete " + balloon("b1"), batch[1].toString());
+    }
+
+    /**
+     * Tests that a follower built from a snapshot plus the feed ends up
+     * with the same objects as the database.
+     */
+    public void testSnapshotPlusTail() {
+        WorldDB db = new ConcurrentWorldDB(new Random(1));
+        Workload w = new Workload(6, 1024);
+        for (Workload.Operation op : w.generate(300)) {
+            op.apply(db);
+        }
+        ChangeFeed.Snapshot snap = db.feedSnapshot();
+        assertEquals(0, snap.getSequence());
+        WorldDB follower = new WorldDB(new Random(1));
+        for (AirObject obj : snap.getObjects()) {
+            assertTrue(follower.add(obj));
+        }
+        for (Workload.Operation op : w.generate(1500)) {
+            op.apply(db);
+        }
+        db.clear();
+        for (Workload.Operation op : w.generate(500)) {
+            op.apply(db);
+        }
+
+        ChangeFeed.Cursor cursor = snap.getCursor();
+        ChangeEvent[] batch = new ChangeEvent[64];
+        long expected = snap.getSequence() + 1;
+        int n;
+        while ((n = cursor.poll(batch)) > 0) {
+            for (int i = 0; i < n; i++) {
+                ChangeEvent e = batch[i];
+                assertEquals(expected++, e.getSequence());
+                switch (e.getKind()) {
+                    case ADD:
+                        assertTrue(follower.add(e.getObject()));
+                        break;
+                    case DELETE:
+                        String name = e.getObject().getName();
+                        assertNotNull(follower.delete(name));
+                        break;
+                    default:
+                        follower.clear();
+                        break;
+                }
+            }
+        }
+        assertEquals(db.changeFeed().sequence(), expected - 1);
+        assertEquals(db.rangeprint("", "~"), follower.rangeprint("", "~"));
+        assertEquals(db.printbintree(), follower.printbintree());
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Finds the colliding pairs among the objects of one Bintree leaf.
+ * The tree walk and the leaf headers stay the same for every engine;
+ * only the way the pairs inside a leaf are found changes. Every engine
+ * must report exactly the pairs, in exactly the order, of the original
+ * pairwise scan: by the first object's position in the leaf, then by
+ * the second's.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public interface CollisionEngine {
+
+    /**
+     * Appends the collisions among the objects of a leaf. A collision is
+     * only reported if the origin of the intersection box lies in the
+     * leaf's region.
+     *
+     * @param sb     The StringBuilder to append to.
+     * @param data   The objects in the leaf.
+     * @param x      The x-origin of the leaf's region.
+     * @param y      The y-origin of the leaf's region.
+     * @param z      The z-origin of the leaf's region.
+     * @param xWid   The width of the region in x.
+     * @param yWid   The width of the region in y.
+     * @param zWid   The width of the region in z.
+     */
+    void leafCollisions(StringBuilder sb, SimpleList data, int x, int y,
+        int z, int xWid, int yWid, int zWid);
+
+
+    /**
+     * Appends one pair of intersecting objects if the origin of their
+     * intersection box lies in the given region. The pair is printed in
+     * name order.
+     *
+     * @param sb     The StringBuilder to append to.
+     * @param a      The first object.
+     * @param b      The second object.
+     * @param x      The x-origin of the region.
+     * @param y      The y-origin of the region.
+     * @param z      The z-origin of the region.
+     * @param xWid   The width of the region in x.
+     * @param yWid   The width of the region in y.
+     * @param zWid   The width of the region in z.
+     */
+    static void report(StringBuilder sb, AirObject a, AirObject b,
+        int x, int y, int z, int xWid, int yWid, int zWid) {
+        int ix = Math.max(a.getXorig(), b.getXorig());
+        int iy = Math.max(a.getYorig(), b.getYorig());
+        int iz = Math.max(a.getZorig(), b.getZorig());
+
+        if (ix >= x && ix < x + xWid &&
+            iy >= y && iy < y + yWid &&
+            iz >= z && iz < z + zWid) {
+
+            if (a.compareTo(b) <= 0) {
+                sb.append("(").append(a.toString())
+                  .append(") and (")
+                  .append(b.toString()).append(")\n");
+            }
+            else {
+                sb.append("(").append(b.toString())
+                  .append(") and (")
+                  .append(a.toString()).append(")\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+import java.util.Arrays;
+
+/**
+ * A SkipList key for names that share long prefixes, such as carrier
+ * codes or sector tags. It orders exactly as String.compareTo does.
+ *
+ * A name is encoded as one byte per character; a character of U+00FF
+ * or above takes three bytes (0xFF, then the char's two bytes), which
+ * keeps the byte order the same as the String order. The first 8 bytes
+ * are packed into a long, so most comparisons are one unsigned compare
+ * of two longs, and a name of at most 8 bytes needs no array at all.
+ * The bytes past the head are kept in an array. A name can share its
+ * bytes up to some point with another name's array (see sharePrefix()),
+ * keeping only the rest; two names sharing one array compare from the
+ * end of the shorter shared part, other bytes past the head one at a
+ * time.
+ *
+ * A SkipList built with sharePrefix() as its compactor shares each new
+ * key with the key before it, so in a run of names such as
+ * DRONE-SECTOR-7-0001, DRONE-SECTOR-7-0002, ... each key keeps only the
+ * bytes where it differs. Short names such as UAL1001 fit in the head.
+ * See estimatedBytes() for what a key costs against a String.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public final class CompactName implements Comparable<CompactName> {
+
+    private static final int HEAD_BYTES = 8;
+    private static final int ESCAPE = 0xFF;
+    private static final byte[] NONE = new byte[0];
+    private static final long OBJECT_BYTES = BintreeShape.align(
+        BintreeShape.HEADER + 8 + 2 * BintreeShape.REF + 4);
+
+    private final long head; // first 8 bytes, big-endian, zero padded
+    private final byte[] root; // holds bytes 8 to shared - 1, from 0
+    private final int shared; // bytes not in suffix, at least min(8, len)
+    private final byte[] suffix; // bytes from shared on
+
+    private CompactName(long head, byte[] root, int shared, byte[] suffix) {
+        this.head = head;
+        this.root = root;
+        this.shared = shared;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Encode a name.
+     * @param name The name.
+     * @return Its key, sharing nothing.
+     */
+    public static CompactName of(String name) {
+        int len = name.length();
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= ESCAPE) {
+                len += 2;
+            }
+        }
+        byte[] bytes = new byte[len];
+        int j = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= ESCAPE) {
+                bytes[j++] = (byte)ESCAPE;
+                bytes[j++] = (byte)(c >>> 8);
+            }
+            bytes[j++] = (byte)c;
+        }
+        long head = 0;
+        for (int i = 0; i < HEAD_BYTES; i++) {
+            head = (head << 8) | (i < len ? bytes[i] & 0xFF : 0);
+        }
+        if (len <= HEAD_BYTES) {
+            return new CompactName(head, null, len, NONE);
+        }
+        return new CompactName(head, null, HEAD_BYTES,
+            Arrays.copyOfRange(bytes, HEAD_BYTES, len));
+    }
+
+    /**
+     * Gets a key for the same name that shares its bytes past the head
+     * with another key's array, as far as the two agree. Meant as a
+     * SkipList compactor, given each new key and the key before it.
+     * @param prev The other key, or null.
+     * @return The sharing key, or this one if sharing would not make
+     *         this key's array smaller, or if the other key's shared
+     *         part cuts off enough of what the two have in common that
+     *         the keys after this one would rather share all of it.
+     */
+    public CompactName sharePrefix(CompactName prev) {
+        if (prev == null || root != null || suffix.length == 0
+            || head != prev.head) {
+            return this;
+        }
+        // Share the other key's own array, never a chain of them
+        byte[] base = prev.root != null ? prev.root : prev.suffix;
+        int limit = prev.root != null ? prev.shared : prev.length();
+        int n = Math.min(limit, length());
+        int common = HEAD_BYTES;
+        while (common < n
+            && base[common - HEAD_BYTES] == suffix[common - HEAD_BYTES]) {
+            common++;
+        }
+        int rest = length() - common;
+        if (common == limit) {
+            // prev may share only the start of what the two have in
+            // common; if so, keeping an own array lets the keys after
+            // this one share all of it
+            int all = common;
+            int m = Math.min(prev.length(), length());
+            while (all < m && prev.byteAt(all) == byteAt(all)) {
+                all++;
+            }
+            if (arrayBytes(length() - all) < arrayBytes(rest)) {
+                return this;
+            }
+        }
+        if (arrayBytes(rest) >= arrayBytes(suffix.length)) {
+            return this;
+        }
+        return new CompactName(head, base, common, rest == 0 ? NONE
+            : Arrays.copyOfRange(suffix, common - HEAD_BYTES,
+                suffix.length));
+    }
+
+    /**
+     * Gets the estimated bytes this key takes on its own: the key object
+     * and its own array, not an array it shares with other keys. Uses
+     * the same JVM assumptions as BintreeShape, under which a String of
+     * n one-byte characters takes 24 bytes plus a 16 + n byte array.
+     * @return The estimate.
+     */
+    public long estimatedBytes() {
+        return OBJECT_BYTES + arrayBytes(suffix.length);
+    }
+
+    private static long arrayBytes(int length) {
+        return length == 0 ? 0
+            : BintreeShape.align(BintreeShape.ARRAY_HEADER + length);
+    }
+
+    private int length() {
+        return shared + suffix.length;
+    }
+
+    private int byteAt(int i) {
+        if (i < HEAD_BYTES) {
+            return (int)(head >>> (8 * (HEAD_BYTES - 1 - i))) & 0xFF;
+        }
+        return (i < shared ? root[i - HEAD_BYTES] : suffix[i - shared])
+            & 0xFF;
+    }
+
+    @Override
+    public int compareTo(CompactName o) {
+        if (head != o.head) {
+            return Long.compareUnsigned(head, o.head);
+        }
+        int la = length();
+        int lb = o.length();
+        int n = Math.min(la, lb);
+        // The heads are equal, and so are the bytes both share
+        int i = Math.min(HEAD_BYTES, n);
+        if (root != null && root == o.root) {
+            i = Math.max(i, Math.min(shared, o.shared));
+        }
+        for (; i < n; i++) {
+            int d = byteAt(i) - o.byteAt(i);
+            if (d != 0) {
+                return d;
+            }
+        }
+        return la - lb;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CompactName && compareTo((CompactName) o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    /**
+     * Decode the name.
+     * @return The name.
+     */
+    @Override
+    public String toString() {
+        int len = length();
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            int b = byteAt(i);
+            if (b == ESCAPE) {
+                b = (byteAt(i + 1) << 8) | byteAt(i + 2);
+                i += 2;
+            }
+            sb.append((char)b);
+        }
+        return sb.toString();
+    }
+}
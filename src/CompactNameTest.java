@@ -0,0 +1,135 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the CompactName class.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class CompactNameTest extends TestCase {
+
+    private static final String[] PREFIXES = {"", "U", "UAL", "UAL10",
+        "DRONE-SECTOR-7-", "DRONE-SECTOR-7-77", "\u00e9t\u00e9-", "\u4e2d",
+        "\u00fe", "\u00ff", "\u00ff\u0100", "DRONE-SECTOR-\uffff"};
+
+    /**
+     * Tests the order matches String.compareTo, with and without shared
+     * prefixes
+     */
+    public void testOrderMatchesString() {
+        Random rnd = new Random(7);
+        String[] names = new String[400];
+        CompactName[] plain = new CompactName[names.length];
+        CompactName[] sharing = new CompactName[names.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = PREFIXES[rnd.nextInt(PREFIXES.length)]
+                + Integer.toString(rnd.nextInt(5000), 36)
+                + (rnd.nextInt(4) == 0 ? "\u0000" : "");
+            plain[i] = CompactName.of(names[i]);
+            sharing[i] = i == 0 ? plain[i]
+                : plain[i].sharePrefix(sharing[rnd.nextInt(i)]);
+            assertEquals(names[i], sharing[i].toString());
+        }
+        for (int i = 0; i < names.length; i++) {
+            for (int j = 0; j < names.length; j++) {
+                int expected = Integer.signum(names[i].compareTo(names[j]));
+                assertEquals(expected,
+                    Integer.signum(plain[i].compareTo(plain[j])));
+                assertEquals(expected,
+                    Integer.signum(sharing[i].compareTo(sharing[j])));
+                assertEquals(expected,
+                    Integer.signum(sharing[i].compareTo(plain[j])));
+                assertEquals(expected == 0, sharing[i].equals(plain[j]));
+            }
+        }
+    }
+
+    /**
+     * Tests sharing keeps only the bytes after the common prefix, and
+     * only when that makes the key smaller
+     */
+    public void testSharePrefix() {
+        CompactName first = CompactName.of("DRONE-SECTOR-7-0001");
+        CompactName next = CompactName.of("DRONE-SECTOR-7-0002")
+            .sharePrefix(first);
+        assertEquals(64, first.estimatedBytes());
+        assertEquals(56, next.estimatedBytes());
+        CompactName third = CompactName.of("DRONE-SECTOR-7-0003")
+            .sharePrefix(next);
+        assertEquals(56, third.estimatedBytes());
+        assertEquals("DRONE-SECTOR-7-0003", third.toString());
+        assertTrue(next.compareTo(third) < 0);
+
+        // Too little in common to shrink the array
+        CompactName other = CompactName.of("DRONE-SECXXXXXXXXXX");
+        assertSame(other, other.sharePrefix(first));
+        // Short names live in the head and have nothing to share
+        CompactName ual = CompactName.of("UAL1001");
+        assertSame(ual, ual.sharePrefix(CompactName.of("UAL1002")));
+        assertEquals(32, ual.estimatedBytes());
+        assertSame(ual, ual.sharePrefix(null));
+        assertEquals(first.hashCode(),
+            CompactName.of("DRONE-SECTOR-7-0001").hashCode());
+    }
+
+    /**
+     * Tests a run of keys sharing prefixes takes less memory than the
+     * same names as Strings
+     */
+    public void testSmallerThanString() {
+        SkipList<CompactName, String> compact = new SkipList<>(
+            new Random(3), CompactName::sharePrefix);
+        long strings = 0;
+        for (int i = 1000; i < 2000; i++) {
+            for (String name : new String[] {"UAL" + i,
+                "DRONE-SECTOR-7-" + i, "DRONE-SECTOR-7-BRAVO-" + i}) {
+                compact.insert(CompactName.of(name), name);
+                strings += 24 + BintreeShape.align(16 + name.length());
+            }
+        }
+        long[] keys = new long[1];
+        compact.scan(CompactName.of(""), (k, v) -> {
+            assertEquals(v, k.toString());
+            keys[0] += k.estimatedBytes();
+            return true;
+        });
+        // 48 + 64 + 72 bytes a name as Strings, 32 + 56 + 56 shared. The
+        // first DRONE key keeps its own array, as do the first two BRAVO
+        // keys: the first shares only DRONE-SECTOR-7- with the run before
+        assertEquals(1000 * (48 + 64 + 72), strings);
+        assertEquals(1000 * (32 + 56 + 56) + 8 + 8 + 16, keys[0]);
+    }
+
+    /**
+     * Tests a SkipList that shares each key's prefix with the key before
+     * it lists the same entries as one keyed by String
+     */
+    public void testSkipListCompactor() {
+        SkipList<String, String> strings = new SkipList<>(new Random(3));
+        SkipList<CompactName, String> compact = new SkipList<>(
+            new Random(3), CompactName::sharePrefix);
+        Random ops = new Random(9);
+        for (int i = 0; i < 2000; i++) {
+            String name = "FLIGHT-UAL-" + ops.nextInt(700);
+            CompactName key = CompactName.of(name);
+            if (ops.nextInt(3) == 0) {
+                assertEquals(strings.remove(name), compact.remove(key));
+            }
+            else if (strings.find(name) == null) {
+                strings.insert(name, name);
+                compact.insert(key, name);
+            }
+            assertEquals(strings.find(name), compact.find(key));
+        }
+        assertEquals(strings.size(), compact.size());
+        assertEquals(strings.print(), compact.print());
+        StringBuilder sb = new StringBuilder();
+        compact.scan(CompactName.of(""), (k, v) -> {
+            sb.append(k).append('\n');
+            return true;
+        });
+        assertEquals(strings.range("", "~"),
+            "Found these records in the range  to ~\n" + sb);
+    }
+}
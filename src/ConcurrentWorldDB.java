@@ -0,0 +1,348 @@
+import java.util.Random;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe WorldDB. The SkipList and the Bintree each have their
+ * own synchronization, so name lookups never wait for spatial writes.
+ * The SkipList is guarded by one StampedLock, and the Bintree is a
+ * StripedBintree, so writes in different octants of the world run in
+ * parallel. Read-only queries use optimistic stamped reads.
+ *
+ * Region subscribers and the change feed hear of each add or delete once
+ * its Bintree change is done, in the order the writes reached the
+ * SkipList, so the changes to one name are always seen in order.
+ *
+ * The query cache can be turned on as for WorldDB. Each write drops the
+ * cached results it could have changed once its Bintree change is done,
+ * and a result read while a write was in progress is not cached (see
+ * QueryCache).
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class ConcurrentWorldDB extends WorldDB {
+
+    private final StampedLock skipLock = new StampedLock();
+    private long writes; // SkipList writes so far; guarded by skipLock
+    private final Object turns = new Object();
+    private long published; // writes published so far; guarded by turns
+
+    /**
+     * Constructor.
+     * @param r The Random used for SkipList levels (null for a new one).
+     */
+    public ConcurrentWorldDB(Random r) {
+        super(r);
+    }
+
+    @Override
+    Bintree newBintree(int size) {
+        return new StripedBintree(size);
+    }
+
+    @Override
+    public void clear() {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            long stamp = skipLock.writeLock();
+            try {
+                publishInTurn(writes++, this::recordClear);
+                getSkipList().clear();
+                getBintree().clear();
+                QueryCache<String> cache = queryCache();
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            finally {
+                skipLock.unlockWrite(stamp);
+            }
+        }
+        finally {
+            metrics.stop(Metrics.Op.CLEAR, began);
+        }
+    }
+
+    @Override
+    public boolean add(AirObject a) {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            if (!isValid(a)) {
+                return false;
+            }
+            SkipList<String, AirObject> skipList = getSkipList();
+            StripedBintree bintree = (StripedBintree) getBintree();
+            StripedBintree.WriteLocks locks;
+            long turn;
+
+            // The Bintree locks are taken before the SkipList lock is
+            // released, so a delete of the same name cannot reach the
+            // Bintree first. The turn taken under the same lock keeps the
+            // notifications in SkipList order.
+            long stamp = skipLock.writeLock();
+            try {
+                if (skipList.find(a.getName()) != null) {
+                    return false;
+                }
+                skipList.insert(a.getName(), a);
+                locks = bintree.lockFor(a, false);
+                turn = writes++;
+            }
+            finally {
+                skipLock.unlockWrite(stamp);
+            }
+            try {
+                writeBintree(a, locks, true);
+            }
+            finally {
+                publishInTurn(turn, () -> recordAdd(a));
+            }
+            return true;
+        }
+        finally {
+            metrics.stop(Metrics.Op.ADD, began);
+        }
+    }
+
+    @Override
+    public String delete(String name) {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            if (name == null) {
+                return null;
+            }
+            SkipList<String, AirObject> skipList = getSkipList();
+            StripedBintree bintree = (StripedBintree) getBintree();
+            AirObject obj;
+            StripedBintree.WriteLocks locks;
+            long turn;
+
+            long stamp = skipLock.writeLock();
+            try {
+                obj = skipList.remove(name);
+                if (obj == null) {
+                    return null;
+                }
+                locks = bintree.lockFor(obj, true);
+                turn = writes++;
+            }
+            finally {
+                skipLock.unlockWrite(stamp);
+            }
+            try {
+                writeBintree(obj, locks, false);
+            }
+            finally {
+                AirObject deleted = obj;
+                publishInTurn(turn, () -> recordDelete(deleted));
+            }
+            return obj.toString();
+        }
+        finally {
+            metrics.stop(Metrics.Op.DELETE, began);
+        }
+    }
+
+    /**
+     * Insert or remove an object in the Bintree under the locks taken for
+     * it, then drop the cached results the change made stale.
+     * @param obj    The object.
+     * @param locks  The locks from lockFor(), released here.
+     * @param insert True to insert, false to remove.
+     */
+    private void writeBintree(AirObject obj, StripedBintree.WriteLocks locks,
+        boolean insert) {
+        StripedBintree bintree = (StripedBintree) getBintree();
+        QueryCache<String> cache = queryCache();
+        BintreeChanges changes =
+            cache == null ? null : BintreeChanges.start();
+        try {
+            if (insert) {
+                bintree.insertLocked(obj, locks);
+            }
+            else {
+                bintree.removeLocked(obj, locks);
+            }
+        }
+        finally {
+            bintree.unlock(locks);
+            if (changes != null) {
+                changes.stop();
+            }
+        }
+        if (cache != null) {
+            cache.invalidate(obj, changes);
+        }
+    }
+
+    /**
+     * Publish a write once every write that reached the SkipList before
+     * it has been published. A write that fails still passes its turn on.
+     * @param turn   The write's turn, taken under the SkipList lock.
+     * @param record Publishes the write.
+     */
+    private void publishInTurn(long turn, Runnable record) {
+        synchronized (turns) {
+            boolean interrupted = false;
+            while (published != turn) {
+                try {
+                    turns.wait();
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            try {
+                record.run();
+            }
+            finally {
+                published++;
+                turns.notifyAll();
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    @Override
+    public String printskiplist() {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            return readNames(super::printskiplist);
+        }
+        finally {
+            metrics.stop(Metrics.Op.PRINTSKIPLIST, began);
+        }
+    }
+
+    @Override
+    public String print(String name) {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            return readNames(() -> super.print(name));
+        }
+        finally {
+            metrics.stop(Metrics.Op.PRINT, began);
+        }
+    }
+
+    /**
+     * Only the SkipList walk runs under the lock, so a rangeprint() that
+     * had to retry never puts a result read mid-write in the query cache.
+     */
+    @Override
+    String readRange(String start, String end) {
+        return readNames(() -> super.readRange(start, end));
+    }
+
+    @Override
+    public String rangeprintDescending(String start, String end) {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            return readNames(() -> super.rangeprintDescending(start, end));
+        }
+        finally {
+            metrics.stop(Metrics.Op.RANGEPRINT_DESCENDING, began);
+        }
+    }
+
+    @Override
+    public SkipListShape skipListShape() {
+        return readNames(super::skipListShape);
+    }
+
+    @Override
+    public ChangeFeed.Snapshot feedSnapshot() {
+        changeFeed();
+        return readNames(super::feedSnapshot);
+    }
+
+    /**
+     * Runs under the read lock rather than optimistically, since the sink
+     * must not see an object twice. The sink must not write to this
+     * database.
+     */
+    @Override
+    public int prefixScan(String prefix, Consumer<AirObject> sink) {
+        long stamp = skipLock.readLock();
+        try {
+            return super.prefixScan(prefix, sink);
+        }
+        finally {
+            skipLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs under the read lock, like prefixScan().
+     */
+    @Override
+    public int descendingScan(String from, Predicate<AirObject> sink) {
+        long stamp = skipLock.readLock();
+        try {
+            return super.descendingScan(from, sink);
+        }
+        finally {
+            skipLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs under the read lock, like prefixScan().
+     */
+    @Override
+    public int globScan(String pattern, Consumer<AirObject> sink) {
+        long stamp = skipLock.readLock();
+        try {
+            return super.globScan(pattern, sink);
+        }
+        finally {
+            skipLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Run a SkipList query, optimistically first and under the read lock
+     * if a writer changed the list while it ran. The work of a query that
+     * is run again is counted in the metrics only once.
+     * @param <T>   The result type.
+     * @param query The query to run.
+     * @return The query result.
+     */
+    private <T> T readNames(Supplier<T> query) {
+        long stamp = skipLock.tryOptimisticRead();
+        boolean ran = stamp != 0;
+        if (ran) {
+            try {
+                T result = query.get();
+                if (skipLock.validate(stamp)) {
+                    return result;
+                }
+            }
+            catch (RuntimeException e) {
+                // Saw a write in progress; retry under the read lock
+            }
+        }
+        Metrics counted = ran ? Metrics.suspend() : null;
+        stamp = skipLock.readLock();
+        try {
+            return query.get();
+        }
+        finally {
+            skipLock.unlockRead(stamp);
+            if (ran) {
+                Metrics.bind(counted);
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the thread-safe WorldDB.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class ConcurrentWorldDBTest extends TestCase {
+
+    private ConcurrentWorldDB db;
+    private WorldDB plain;
+
+    /**
+     * Sets up a concurrent and a plain database with the same seed.
+     */
+    public void setUp() {
+        db = new ConcurrentWorldDB(new Random(3));
+        plain = new WorldDB(new Random(3));
+    }
+
+    /**
+     * Make a small plane with its origin at the given point.
+     */
+    private AirObject plane(String name, int x, int y, int z) {
+        return new AirPlane(name, x, y, z, 8, 8, 8, "Delta", 1, 2);
+    }
+
+    /**
+     * Tests that single-threaded use gives exactly the WorldDB output,
+     * including through the exclusive and the striped write paths.
+     */
+    public void testSameOutputAsWorldDB() {
+        Random rnd = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            AirObject a = plane("P" + i, rnd.nextInt(1010),
+                rnd.nextInt(1010), rnd.nextInt(1010));
+            assertEquals(plain.add(a), db.add(a));
+        }
+        // One object crossing every octant boundary
+        AirObject big = new Balloon("big", 500, 500, 500, 24, 24, 24,
+            "hot_air", 5);
+        assertEquals(plain.add(big), db.add(big));
+        assertEquals(plain.printbintree(), db.printbintree());
+        assertEquals(plain.printskiplist(), db.printskiplist());
+        assertEquals(plain.collisions(), db.collisions());
+        assertEquals(plain.intersect(100, 100, 100, 600, 600, 600),
+            db.intersect(100, 100, 100, 600, 600, 600));
+        assertEquals(plain.rangeprint("P1", "P3"), db.rangeprint("P1", "P3"));
+
+        assertEquals(plain.delete("big"), db.delete("big"));
+        for (int i = 0; i < 200; i += 3) {
+            assertEquals(plain.delete("P" + i), db.delete("P" + i));
+        }
+        assertEquals(plain.printbintree(), db.printbintree());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(plain.delete("P" + i), db.delete("P" + i));
+            assertEquals(plain.printbintree(), db.printbintree());
+        }
+        assertNull(db.delete("P1"));
+        assertNull(db.delete(null));
+        assertFalse(db.add(null));
+    }
+
+    /**
+     * Tests that clear empties both structures.
+     */
+    public void testClear() {
+        assertTrue(db.add(plane("a", 10, 10, 10)));
+        db.clear();
+        assertNull(db.print("a"));
+        assertEquals(plain.printbintree(), db.printbintree());
+        assertTrue(db.add(plane("a", 10, 10, 10)));
+        assertFalse(db.add(plane("a", 20, 20, 20)));
+    }
+
+    /**
+     * Tests writers in different octants running in parallel, with
+     * readers running at the same time.
+     *
+     * @throws Exception
+     */
+    public void testParallelWriters() throws Exception {
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int ox = ((t >> 2) & 1) * 512;
+            int oy = ((t >> 1) & 1) * 512;
+            int oz = (t & 1) * 512;
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 150; i++) {
+                    int off = (i * 37) % 480;
+                    db.add(plane("T" + id + "-" + i, ox + off,
+                        oy + (off * 7) % 480, oz + (off * 13) % 480));
+                    if (i % 3 == 0) {
+                        db.delete("T" + id + "-" + (i / 2));
+                    }
+                    db.intersect(ox, oy, oz, 512, 512, 512);
+                    db.print("T" + id + "-" + i);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Replay the same per-thread operations sequentially
+        for (int t = 0; t < threads.length; t++) {
+            int ox = ((t >> 2) & 1) * 512;
+            int oy = ((t >> 1) & 1) * 512;
+            int oz = (t & 1) * 512;
+            for (int i = 0; i < 150; i++) {
+                int off = (i * 37) % 480;
+                plain.add(plane("T" + t + "-" + i, ox + off,
+                    oy + (off * 7) % 480, oz + (off * 13) % 480));
+                if (i % 3 == 0) {
+                    plain.delete("T" + t + "-" + (i / 2));
+                }
+            }
+        }
+        assertEquals(plain.printbintree(), db.printbintree());
+        assertEquals(plain.rangeprint("A", "Z"), db.rangeprint("A", "Z"));
+    }
+
+    /**
+     * Tests that the change feed sees the adds and deletes of a name in
+     * the order they happened while writers race on the same names.
+     *
+     * @throws Exception
+     */
+    public void testFeedOrderPerName() throws Exception {
+        ChangeFeed.Cursor cursor = db.changeFeed().tail();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 300; i++) {
+                    String name = "N" + ((i + id) % 3);
+                    db.add(plane(name, (id * 128 + i) % 1000, 5, 5));
+                    db.delete(name);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        ChangeEvent[] batch = new ChangeEvent[ChangeFeed.DEFAULT_CAPACITY];
+        int n = cursor.poll(batch);
+        assertTrue(n > 0);
+        boolean[] present = new boolean[3];
+        for (int i = 0; i < n; i++) {
+            int k = batch[i].getObject().getName().charAt(1) - '0';
+            boolean added = batch[i].getKind() == ChangeEvent.Kind.ADD;
+            assertEquals(!added, present[k]);
+            present[k] = added;
+        }
+        for (int k = 0; k < present.length; k++) {
+            assertEquals(present[k], db.print("N" + k) != null);
+        }
+    }
+
+    /**
+     * Tests that an add or delete reaches the change feed only after its
+     * Bintree write.
+     */
+    public void testFeedAfterBintree() {
+        ChangeFeed[] feed = new ChangeFeed[1];
+        long[] during = new long[2];
+        ConcurrentWorldDB probe = new ConcurrentWorldDB(new Random(3)) {
+            @Override
+            Bintree newBintree(int size) {
+                return new StripedBintree(size) {
+                    @Override
+                    void insertLocked(AirObject obj, WriteLocks locks) {
+                        during[0] = feed[0].sequence();
+                        super.insertLocked(obj, locks);
+                    }
+
+                    @Override
+                    void removeLocked(AirObject obj, WriteLocks locks) {
+                        during[1] = feed[0].sequence();
+                        super.removeLocked(obj, locks);
+                    }
+                };
+            }
+        };
+        feed[0] = probe.changeFeed();
+        assertTrue(probe.add(plane("P", 5, 5, 5)));
+        assertEquals(0, during[0]);
+        assertEquals(1, feed[0].sequence());
+        assertNotNull(probe.delete("P"));
+        assertEquals(1, during[1]);
+        assertEquals(2, feed[0].sequence());
+    }
+}
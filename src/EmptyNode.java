@@ -22,6 +22,7 @@ public class EmptyNode implements BintreeNode {
         int xWid, int yWid, int zWid, int depth) {
         
         // When inserting into an empty node, it becomes a LeafNode
+        BintreeChanges.changed(x, y, z, xWid, yWid, zWid);
         LeafNode newLeaf = new LeafNode();
         return newLeaf.insert(obj, x, y, z, xWid, yWid, zWid, depth);
     }
@@ -56,7 +57,7 @@ public class EmptyNode implements BintreeNode {
     @Override
     public void collisions(
         StringBuilder sb, int x, int y, int z,
-        int xWid, int yWid, int zWid, int depth) {
+        int xWid, int yWid, int zWid, int depth, CollisionEngine engine) {
         // No collisions
     }
 
@@ -0,0 +1,81 @@
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import student.TestCase;
+
+/**
+ * Tests the Java Flight Recorder events for splits, merges and slow
+ * queries.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class FlightEventsTest extends TestCase {
+
+    /**
+     * Tests that splits, merges and queries are recorded, with their
+     * regions, when the thresholds are lowered to zero.
+     * @throws Exception if the recording fails.
+     */
+    public void testEventsRecorded() throws Exception {
+        File file = File.createTempFile("worlddb", ".jfr");
+        List<RecordedEvent> events;
+        String found;
+        try (Recording recording = new Recording()) {
+            recording.enable("WorldDB.BintreeSplit").withThreshold(null);
+            recording.enable("WorldDB.BintreeMerge").withThreshold(null);
+            recording.enable("WorldDB.SlowQuery").withThreshold(null);
+            recording.start();
+
+            WorldDB db = new WorldDB(new Random(3));
+            for (int i = 0; i < 5; i++) {
+                db.add(new Bird("b" + i, i * 200, 0, 0, 10, 10, 10,
+                    "crow", 1));
+            }
+            found = db.intersect(0, 0, 0, 100, 100, 100);
+            db.collisions();
+            db.delete("b4");
+            db.delete("b3");
+
+            recording.stop();
+            recording.dump(file.toPath());
+            events = RecordingFile.readAllEvents(file.toPath());
+        }
+        finally {
+            file.delete();
+        }
+
+        int splits = 0;
+        int merges = 0;
+        int queries = 0;
+        for (RecordedEvent e : events) {
+            String name = e.getEventType().getName();
+            if (name.equals("WorldDB.BintreeSplit")) {
+                splits++;
+                if (e.getInt("depth") == 0) {
+                    assertEquals(4, e.getInt("objects"));
+                    assertEquals(1024, e.getInt("xWid"));
+                }
+            }
+            else if (name.equals("WorldDB.BintreeMerge")) {
+                merges++;
+                assertEquals(3, e.getInt("objects"));
+            }
+            else if (name.equals("WorldDB.SlowQuery")) {
+                queries++;
+                if (e.getString("operation").equals("intersect")) {
+                    assertEquals(100, e.getInt("xWid"));
+                    assertTrue(e.getInt("nodesVisited") > 0);
+                    assertEquals(found.split("\n").length,
+                        e.getInt("lines"));
+                }
+            }
+        }
+        assertTrue(splits > 0);
+        assertEquals(1, merges);
+        assertEquals(2, queries);
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * One region subscription: a box in the world and the listener told
+ * about every object added or deleted inside it. Objects that only touch
+ * the box do not count, the same as for intersect.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class Geofence {
+
+    private final GeofenceIndex index;
+    private final int x;
+    private final int y;
+    private final int z;
+    private final int xWid;
+    private final int yWid;
+    private final int zWid;
+    private final RegionListener listener;
+    private volatile boolean active = true;
+
+    /**
+     * Constructor, only called by GeofenceIndex.subscribe().
+     */
+    Geofence(GeofenceIndex index, int x, int y, int z, int xWid, int yWid,
+        int zWid, RegionListener listener) {
+        this.index = index;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.xWid = xWid;
+        this.yWid = yWid;
+        this.zWid = zWid;
+        this.listener = listener;
+    }
+
+    /**
+     * Stop the notifications. Ones already queued are dropped too.
+     */
+    public void cancel() {
+        if (active) {
+            index.cancel(this);
+        }
+    }
+
+    /**
+     * Gets whether the subscription is still in place.
+     * @return False once cancelled.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Mark the subscription cancelled, only called by GeofenceIndex.
+     */
+    void deactivate() {
+        active = false;
+    }
+
+    /**
+     * Gets the listener.
+     * @return The listener.
+     */
+    RegionListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Get the x-origin of the box.
+     * @return The x-coordinate.
+     */
+    public int getXorig() {
+        return x;
+    }
+
+    /**
+     * Get the y-origin of the box.
+     * @return The y-coordinate.
+     */
+    public int getYorig() {
+        return y;
+    }
+
+    /**
+     * Get the z-origin of the box.
+     * @return The z-coordinate.
+     */
+    public int getZorig() {
+        return z;
+    }
+
+    /**
+     * Get the width of the box in x.
+     * @return The x-width.
+     */
+    public int getXwidth() {
+        return xWid;
+    }
+
+    /**
+     * Get the width of the box in y.
+     * @return The y-width.
+     */
+    public int getYwidth() {
+        return yWid;
+    }
+
+    /**
+     * Get the width of the box in z.
+     * @return The z-width.
+     */
+    public int getZwidth() {
+        return zWid;
+    }
+
+    /**
+     * Checks if the box strictly overlaps another box.
+     * @return True if they share some volume.
+     */
+    boolean overlaps(int qx, int qy, int qz, int qxWid, int qyWid,
+        int qzWid) {
+        return qx < x + xWid && qx + qxWid > x
+            && qy < y + yWid && qy + qyWid > y
+            && qz < z + zWid && qz + qzWid > z;
+    }
+
+    /**
+     * Returns the box.
+     * @return "(x, y, z, xWid, yWid, zWid)".
+     */
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ", " + z + ", " + xWid + ", " + yWid
+            + ", " + zWid + ")";
+    }
+}
@@ -0,0 +1,372 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The region subscriptions of a database, kept in their own Bintree so
+ * that finding the subscriptions an added or deleted object falls in
+ * walks one path of the tree instead of checking every subscription.
+ *
+ * The tree splits the world the same way as the object Bintree. A leaf
+ * holding more than 3 boxes splits unless they all share some volume (so
+ * stacked subscriptions over the same sector do not split forever), and
+ * a box is stored in every leaf it overlaps. A match is only reported
+ * from the leaf holding the corner where the object and the box start to
+ * overlap, the rule CollisionEngine.report() uses, so each is reported
+ * once.
+ *
+ * Listeners are called on an Executor, by default one daemon thread per
+ * index, so they see the changes in the order they were published and a
+ * slow listener never holds up a write. That thread exits after a second
+ * with nothing to deliver and is started again when needed, so an index
+ * that is dropped without close() does not keep a thread alive.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class GeofenceIndex implements AutoCloseable {
+
+    private static final Geofence[] NONE = new Geofence[0];
+
+    /**
+     * A node of the tree. Leaves have no children.
+     */
+    private static final class Node {
+        private Geofence[] fences = new Geofence[4];
+        private int size;
+        private Node left;
+        private Node right;
+
+        boolean isLeaf() {
+            return left == null;
+        }
+    }
+
+    private final int worldSize;
+    private final StampedLock lock = new StampedLock();
+    private Node root = new Node();
+    private volatile int count;
+    private Executor executor;
+    private ThreadPoolExecutor owned; // the default executor, if started
+
+    /**
+     * Constructor.
+     * @param worldSize The size of the world in each dimension.
+     */
+    public GeofenceIndex(int worldSize) {
+        this.worldSize = worldSize;
+    }
+
+    /**
+     * Gets the number of active subscriptions.
+     * @return The count.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Set the executor the listeners are called on. Runnable::run calls
+     * them on the writing thread, before the write returns.
+     * @param executor The executor.
+     */
+    public synchronized void setExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null");
+        }
+        shutdownOwned();
+        this.executor = executor;
+    }
+
+    private synchronized Executor executor() {
+        if (executor == null) {
+            owned = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread t = new Thread(task, "WorldDB-geofences");
+                    t.setDaemon(true);
+                    return t;
+                });
+            owned.allowCoreThreadTimeOut(true);
+            executor = owned;
+        }
+        return executor;
+    }
+
+    /**
+     * Stop the default notification thread, after the notifications
+     * already queued. An executor given to setExecutor() is left alone.
+     * Notifications published after this are not delivered.
+     */
+    @Override
+    public synchronized void close() {
+        shutdownOwned();
+        executor = task -> { };
+    }
+
+    private void shutdownOwned() {
+        if (owned != null) {
+            owned.shutdown();
+            owned = null;
+        }
+    }
+
+    /**
+     * Subscribe to the objects added and deleted in a box.
+     * @param x        Box x-origin.
+     * @param y        Box y-origin.
+     * @param z        Box z-origin.
+     * @param xWid     Box x-width.
+     * @param yWid     Box y-width.
+     * @param zWid     Box z-width.
+     * @param listener Told about each change.
+     * @return The subscription, to cancel it with.
+     */
+    public Geofence subscribe(int x, int y, int z, int xWid, int yWid,
+        int zWid, RegionListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        if (xWid <= 0 || yWid <= 0 || zWid <= 0) {
+            throw new IllegalArgumentException(
+                "Box widths must be positive");
+        }
+        Geofence fence =
+            new Geofence(this, x, y, z, xWid, yWid, zWid, listener);
+        long stamp = lock.writeLock();
+        try {
+            insert(root, fence, 0, 0, 0, worldSize, worldSize, worldSize, 0);
+            count++;
+        }
+        finally {
+            lock.unlockWrite(stamp);
+        }
+        return fence;
+    }
+
+    /**
+     * Remove a subscription. Only called by Geofence.cancel().
+     * @param fence The subscription.
+     */
+    void cancel(Geofence fence) {
+        long stamp = lock.writeLock();
+        try {
+            if (!fence.isActive()) {
+                return;
+            }
+            fence.deactivate();
+            remove(root, fence, 0, 0, 0, worldSize, worldSize, worldSize, 0);
+            count--;
+        }
+        finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Tell every subscription an object falls in about it.
+     * @param obj   The object added or deleted.
+     * @param added True if it was added, false if deleted.
+     */
+    public void publish(AirObject obj, boolean added) {
+        if (count == 0) {
+            return;
+        }
+        Geofence[] fences = match(obj);
+        if (fences.length == 0) {
+            return;
+        }
+        executor().execute(() -> {
+            for (Geofence fence : fences) {
+                if (!fence.isActive()) {
+                    continue;
+                }
+                if (added) {
+                    fence.getListener().added(fence, obj);
+                }
+                else {
+                    fence.getListener().deleted(fence, obj);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the subscriptions an object falls in.
+     * @param obj The object.
+     * @return The subscriptions, each once.
+     */
+    public Geofence[] match(AirObject obj) {
+        long stamp = lock.readLock();
+        try {
+            Node node = root;
+            if (node.isLeaf() && node.size == 0) {
+                return NONE;
+            }
+            Geofence[][] found = {NONE};
+            int n = match(node, obj, found, 0, 0, 0, 0,
+                worldSize, worldSize, worldSize, 0);
+            if (n == found[0].length) {
+                return found[0];
+            }
+            Geofence[] fences = new Geofence[n];
+            System.arraycopy(found[0], 0, fences, 0, n);
+            return fences;
+        }
+        finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int match(Node node, AirObject obj, Geofence[][] found, int n,
+        int x, int y, int z, int xWid, int yWid, int zWid, int depth) {
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                Geofence f = node.fences[i];
+                if (!f.overlaps(obj.getXorig(), obj.getYorig(),
+                    obj.getZorig(), obj.getXwidth(), obj.getYwidth(),
+                    obj.getZwidth())) {
+                    continue;
+                }
+                int ix = Math.max(f.getXorig(), obj.getXorig());
+                int iy = Math.max(f.getYorig(), obj.getYorig());
+                int iz = Math.max(f.getZorig(), obj.getZorig());
+                if (ix >= x && ix < x + xWid && iy >= y && iy < y + yWid
+                    && iz >= z && iz < z + zWid) {
+                    if (n == found[0].length) {
+                        Geofence[] bigger = new Geofence[Math.max(4, 2 * n)];
+                        System.arraycopy(found[0], 0, bigger, 0, n);
+                        found[0] = bigger;
+                    }
+                    found[0][n++] = f;
+                }
+            }
+            return n;
+        }
+        int axis = depth % 3;
+        int lxWid = axis == 0 ? xWid / 2 : xWid;
+        int lyWid = axis == 1 ? yWid / 2 : yWid;
+        int lzWid = axis == 2 ? zWid / 2 : zWid;
+        int rx = axis == 0 ? x + lxWid : x;
+        int ry = axis == 1 ? y + lyWid : y;
+        int rz = axis == 2 ? z + lzWid : z;
+        if (obj.intersects(x, y, z, lxWid, lyWid, lzWid)) {
+            n = match(node.left, obj, found, n, x, y, z,
+                lxWid, lyWid, lzWid, depth + 1);
+        }
+        if (obj.intersects(rx, ry, rz, lxWid, lyWid, lzWid)) {
+            n = match(node.right, obj, found, n, rx, ry, rz,
+                lxWid, lyWid, lzWid, depth + 1);
+        }
+        return n;
+    }
+
+    private void insert(Node node, Geofence fence, int x, int y, int z,
+        int xWid, int yWid, int zWid, int depth) {
+        int axis = depth % 3;
+        int lxWid = axis == 0 ? xWid / 2 : xWid;
+        int lyWid = axis == 1 ? yWid / 2 : yWid;
+        int lzWid = axis == 2 ? zWid / 2 : zWid;
+        int rx = axis == 0 ? x + lxWid : x;
+        int ry = axis == 1 ? y + lyWid : y;
+        int rz = axis == 2 ? z + lzWid : z;
+        if (!node.isLeaf()) {
+            if (fence.overlaps(x, y, z, lxWid, lyWid, lzWid)) {
+                insert(node.left, fence, x, y, z, lxWid, lyWid, lzWid,
+                    depth + 1);
+            }
+            if (fence.overlaps(rx, ry, rz, lxWid, lyWid, lzWid)) {
+                insert(node.right, fence, rx, ry, rz, lxWid, lyWid, lzWid,
+                    depth + 1);
+            }
+            return;
+        }
+
+        if (node.size == node.fences.length) {
+            Geofence[] bigger = new Geofence[2 * node.size];
+            System.arraycopy(node.fences, 0, bigger, 0, node.size);
+            node.fences = bigger;
+        }
+        node.fences[node.size++] = fence;
+        int half = axis == 0 ? lxWid : axis == 1 ? lyWid : lzWid;
+        if (node.size <= 3 || half == 0 || allOverlap(node)) {
+            return;
+        }
+
+        // Split, keeping each child's boxes in subscription order
+        Geofence[] fences = node.fences;
+        int size = node.size;
+        node.fences = null;
+        node.size = 0;
+        node.left = new Node();
+        node.right = new Node();
+        for (int i = 0; i < size; i++) {
+            insert(node, fences[i], x, y, z, xWid, yWid, zWid, depth);
+        }
+    }
+
+    private static boolean allOverlap(Node leaf) {
+        Geofence f = leaf.fences[0];
+        int x1 = f.getXorig();
+        int y1 = f.getYorig();
+        int z1 = f.getZorig();
+        int x2 = x1 + f.getXwidth();
+        int y2 = y1 + f.getYwidth();
+        int z2 = z1 + f.getZwidth();
+        for (int i = 1; i < leaf.size; i++) {
+            f = leaf.fences[i];
+            x1 = Math.max(x1, f.getXorig());
+            y1 = Math.max(y1, f.getYorig());
+            z1 = Math.max(z1, f.getZorig());
+            x2 = Math.min(x2, f.getXorig() + f.getXwidth());
+            y2 = Math.min(y2, f.getYorig() + f.getYwidth());
+            z2 = Math.min(z2, f.getZorig() + f.getZwidth());
+            if (x1 >= x2 || y1 >= y2 || z1 >= z2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void remove(Node node, Geofence fence, int x, int y, int z,
+        int xWid, int yWid, int zWid, int depth) {
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                if (node.fences[i] == fence) {
+                    System.arraycopy(node.fences, i + 1, node.fences, i,
+                        node.size - i - 1);
+                    node.fences[--node.size] = null;
+                    return;
+                }
+            }
+            return;
+        }
+        int axis = depth % 3;
+        int lxWid = axis == 0 ? xWid / 2 : xWid;
+        int lyWid = axis == 1 ? yWid / 2 : yWid;
+        int lzWid = axis == 2 ? zWid / 2 : zWid;
+        if (fence.overlaps(x, y, z, lxWid, lyWid, lzWid)) {
+            remove(node.left, fence, x, y, z, lxWid, lyWid, lzWid,
+                depth + 1);
+        }
+        if (fence.overlaps(axis == 0 ? x + lxWid : x,
+            axis == 1 ? y + lyWid : y, axis == 2 ? z + lzWid : z,
+            lxWid, lyWid, lzWid)) {
+            remove(node.right, fence, axis == 0 ? x + lxWid : x,
+                axis == 1 ? y + lyWid : y, axis == 2 ? z + lzWid : z,
+                lxWid, lyWid, lzWid, depth + 1);
+        }
+
+        // Collapse a subtree that has emptied out
+        if (isEmptyLeaf(node.left) && isEmptyLeaf(node.right)) {
+            node.left = null;
+            node.right = null;
+            node.fences = new Geofence[4];
+        }
+    }
+
+    private static boolean isEmptyLeaf(Node node) {
+        return node.isLeaf() && node.size == 0;
+    }
+}
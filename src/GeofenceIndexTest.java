@@ -0,0 +1,155 @@
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import student.TestCase;
+
+/**
+ * Tests for the GeofenceIndex class.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class GeofenceIndexTest extends TestCase {
+
+    private GeofenceIndex index;
+    private RegionListener quiet;
+
+    /**
+     * Sets up an empty index and a listener that ignores everything.
+     */
+    public void setUp() {
+        index = new GeofenceIndex(1024);
+        quiet = new RegionListener() {
+            public void added(Geofence fence, AirObject obj) {
+                // ignored
+            }
+
+            public void deleted(Geofence fence, AirObject obj) {
+                // ignored
+            }
+        };
+    }
+
+    /**
+     * Count how many times a fence appears in an array.
+     */
+    private static int occurrences(Geofence[] fences, Geofence f) {
+        int n = 0;
+        for (Geofence g : fences) {
+            n += g == f ? 1 : 0;
+        }
+        return n;
+    }
+
+    /**
+     * Tests that match() finds exactly the fences a brute-force scan
+     * finds, each once, while fences come and go.
+     */
+    public void testMatchesScan() {
+        Random rnd = new Random(12);
+        Geofence[] fences = new Geofence[300];
+        for (int i = 0; i < fences.length; i++) {
+            int w = 1 + rnd.nextInt(200);
+            fences[i] = index.subscribe(rnd.nextInt(1024 - w),
+                rnd.nextInt(1024 - w), rnd.nextInt(1024 - w), w, w, w, quiet);
+        }
+        for (int i = 0; i < fences.length; i += 3) {
+            fences[i].cancel();
+            fences[i].cancel();
+            assertFalse(fences[i].isActive());
+        }
+        assertEquals(200, index.size());
+
+        for (int i = 0; i < 500; i++) {
+            int w = 1 + rnd.nextInt(60);
+            AirObject obj = new Drone("d" + i, rnd.nextInt(1024 - w),
+                rnd.nextInt(1024 - w), rnd.nextInt(1024 - w), w, w, w,
+                "Droners", 2);
+            Geofence[] found = index.match(obj);
+            int expected = 0;
+            for (Geofence f : fences) {
+                boolean in = f.isActive() && obj.intersects(f.getXorig(),
+                    f.getYorig(), f.getZorig(), f.getXwidth(),
+                    f.getYwidth(), f.getZwidth());
+                assertEquals(in ? 1 : 0, occurrences(found, f));
+                expected += in ? 1 : 0;
+            }
+            assertEquals(expected, found.length);
+        }
+    }
+
+    /**
+     * Tests stacked fences over one sector, which must not split forever,
+     * and that touching the box does not count.
+     */
+    public void testStackedAndTouching() {
+        Geofence[] stack = new Geofence[50];
+        for (int i = 0; i < stack.length; i++) {
+            stack[i] = index.subscribe(100, 100, 100, 64, 64, 64, quiet);
+        }
+        AirObject inside = new Balloon("in", 120, 120, 120, 5, 5, 5,
+            "hot", 3);
+        AirObject touching = new Balloon("touch", 164, 100, 100, 5, 5, 5,
+            "hot", 3);
+        assertEquals(50, index.match(inside).length);
+        assertEquals(0, index.match(touching).length);
+        for (Geofence f : stack) {
+            f.cancel();
+        }
+        assertEquals(0, index.size());
+        assertEquals(0, index.match(inside).length);
+    }
+
+    /**
+     * Tests that bad subscriptions are rejected.
+     */
+    public void testRejects() {
+        int[][] bad = {{0, 0, 0, 0, 1, 1}, {0, 0, 0, 1, -1, 1}};
+        for (int[] b : bad) {
+            Exception thrown = null;
+            try {
+                index.subscribe(b[0], b[1], b[2], b[3], b[4], b[5], quiet);
+            }
+            catch (IllegalArgumentException e) {
+                thrown = e;
+            }
+            assertNotNull(thrown);
+        }
+        Exception thrown = null;
+        try {
+            index.subscribe(0, 0, 0, 1, 1, 1, null);
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests that close() stops the default notification thread.
+     */
+    public void testClose() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(1);
+        Thread[] notifier = new Thread[1];
+        int[] calls = {0};
+        index.subscribe(0, 0, 0, 100, 100, 100, new RegionListener() {
+            public void added(Geofence fence, AirObject obj) {
+                notifier[0] = Thread.currentThread();
+                calls[0]++;
+                delivered.countDown();
+            }
+
+            public void deleted(Geofence fence, AirObject obj) {
+                calls[0]++;
+            }
+        });
+        AirObject b = new Balloon("b", 10, 10, 10, 5, 5, 5, "hot", 3);
+        index.publish(b, true);
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        index.close();
+        notifier[0].join(5000);
+        assertFalse(notifier[0].isAlive());
+        index.publish(b, false);
+        assertEquals(1, calls[0]);
+    }
+}
@@ -0,0 +1,119 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size, lock-free histogram of non-negative long values (such as
+ * latencies in nanoseconds), in the style of an HDR histogram. Values
+ * below 32 get their own bucket; above that, each power of two is split
+ * into 16 buckets, so any recorded value is reported to within about 6%.
+ * Recording is a few shifts and one atomic increment, with no allocation.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class Histogram {
+
+    private static final int LINEAR = 32;
+    private static final int SUB_BUCKETS = 16;
+    private static final int BUCKETS = LINEAR + (63 - 5) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record one value. Negative values are recorded as 0.
+     * @param value The value.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketOf(value));
+        total.increment();
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the number of values recorded.
+     * @return The count.
+     */
+    public long count() {
+        return total.sum();
+    }
+
+    /**
+     * Gets the largest value recorded.
+     * @return The maximum, or 0 if nothing was recorded.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Gets a percentile of the recorded values. The result is the upper
+     * bound of the bucket holding that percentile, capped at the maximum.
+     * @param percentile The percentile, 0 to 100.
+     * @return The value, or 0 if nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long)Math.ceil(percentile / 100.0 * n);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Forget every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        max.reset();
+    }
+
+    /**
+     * Gets the bucket a value falls in.
+     * @param value A non-negative value.
+     * @return The bucket index.
+     */
+    static int bucketOf(long value) {
+        if (value < LINEAR) {
+            return (int)value;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(value); // at least 5
+        int shift = exp - 4;
+        return LINEAR + (exp - 5) * SUB_BUCKETS
+            + (int)(value >> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Gets the largest value that falls in a bucket.
+     * @param bucket The bucket index.
+     * @return The bucket's upper bound.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int exp = (bucket - LINEAR) / SUB_BUCKETS + 5;
+        int shift = exp - 4;
+        long mantissa = SUB_BUCKETS + (bucket - LINEAR) % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -8,11 +8,89 @@ public class InternalNode implements BintreeNode {
 
     private BintreeNode left;
     private BintreeNode right;
+    private int count; // unique objects in this subtree
 
     public InternalNode() {
         left = EmptyNode.getInstance();
         right = EmptyNode.getInstance();
     }
+
+    /**
+     * Constructor with the given children.
+     * @param left  The left (lower half) child.
+     * @param right The right (upper half) child.
+     * @param count The number of unique objects in the two children.
+     */
+    InternalNode(BintreeNode left, BintreeNode right, int count) {
+        this.left = left;
+        this.right = right;
+        this.count = count;
+    }
+
+    /**
+     * Get the number of unique objects in this subtree. An object that
+     * lies in several leaves is counted once.
+     * @return The object count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Adjust the object count, for callers that change this subtree
+     * without going through insert or remove.
+     * @param delta The change in the number of unique objects.
+     */
+    void adjustCount(int delta) {
+        count += delta;
+    }
+
+    /**
+     * Get the number of unique objects in any node's subtree.
+     * @param node The node.
+     * @return The object count (0 for an empty node).
+     */
+    static int countOf(BintreeNode node) {
+        if (node instanceof InternalNode) {
+            return ((InternalNode) node).count;
+        }
+        if (node instanceof LeafNode) {
+            return ((LeafNode) node).getData().size();
+        }
+        return 0;
+    }
+
+    /**
+     * Get the left (lower half) child.
+     * @return The left child.
+     */
+    BintreeNode getLeft() {
+        return left;
+    }
+
+    /**
+     * Get the right (upper half) child.
+     * @return The right child.
+     */
+    BintreeNode getRight() {
+        return right;
+    }
+
+    /**
+     * Replace the left (lower half) child.
+     * @param left The new left child.
+     */
+    void setLeft(BintreeNode left) {
+        this.left = left;
+    }
+
+    /**
+     * Replace the right (upper half) child.
+     * @param right The new right child.
+     */
+    void setRight(BintreeNode right) {
+        this.right = right;
+    }
     
     @Override
     public BintreeNode insert(AirObject obj, int x, int y, int z,
@@ -20,6 +98,7 @@ public class InternalNode implements BintreeNode {
         
         int axis = depth % 3; // 0=x, 1=y, 2=z
         int newDepth = depth + 1;
+        int before = countOf(left) + countOf(right);
         
         if (axis == 0) { // X split
             int half = xWid / 2;
@@ -57,7 +136,11 @@ public class InternalNode implements BintreeNode {
                     newDepth);
             }
         }
-        
+
+        // The object is new to this subtree if a child got bigger
+        if (countOf(left) + countOf(right) > before) {
+            count++;
+        }
         return this;
     }
 
@@ -66,6 +149,7 @@ public class InternalNode implements BintreeNode {
                               int xWid, int yWid, int zWid, int depth) {
         int axis = depth % 3;
         int newDepth = depth + 1;
+        int before = countOf(left) + countOf(right);
         
         if (axis == 0) { // X split
             int half = xWid / 2;
@@ -104,23 +188,32 @@ public class InternalNode implements BintreeNode {
             }
         }
 
+        // The object was in this subtree if a child got smaller
+        if (countOf(left) + countOf(right) < before) {
+            count--;
+        }
+
         // 1. Basic Flyweight Collapse
         if (left instanceof EmptyNode && right instanceof EmptyNode) {
+            BintreeChanges.changed(x, y, z, xWid, yWid, zWid);
             return EmptyNode.getInstance();
         }
         
         // 2. MERGE LOGIC (Without ArrayList/HashSet)
         // Check if we can merge the children back into a single LeafNode
         if (shouldMerge()) {
-            LeafNode newLeaf = new LeafNode();
-            
-            // Add unique objects from left and right to newLeaf
-            // Since we already determined we can merge, we know the total 
-            // unique count is safe
-            addUnique(newLeaf, left);
-            addUnique(newLeaf, right);
-            
-            return newLeaf;
+            Metrics.merge();
+            BintreeChanges.changed(x, y, z, xWid, yWid, zWid);
+            BintreeMergeEvent event = new BintreeMergeEvent();
+            event.begin();
+            SimpleList merged = mergedData(x, y, z, xWid, yWid, zWid, depth);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setRegion(x, y, z, xWid, yWid, zWid, depth);
+                event.objects = merged.size();
+                event.commit();
+            }
+            return new LeafNode(merged);
         }
         
         return this;
@@ -128,75 +221,57 @@ public class InternalNode implements BintreeNode {
     
     /**
      * Helper to determine if children should be merged.
-     * Merges if total UNIQUE objects <= 3.
+     * Merges if total UNIQUE objects <= 3. The count is kept up to date
+     * on insert and remove, so this needs no scan.
      */
-    private boolean shouldMerge() {
-        if (!isLeafOrEmpty(left) || !isLeafOrEmpty(right)) {
-            return false;
-        }
-        
-        // Count unique objects
-        // Use a temporary array to track what we've seen to avoid double 
-        // counting. Since max objects to consider merge is small (e.g. 3+3=6), 
-        // array is fine
-        AirObject[] temp = new AirObject[100]; 
-        int count = 0;
-        
-        count = collectUnique(temp, count, left);
-        count = collectUnique(temp, count, right);
-        
-        return count <= 3;
+    boolean shouldMerge() {
+        return count <= 3 && isLeafOrEmpty(left) && isLeafOrEmpty(right);
     }
-    
-    private boolean isLeafOrEmpty(BintreeNode node) {
-        return node instanceof LeafNode || node instanceof EmptyNode;
-    }
-    
-    private int collectUnique(AirObject[] arr, int count, BintreeNode node) {
-        if (node instanceof LeafNode) {
-            SimpleList list = ((LeafNode) node).getData();
+
+    /**
+     * Builds the contents of the leaf that replaces this node on a merge,
+     * in one pass: all of the left child's objects, then the right child's
+     * objects that are not also in the left child. An object is in both
+     * children exactly when it also intersects the left half, so no
+     * duplicate search is needed.
+     *
+     * @param x      The x-origin of this node's region.
+     * @param y      The y-origin of this node's region.
+     * @param z      The z-origin of this node's region.
+     * @param xWid   The width of the region in x.
+     * @param yWid   The width of the region in y.
+     * @param zWid   The width of the region in z.
+     * @param depth  The depth of this node in the tree.
+     * @return The unique objects from both children.
+     */
+    SimpleList mergedData(int x, int y, int z,
+                          int xWid, int yWid, int zWid, int depth) {
+        int axis = depth % 3;
+        int lxWid = axis == 0 ? xWid / 2 : xWid;
+        int lyWid = axis == 1 ? yWid / 2 : yWid;
+        int lzWid = axis == 2 ? zWid / 2 : zWid;
+
+        SimpleList merged = new SimpleList();
+        if (left instanceof LeafNode) {
+            SimpleList list = ((LeafNode) left).getData();
             for (int i = 0; i < list.size(); i++) {
-                AirObject obj = list.get(i);
-                boolean found = false;
-                for (int k = 0; k < count; k++) {
-                    if (arr[k] == obj) { 
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    arr[count++] = obj;
-                }
+                merged.add(list.get(i));
             }
         }
-        return count;
-    }
-    
-    /**
-     * Adds objects from node to the newLeaf, 
-     * avoiding duplicates in the newLeaf.
-     */
-    private void addUnique(LeafNode target, BintreeNode source) {
-        if (source instanceof LeafNode) {
-            SimpleList list = ((LeafNode) source).getData();
-            SimpleList targetList = target.getData();
-            
+        if (right instanceof LeafNode) {
+            SimpleList list = ((LeafNode) right).getData();
             for (int i = 0; i < list.size(); i++) {
                 AirObject obj = list.get(i);
-                
-                // Check if already in target (duplicate check)
-                boolean found = false;
-                for (int k = 0; k < targetList.size(); k++) {
-                    if (targetList.get(k) == obj) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    targetList.add(obj);
+                if (!obj.intersects(x, y, z, lxWid, lyWid, lzWid)) {
+                    merged.add(obj);
                 }
             }
         }
+        return merged;
+    }
+
+    private boolean isLeafOrEmpty(BintreeNode node) {
+        return node instanceof LeafNode || node instanceof EmptyNode;
     }
 
     @Override
@@ -235,26 +310,30 @@ public class InternalNode implements BintreeNode {
 
     @Override
     public void collisions(StringBuilder sb, int x, int y, int z,
-                           int xWid, int yWid, int zWid, int depth) {
+                           int xWid, int yWid, int zWid, int depth,
+                           CollisionEngine engine) {
         int axis = depth % 3;
         int newDepth = depth + 1;
         if (axis == 0) {
             int half = xWid / 2;
-            left.collisions(sb, x, y, z, half, yWid, zWid, newDepth);
+            left.collisions(sb, x, y, z, half, yWid, zWid, newDepth,
+                    engine);
             right.collisions(sb, x + half, y, z, half, yWid, zWid, 
-                    newDepth);
+                    newDepth, engine);
         } 
         else if (axis == 1) {
             int half = yWid / 2;
-            left.collisions(sb, x, y, z, xWid, half, zWid, newDepth);
+            left.collisions(sb, x, y, z, xWid, half, zWid, newDepth,
+                    engine);
             right.collisions(sb, x, y + half, z, xWid, half, zWid, 
-                    newDepth);
+                    newDepth, engine);
         } 
         else {
             int half = zWid / 2;
-            left.collisions(sb, x, y, z, xWid, yWid, half, newDepth);
+            left.collisions(sb, x, y, z, xWid, yWid, half, newDepth,
+                    engine);
             right.collisions(sb, x, y, z + half, xWid, yWid, half, 
-                    newDepth);
+                    newDepth, engine);
         }
     }
 
@@ -697,4 +697,42 @@ public class InternalNodeTest extends TestCase {
                    
         assertEquals(3, count);
     }
+
+    /**
+     * Tests that the subtree object count counts objects spanning both
+     * children once, and follows inserts and removes.
+     */
+    public void testSubtreeCount() {
+        assertEquals(0, node.getCount());
+        node = (InternalNode) node.insert(obj1, 0, 0, 0, 128, 128, 128, 0);
+        node = (InternalNode) node.insert(objOverlap, 0, 0, 0,
+            128, 128, 128, 0);
+        assertEquals(2, node.getCount());
+        assertEquals(3, InternalNode.countOf(node.getLeft())
+            + InternalNode.countOf(node.getRight()));
+
+        node = (InternalNode) node.insert(obj2, 0, 0, 0, 128, 128, 128, 0);
+        node = (InternalNode) node.insert(obj3, 0, 0, 0, 128, 128, 128, 0);
+        node = (InternalNode) node.insert(obj4, 0, 0, 0, 128, 128, 128, 0);
+        assertEquals(5, node.getCount());
+
+        // Removing an object that is not there changes nothing
+        AirPlane missing = new AirPlane(
+            "Missing", 30, 30, 30, 5, 5, 5, "Test", 0, 0);
+        assertSame(node, node.remove(missing, 0, 0, 0, 128, 128, 128, 0));
+        assertEquals(5, node.getCount());
+
+        assertSame(node, node.remove(obj4, 0, 0, 0, 128, 128, 128, 0));
+        assertEquals(4, node.getCount());
+
+        // Down to 3: merge, with the spanning object only once
+        BintreeNode result = node.remove(obj2, 0, 0, 0, 128, 128, 128, 0);
+        assertTrue(result instanceof LeafNode);
+        SimpleList data = ((LeafNode) result).getData();
+        assertEquals(3, data.size());
+        assertSame(obj1, data.get(0));
+        assertSame(objOverlap, data.get(1));
+        assertSame(obj3, data.get(2));
+        assertEquals(0, InternalNode.countOf(EmptyNode.getInstance()));
+    }
 }
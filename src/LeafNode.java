@@ -8,6 +8,17 @@ public class LeafNode implements BintreeNode {
 
     private SimpleList data;
 
+    // Common intersection box of all objects in data, kept up to date on
+    // insert and rebuilt only when the list changed some other way
+    private int boxX1;
+    private int boxY1;
+    private int boxZ1;
+    private int boxX2;
+    private int boxY2;
+    private int boxZ2;
+    private boolean boxEmpty;
+    private int boxMods = -1; // data.modCount() the box is valid for
+
     /**
      * Constructor.
      */
@@ -15,6 +26,15 @@ public class LeafNode implements BintreeNode {
         data = new SimpleList();
     }
 
+    /**
+     * Constructor wrapping an existing list of objects.
+     * Used by subclasses and merges that build the contents up front.
+     * @param data The list of objects this leaf will hold.
+     */
+    LeafNode(SimpleList data) {
+        this.data = data;
+    }
+
     /**
      * Expose data for InternalNode to use during merge operations.
      * @return The list of objects in this leaf.
@@ -26,7 +46,13 @@ public class LeafNode implements BintreeNode {
     @Override
     public BintreeNode insert(AirObject obj, int x, int y, int z,
                               int xWid, int yWid, int zWid, int depth) {
+        boolean boxCurrent = boxMods == data.modCount();
         data.add(obj);
+        if (boxCurrent) {
+            include(obj, data.size() == 1);
+            boxMods = data.modCount();
+        }
+        Metrics.leafSize(data.size());
 
         // Split condition: > 3 objects
         if (data.size() > 3) {
@@ -34,12 +60,22 @@ public class LeafNode implements BintreeNode {
             // bounding boxes
             if (!allIntersect()) {
                 // Split required
+                Metrics.split();
+                BintreeChanges.changed(x, y, z, xWid, yWid, zWid);
+                BintreeSplitEvent event = new BintreeSplitEvent();
+                event.begin();
                 InternalNode newInternal = new InternalNode();
                 // Re-insert all objects into the new internal node
                 for (int i = 0; i < data.size(); i++) {
                     newInternal.insert(data.get(i), x, y, z, 
                                        xWid, yWid, zWid, depth);
                 }
+                event.end();
+                if (event.shouldCommit()) {
+                    event.setRegion(x, y, z, xWid, yWid, zWid, depth);
+                    event.objects = data.size();
+                    event.commit();
+                }
                 return newInternal;
             }
         }
@@ -48,47 +84,51 @@ public class LeafNode implements BintreeNode {
 
     /**
      * Helper to check if all objects in the list share a common intersection.
+     * This is constant time after an insert; the common box is only
+     * rebuilt after the list was changed some other way (e.g. a remove).
      * @return True if they all intersect, false otherwise.
      */
     public boolean allIntersect() {
         if (data.size() == 0) {
             return false;
         }
-        
-        AirObject first = data.get(0);
-        int ix = first.getXorig();
-        int iy = first.getYorig();
-        int iz = first.getZorig();
-        int ixw = first.getXwidth();
-        int iyw = first.getYwidth();
-        int izw = first.getZwidth();
-
-        for (int i = 1; i < data.size(); i++) {
-            AirObject curr = data.get(i);
-            
-            int maxX = Math.max(ix, curr.getXorig());
-            int maxY = Math.max(iy, curr.getYorig());
-            int maxZ = Math.max(iz, curr.getZorig());
-            
-            int minX2 = Math.min(ix + ixw, 
-                                 curr.getXorig() + curr.getXwidth());
-            int minY2 = Math.min(iy + iyw, 
-                                 curr.getYorig() + curr.getYwidth());
-            int minZ2 = Math.min(iz + izw, 
-                                 curr.getZorig() + curr.getZwidth());
-            
-            if (maxX >= minX2 || maxY >= minY2 || maxZ >= minZ2) {
-                return false; // No overlap
+        if (boxMods != data.modCount()) {
+            for (int i = 0; i < data.size() && (i == 0 || !boxEmpty); i++) {
+                include(data.get(i), i == 0);
             }
-            
-            ix = maxX;
-            iy = maxY;
-            iz = maxZ;
-            ixw = minX2 - ix;
-            iyw = minY2 - iy;
-            izw = minZ2 - iz;
+            boxMods = data.modCount();
+        }
+        return !boxEmpty;
+    }
+
+    /**
+     * Shrink the common intersection box to its overlap with an object.
+     * @param obj   The object.
+     * @param first True to start a new box from this object.
+     */
+    private void include(AirObject obj, boolean first) {
+        int x2 = obj.getXorig() + obj.getXwidth();
+        int y2 = obj.getYorig() + obj.getYwidth();
+        int z2 = obj.getZorig() + obj.getZwidth();
+        if (first) {
+            boxX1 = obj.getXorig();
+            boxY1 = obj.getYorig();
+            boxZ1 = obj.getZorig();
+            boxX2 = x2;
+            boxY2 = y2;
+            boxZ2 = z2;
+            boxEmpty = false;
+            return;
+        }
+        boxX1 = Math.max(boxX1, obj.getXorig());
+        boxY1 = Math.max(boxY1, obj.getYorig());
+        boxZ1 = Math.max(boxZ1, obj.getZorig());
+        boxX2 = Math.min(boxX2, x2);
+        boxY2 = Math.min(boxY2, y2);
+        boxZ2 = Math.min(boxZ2, z2);
+        if (boxX1 >= boxX2 || boxY1 >= boxY2 || boxZ1 >= boxZ2) {
+            boxEmpty = true; // No overlap
         }
-        return true;
     }
 
     @Override
@@ -96,6 +136,7 @@ public class LeafNode implements BintreeNode {
                               int xWid, int yWid, int zWid, int depth) {
         data.remove(obj);
         if (data.size() == 0) {
+            BintreeChanges.changed(x, y, z, xWid, yWid, zWid);
             return EmptyNode.getInstance();
         }
         return this;
@@ -147,7 +188,8 @@ public class LeafNode implements BintreeNode {
 
     @Override
     public void collisions(StringBuilder sb, int x, int y, int z,
-                           int xWid, int yWid, int zWid, int depth) {
+                           int xWid, int yWid, int zWid, int depth,
+                           CollisionEngine engine) {
         // FIX 1: Print header unconditionally (outside the loop)
         sb.append("In leaf node (").append(x).append(", ").append(y)
           .append(", ").append(z);
@@ -155,34 +197,7 @@ public class LeafNode implements BintreeNode {
           .append(zWid);
         sb.append(") ").append(depth).append("\n");
 
-        for (int i = 0; i < data.size() - 1; i++) {
-            for (int j = i + 1; j < data.size(); j++) {
-                AirObject a = data.get(i);
-                AirObject b = data.get(j);
-                
-                if (a.intersects(b)) {
-                    int ix = Math.max(a.getXorig(), b.getXorig());
-                    int iy = Math.max(a.getYorig(), b.getYorig());
-                    int iz = Math.max(a.getZorig(), b.getZorig());
-                    
-                    if (ix >= x && ix < x + xWid &&
-                        iy >= y && iy < y + yWid &&
-                        iz >= z && iz < z + zWid) {
-                        
-                        if (a.compareTo(b) <= 0) {
-                            sb.append("(").append(a.toString())
-                              .append(") and (")
-                              .append(b.toString()).append(")\n");
-                        } 
-                        else {
-                            sb.append("(").append(b.toString())
-                              .append(") and (")
-                              .append(a.toString()).append(")\n");
-                        }
-                    }
-                }
-            }
-        }
+        engine.leafCollisions(sb, data, x, y, z, xWid, yWid, zWid);
     }
 
     @Override
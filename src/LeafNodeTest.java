@@ -814,4 +814,50 @@ public class LeafNodeTest extends TestCase {
         assertTrue("Should split because A and B touch (counts as no overlap)", 
                    result instanceof InternalNode);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that the cached common intersection box follows inserts,
+     * is rebuilt after a remove, and notices direct list changes.
+     */
+    public void testAllIntersectCachedBox() {
+        AirObject big1 = new AirPlane("big1", 0, 0, 0, 50, 50, 50, "T", 0, 0);
+        AirObject big2 = new AirPlane("big2", 10, 10, 10, 50, 50, 50,
+            "T", 0, 0);
+        AirObject big3 = new AirPlane("big3", 20, 20, 20, 50, 50, 50,
+            "T", 0, 0);
+        AirObject big4 = new AirPlane("big4", 30, 30, 30, 50, 50, 50,
+            "T", 0, 0);
+
+        assertFalse(leaf.allIntersect());
+        leaf.insert(big1, x, y, z, w, h, d, depth);
+        leaf.insert(big2, x, y, z, w, h, d, depth);
+        leaf.insert(big3, x, y, z, w, h, d, depth);
+        assertTrue(leaf.allIntersect());
+
+        // big4 overlaps the common box (20..50), so no split
+        assertSame(leaf, leaf.insert(big4, x, y, z, w, h, d, depth));
+        assertTrue(leaf.allIntersect());
+
+        // obj1 (0..10) does not overlap the common box (30..50): split
+        assertTrue(leaf.insert(obj1, x, y, z, w, h, d, depth)
+            instanceof InternalNode);
+
+        // After a remove the box is rebuilt from what is left
+        leaf.remove(obj1, x, y, z, w, h, d, depth);
+        assertTrue(leaf.allIntersect());
+        leaf.remove(big4, x, y, z, w, h, d, depth);
+        leaf.insert(obj4, x, y, z, w, h, d, depth);
+        assertFalse(leaf.allIntersect());
+        leaf.remove(obj4, x, y, z, w, h, d, depth);
+        assertTrue(leaf.allIntersect());
+
+        // Direct changes to the list are noticed too
+        leaf.getData().clear();
+        addToLeaf(obj1);
+        addToLeaf(obj2);
+        addToLeaf(obj3);
+        assertFalse(leaf.allIntersect());
+        leaf.getData().clear();
+        assertFalse(leaf.allIntersect());
+    }
+}
@@ -0,0 +1,866 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A Bintree that lives in a memory-mapped file. Nodes are fixed-size
+ * records and leaves keep their contents as runs of object ids, so after
+ * a restart print, intersect and collisions run straight off the mapping
+ * without rebuilding anything. Inserts and removes change records in
+ * place; the operating system writes the dirty pages back on its own,
+ * and flush() forces them out.
+ *
+ * The tree follows the same rules as Bintree (split a leaf of more than
+ * 3 objects that do not all intersect, merge a subtree of at most 3
+ * objects into a leaf, keep leaf contents in insertion order), so it
+ * prints exactly the same output for the same inserts and removes.
+ *
+ * File layout: a header, then blocks whose sizes are powers of two.
+ * <ul>
+ * <li>Node record, 16 bytes: internal is (tag 1, subtree object count,
+ * left, right); leaf is (tag 2, size, id run, run capacity). Address 0
+ * is the empty flyweight.</li>
+ * <li>Id run: the int ids of a leaf's objects, in order.</li>
+ * <li>Object table: one 32-byte record per id holding the object's box,
+ * the address of its text and the lengths of its name and its
+ * toString(), both stored as UTF-8.</li>
+ * </ul>
+ * Freed blocks go on free lists by size, kept in the header, and are
+ * reused before the file grows. The file is limited to 1 GB.
+ *
+ * A crash between writes can leave the file inconsistent, so the header
+ * records whether it was closed cleanly, and open() refuses a file that
+ * was not.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class MappedBintree implements AutoCloseable {
+
+    private static final int MAGIC = 0x42494E54; // "BINT"
+    private static final int VERSION = 1;
+
+    // Header fields
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_WORLD = 8;
+    private static final int H_ROOT = 12;
+    private static final int H_TOP = 16;
+    private static final int H_CLEAN = 20;
+    private static final int H_OBJECTS = 24;
+    private static final int H_NEXT_ID = 28;
+    private static final int H_TABLE = 32;
+    private static final int H_TABLE_CAP = 36;
+    private static final int H_FREE_ID = 40;
+    private static final int H_FREE_BLOCKS = 64; // one head per class
+    private static final int HEADER = 256;
+
+    private static final int MIN_CLASS = 4; // 16 bytes
+    private static final int MAX_CLASS = 30; // 1 GB
+
+    // Node records
+    private static final int NODE = 16;
+    private static final int INTERNAL = 1;
+    private static final int LEAF = 2;
+    private static final int N_TAG = 0;
+    private static final int N_COUNT = 4; // internal count or leaf size
+    private static final int N_LEFT = 8; // or leaf run
+    private static final int N_RIGHT = 12; // or leaf run capacity
+
+    // Object records
+    private static final int OBJ = 32;
+    private static final int O_TEXT = 24;
+    private static final int O_NAME_LEN = 28;
+    private static final int O_TEXT_LEN = 30;
+
+    private static final int INITIAL_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buf;
+
+    private MappedBintree(FileChannel channel, long size) throws IOException {
+        this.channel = channel;
+        this.buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Create a new, empty tree file, replacing any file at the path.
+     * @param file      The file.
+     * @param worldSize The size of the world.
+     * @return The open tree.
+     * @throws IOException if the file cannot be created.
+     */
+    public static MappedBintree create(Path file, int worldSize)
+        throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        MappedBintree tree = new MappedBintree(ch, INITIAL_SIZE);
+        tree.putInt(H_MAGIC, MAGIC);
+        tree.putInt(H_VERSION, VERSION);
+        tree.putInt(H_WORLD, worldSize);
+        tree.putInt(H_ROOT, 0);
+        tree.putInt(H_TOP, HEADER);
+        tree.putInt(H_CLEAN, 0);
+        tree.putInt(H_FREE_ID, -1);
+        int cap = 16;
+        tree.putInt(H_TABLE, tree.allocate(cap * OBJ));
+        tree.putInt(H_TABLE_CAP, cap);
+        return tree;
+    }
+
+    /**
+     * Open an existing tree file.
+     * @param file The file.
+     * @return The open tree.
+     * @throws IOException if the file cannot be read, is not a tree file,
+     *         or was not closed cleanly.
+     */
+    public static MappedBintree open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            long size = ch.size();
+            if (size < HEADER) {
+                throw new IOException("Not a Bintree file: " + file);
+            }
+            MappedBintree tree = new MappedBintree(ch, size);
+            if (tree.getInt(H_MAGIC) != MAGIC
+                || tree.getInt(H_VERSION) != VERSION) {
+                throw new IOException("Not a Bintree file: " + file);
+            }
+            if (tree.getInt(H_CLEAN) != 1) {
+                throw new IOException("Bintree file was not closed cleanly: "
+                    + file);
+            }
+            tree.putInt(H_CLEAN, 0);
+            tree.buf.force();
+            return tree;
+        }
+        catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write every dirty page of the mapping back to the file.
+     */
+    public void flush() {
+        buf.force();
+    }
+
+    /**
+     * Mark the file clean, write it back and close it.
+     * @throws IOException if closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        putInt(H_CLEAN, 1);
+        buf.force();
+        channel.close();
+    }
+
+    /**
+     * Gets the size of the world.
+     * @return The world size.
+     */
+    public int getWorldSize() {
+        return getInt(H_WORLD);
+    }
+
+    /**
+     * Gets the number of objects stored.
+     * @return The count.
+     */
+    public int size() {
+        return getInt(H_OBJECTS);
+    }
+
+    /**
+     * Gets the bytes of the file in use, including freed blocks.
+     * @return The high-water mark.
+     */
+    public int usedBytes() {
+        return getInt(H_TOP);
+    }
+
+    // ----------------------------------------------------------
+    // Objects
+
+    /**
+     * Store an object and insert it into the tree.
+     * @param obj The object.
+     * @return The id it is stored under.
+     */
+    public int insert(AirObject obj) {
+        int id = newObject(obj);
+        int w = getWorldSize();
+        putInt(H_ROOT, insert(getInt(H_ROOT), id, 0, 0, 0, w, w, w, 0));
+        return id;
+    }
+
+    /**
+     * Remove an object from the tree and free its id.
+     * @param id The id insert() returned.
+     * @return True if the id was in use.
+     */
+    public boolean remove(int id) {
+        if (!isLive(id)) {
+            return false;
+        }
+        int w = getWorldSize();
+        putInt(H_ROOT, remove(getInt(H_ROOT), id, 0, 0, 0, w, w, w, 0));
+        freeObject(id);
+        return true;
+    }
+
+    /**
+     * Gets the toString() of a stored object.
+     * @param id The id.
+     * @return The text, or null if the id is not in use.
+     */
+    public String text(int id) {
+        if (!isLive(id)) {
+            return null;
+        }
+        int rec = record(id);
+        return decode(getInt(rec + O_TEXT) + nameLength(id),
+            getShort(rec + O_TEXT_LEN));
+    }
+
+    /**
+     * Gets the name of a stored object.
+     * @param id The id.
+     * @return The name, or null if the id is not in use.
+     */
+    public String name(int id) {
+        if (!isLive(id)) {
+            return null;
+        }
+        return decode(getInt(record(id) + O_TEXT), nameLength(id));
+    }
+
+    private boolean isLive(int id) {
+        return id >= 0 && id < getInt(H_NEXT_ID)
+            && getInt(record(id) + O_TEXT) != 0;
+    }
+
+    private int record(int id) {
+        return getInt(H_TABLE) + id * OBJ;
+    }
+
+    private int nameLength(int id) {
+        return getShort(record(id) + O_NAME_LEN);
+    }
+
+    private int newObject(AirObject obj) {
+        byte[] name = obj.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] text = obj.toString().getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF || text.length > 0xFFFF) {
+            throw new IllegalArgumentException("Object text is too long");
+        }
+        int id = getInt(H_FREE_ID);
+        if (id >= 0) {
+            putInt(H_FREE_ID, getInt(record(id)));
+        }
+        else {
+            id = getInt(H_NEXT_ID);
+            int cap = getInt(H_TABLE_CAP);
+            if (id == cap) {
+                int table = allocate(2 * cap * OBJ);
+                copy(getInt(H_TABLE), table, cap * OBJ);
+                free(getInt(H_TABLE), cap * OBJ);
+                putInt(H_TABLE, table);
+                putInt(H_TABLE_CAP, 2 * cap);
+            }
+            putInt(H_NEXT_ID, id + 1);
+        }
+        int blob = allocate(name.length + text.length);
+        for (int i = 0; i < name.length; i++) {
+            buf.put(blob + i, name[i]);
+        }
+        for (int i = 0; i < text.length; i++) {
+            buf.put(blob + name.length + i, text[i]);
+        }
+        int rec = record(id);
+        putInt(rec, obj.getXorig());
+        putInt(rec + 4, obj.getYorig());
+        putInt(rec + 8, obj.getZorig());
+        putInt(rec + 12, obj.getXwidth());
+        putInt(rec + 16, obj.getYwidth());
+        putInt(rec + 20, obj.getZwidth());
+        putInt(rec + O_TEXT, blob);
+        buf.putShort(rec + O_NAME_LEN, (short) name.length);
+        buf.putShort(rec + O_TEXT_LEN, (short) text.length);
+        putInt(H_OBJECTS, getInt(H_OBJECTS) + 1);
+        return id;
+    }
+
+    private void freeObject(int id) {
+        int rec = record(id);
+        free(getInt(rec + O_TEXT), nameLength(id) + getShort(rec + O_TEXT_LEN));
+        putInt(rec + O_TEXT, 0);
+        putInt(rec, getInt(H_FREE_ID));
+        putInt(H_FREE_ID, id);
+        putInt(H_OBJECTS, getInt(H_OBJECTS) - 1);
+    }
+
+    /**
+     * Same test as AirObject.intersects(): touching is not intersecting.
+     */
+    private boolean intersects(int id, int x, int y, int z,
+        int xWid, int yWid, int zWid) {
+        int rec = record(id);
+        int ox = getInt(rec);
+        int oy = getInt(rec + 4);
+        int oz = getInt(rec + 8);
+        return ox < x + xWid && ox + getInt(rec + 12) > x
+            && oy < y + yWid && oy + getInt(rec + 16) > y
+            && oz < z + zWid && oz + getInt(rec + 20) > z;
+    }
+
+    private boolean intersects(int a, int b) {
+        int rec = record(b);
+        return intersects(a, getInt(rec), getInt(rec + 4), getInt(rec + 8),
+            getInt(rec + 12), getInt(rec + 16), getInt(rec + 20));
+    }
+
+    // ----------------------------------------------------------
+    // Tree updates
+
+    private int insert(int node, int id, int x, int y, int z,
+        int xWid, int yWid, int zWid, int depth) {
+        if (node == 0) {
+            node = allocate(NODE);
+            putInt(node + N_TAG, LEAF);
+            putInt(node + N_COUNT, 0);
+            putInt(node + N_LEFT, allocate(4 * 4));
+            putInt(node + N_RIGHT, 4);
+        }
+        if (getInt(node + N_TAG) == LEAF) {
+            return insertLeaf(node, id, x, y, z, xWid, yWid, zWid, depth);
+        }
+
+        int axis = depth % 3;
+        int lxWid = axis == 0 ? xWid / 2 : xWid;
+        int lyWid = axis == 1 ? yWid / 2 : yWid;
+        int lzWid = axis == 2 ? zWid / 2 : zWid;
+        int rx = axis == 0 ? x + lxWid : x;
+        int ry = axis == 1 ? y + lyWid : y;
+        int rz = axis == 2 ? z + lzWid : z;
+        int left = getInt(node + N_LEFT);
+        int right = getInt(node + N_RIGHT);
+        int before = countOf(left) + countOf(right);
+        if (intersects(id, x, y, z, lxWid, lyWid, lzWid)) {
+            left = insert(left, id, x, y, z, lxWid, lyWid, lzWid, depth + 1);
+            putInt(node + N_LEFT, left);
+        }
+        if (intersects(id, rx, ry, rz, lxWid, lyWid, lzWid)) {
+            right = insert(right, id, rx, ry, rz, lxWid, lyWid, lzWid,
+                depth + 1);
+            putInt(node + N_RIGHT, right);
+        }
+        if (countOf(left) + countOf(right) > before) {
+            putInt(node + N_COUNT, getInt(node + N_COUNT) + 1);
+        }
+        return node;
+    }
+
+    private int insertLeaf(int leaf, int id, int x, int y, int z,
+        int xWid, int yWid, int zWid, int depth) {
+        int size = getInt(leaf + N_COUNT);
+        int cap = getInt(leaf + N_RIGHT);
+        if (size == cap) {
+            int run = allocate(8 * cap);
+            copy(getInt(leaf + N_LEFT), run, 4 * cap);
+            free(getInt(leaf + N_LEFT), 4 * cap);
+            putInt(leaf + N_LEFT, run);
+            putInt(leaf + N_RIGHT, 2 * cap);
+        }
+        putInt(getInt(leaf + N_LEFT) + 4 * size, id);
+        putInt(leaf + N_COUNT, ++size);
+        if (size <= 3 || allIntersect(leaf)) {
+            return leaf;
+        }
+
+        // Split: re-insert every object into a new internal node
+        Metrics.split();
+        int internal = allocate(NODE);
+        putInt(internal + N_TAG, INTERNAL);
+        putInt(internal + N_COUNT, 0);
+        putInt(internal + N_LEFT, 0);
+        putInt(internal + N_RIGHT, 0);
+        int run = getInt(leaf + N_LEFT);
+        for (int i = 0; i < size; i++) {
+            insert(internal, getInt(run + 4 * i), x, y, z,
+                xWid, yWid, zWid, depth);
+        }
+        freeLeaf(leaf);
+        return internal;
+    }
+
+    private boolean allIntersect(int leaf) {
+        int size = getInt(leaf + N_COUNT);
+        int run = getInt(leaf + N_LEFT);
+        int rec = record(getInt(run));
+        int x1 = getInt(rec);
+        int y1 = getInt(rec + 4);
+        int z1 = getInt(rec + 8);
+        int x2 = x1 + getInt(rec + 12);
+        int y2 = y1 + getInt(rec + 16);
+        int z2 = z1 + getInt(rec + 20);
+        for (int i = 1; i < size; i++) {
+            rec = record(getInt(run + 4 * i));
+            x1 = Math.max(x1, getInt(rec));
+            y1 = Math.max(y1, getInt(rec + 4));
+            z1 = Math.max(z1, getInt(rec + 8));
+            x2 = Math.min(x2, getInt(rec) + getInt(rec + 12));
+            y2 = Math.min(y2, getInt(rec + 4) + getInt(rec + 16));
+            z2 = Math.min(z2, getInt(rec + 8) + getInt(rec + 20));
+            if (x1 >= x2 || y1 >= y2 || z1 >= z2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int remove(int node, int id, int x, int y, int z,
+        int xWid, int yWid, int zWid, int depth) {
+        if (node == 0) {
+            return 0;
+        }
+        if (getInt(node + N_TAG) == LEAF) {
+            int size = getInt(node + N_COUNT);
+            int run = getInt(node + N_LEFT);
+            int i = 0;
+            while (i < size && getInt(run + 4 * i) != id) {
+                i++;
+            }
+            if (i == size) {
+                return node;
+            }
+            copy(run + 4 * (i + 1), run + 4 * i, 4 * (size - i - 1));
+            putInt(node + N_COUNT, --size);
+            if (size == 0) {
+                freeLeaf(node);
+                return 0;
+            }
+            return node;
+        }
+
+        int axis = depth % 3;
+        int lxWid = axis == 0 ? xWid / 2 : xWid;
+        int lyWid = axis == 1 ? yWid / 2 : yWid;
+        int lzWid = axis == 2 ? zWid / 2 : zWid;
+        int rx = axis == 0 ? x + lxWid : x;
+        int ry = axis == 1 ? y + lyWid : y;
+        int rz = axis == 2 ? z + lzWid : z;
+        int left = getInt(node + N_LEFT);
+        int right = getInt(node + N_RIGHT);
+        int before = countOf(left) + countOf(right);
+        if (intersects(id, x, y, z, lxWid, lyWid, lzWid)) {
+            left = remove(left, id, x, y, z, lxWid, lyWid, lzWid, depth + 1);
+            putInt(node + N_LEFT, left);
+        }
+        if (intersects(id, rx, ry, rz, lxWid, lyWid, lzWid)) {
+            right = remove(right, id, rx, ry, rz, lxWid, lyWid, lzWid,
+                depth + 1);
+            putInt(node + N_RIGHT, right);
+        }
+        int count = getInt(node + N_COUNT);
+        if (countOf(left) + countOf(right) < before) {
+            putInt(node + N_COUNT, --count);
+        }
+
+        if (left == 0 && right == 0) {
+            free(node, NODE);
+            return 0;
+        }
+        if (count > 3 || !isLeafOrEmpty(left) || !isLeafOrEmpty(right)) {
+            return node;
+        }
+
+        // Merge: the left child's objects, then the right child's objects
+        // that are not also in the left half
+        Metrics.merge();
+        int merged = allocate(NODE);
+        putInt(merged + N_TAG, LEAF);
+        putInt(merged + N_COUNT, 0);
+        putInt(merged + N_LEFT, allocate(4 * 4));
+        putInt(merged + N_RIGHT, 4);
+        if (left != 0) {
+            int run = getInt(left + N_LEFT);
+            for (int i = 0; i < getInt(left + N_COUNT); i++) {
+                append(merged, getInt(run + 4 * i));
+            }
+            freeLeaf(left);
+        }
+        if (right != 0) {
+            int run = getInt(right + N_LEFT);
+            for (int i = 0; i < getInt(right + N_COUNT); i++) {
+                int other = getInt(run + 4 * i);
+                if (!intersects(other, x, y, z, lxWid, lyWid, lzWid)) {
+                    append(merged, other);
+                }
+            }
+            freeLeaf(right);
+        }
+        free(node, NODE);
+        return merged;
+    }
+
+    /**
+     * Add an id to a leaf with room for at least 4 ids.
+     */
+    private void append(int leaf, int id) {
+        int size = getInt(leaf + N_COUNT);
+        putInt(getInt(leaf + N_LEFT) + 4 * size, id);
+        putInt(leaf + N_COUNT, size + 1);
+    }
+
+    private void freeLeaf(int leaf) {
+        free(getInt(leaf + N_LEFT), 4 * getInt(leaf + N_RIGHT));
+        free(leaf, NODE);
+    }
+
+    private int countOf(int node) {
+        return node == 0 ? 0 : getInt(node + N_COUNT);
+    }
+
+    private boolean isLeafOrEmpty(int node) {
+        return node == 0 || getInt(node + N_TAG) == LEAF;
+    }
+
+    // ----------------------------------------------------------
+    // Queries, with the same output as Bintree
+
+    /**
+     * Same output as Bintree.print().
+     * @return The tree, one node per line.
+     */
+    public String print() {
+        StringBuilder sb = new StringBuilder();
+        int w = getWorldSize();
+        int nodeCount = print(sb, getInt(H_ROOT), 0, 0, 0, w, w, w, 0);
+        sb.append(nodeCount);
+        sb.append(" Bintree nodes printed\n");
+        return sb.toString();
+    }
+
+    /**
+     * Same output as Bintree.collisions().
+     * @return The colliding pairs, by leaf.
+     */
+    public String collisions() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("The following collisions exist in the database:\n");
+        int w = getWorldSize();
+        collisions(sb, getInt(H_ROOT), 0, 0, 0, w, w, w, 0);
+        return sb.toString();
+    }
+
+    /**
+     * Same output as Bintree.intersect().
+     * @param x    Query box x-origin.
+     * @param y    Query box y-origin.
+     * @param z    Query box z-origin.
+     * @param xwid Query box x-width.
+     * @param ywid Query box y-width.
+     * @param zwid Query box z-width.
+     * @return The objects in the box, by leaf.
+     */
+    public String intersect(int x, int y, int z, int xwid, int ywid,
+        int zwid) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(
+            "The following objects intersect (%d %d %d %d %d %d):\n",
+            x, y, z, xwid, ywid, zwid));
+        int w = getWorldSize();
+        int[] q = {x, y, z, xwid, ywid, zwid};
+        int nodesVisited = intersect(sb, q, getInt(H_ROOT), 0, 0, 0,
+            w, w, w, 0);
+        sb.append(nodesVisited);
+        sb.append(" nodes were visited in the bintree\n");
+        return sb.toString();
+    }
+
+    private static void region(StringBuilder sb, int x, int y, int z,
+        int xWid, int yWid, int zWid) {
+        sb.append("(").append(x).append(", ").append(y).append(", ")
+          .append(z).append(", ").append(xWid).append(", ").append(yWid)
+          .append(", ").append(zWid).append(") ");
+    }
+
+    private static void indent(StringBuilder sb, int depth) {
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+    }
+
+    private int print(StringBuilder sb, int node, int x, int y, int z,
+        int xWid, int yWid, int zWid, int depth) {
+        indent(sb, depth);
+        if (node == 0) {
+            sb.append("E ");
+            region(sb, x, y, z, xWid, yWid, zWid);
+            sb.append(depth).append("\n");
+            return 1;
+        }
+        if (getInt(node + N_TAG) == LEAF) {
+            int size = getInt(node + N_COUNT);
+            sb.append("Leaf with ").append(size).append(" objects ");
+            region(sb, x, y, z, xWid, yWid, zWid);
+            sb.append(depth).append("\n");
+            int[] ids = sortedIds(node, null, x, y, z, xWid, yWid, zWid);
+            for (int id : ids) {
+                indent(sb, depth);
+                sb.append("(").append(text(id)).append(")\n");
+            }
+            return 1;
+        }
+        sb.append("I ");
+        region(sb, x, y, z, xWid, yWid, zWid);
+        sb.append(depth).append("\n");
+        int axis = depth % 3;
+        int lxWid = axis == 0 ? xWid / 2 : xWid;
+        int lyWid = axis == 1 ? yWid / 2 : yWid;
+        int lzWid = axis == 2 ? zWid / 2 : zWid;
+        return 1 + print(sb, getInt(node + N_LEFT), x, y, z,
+                lxWid, lyWid, lzWid, depth + 1)
+            + print(sb, getInt(node + N_RIGHT), axis == 0 ? x + lxWid : x,
+                axis == 1 ? y + lyWid : y, axis == 2 ? z + lzWid : z,
+                lxWid, lyWid, lzWid, depth + 1);
+    }
+
+    private void collisions(StringBuilder sb, int node, int x, int y, int z,
+        int xWid, int yWid, int zWid, int depth) {
+        if (node == 0) {
+            return;
+        }
+        if (getInt(node + N_TAG) == LEAF) {
+            sb.append("In leaf node ");
+            region(sb, x, y, z, xWid, yWid, zWid);
+            sb.append(depth).append("\n");
+            int size = getInt(node + N_COUNT);
+            int run = getInt(node + N_LEFT);
+            for (int i = 0; i < size - 1; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    int a = getInt(run + 4 * i);
+                    int b = getInt(run + 4 * j);
+                    if (intersects(a, b)) {
+                        reportCollision(sb, a, b, x, y, z, xWid, yWid, zWid);
+                    }
+                }
+            }
+            return;
+        }
+        int axis = depth % 3;
+        int lxWid = axis == 0 ? xWid / 2 : xWid;
+        int lyWid = axis == 1 ? yWid / 2 : yWid;
+        int lzWid = axis == 2 ? zWid / 2 : zWid;
+        collisions(sb, getInt(node + N_LEFT), x, y, z, lxWid, lyWid, lzWid,
+            depth + 1);
+        collisions(sb, getInt(node + N_RIGHT), axis == 0 ? x + lxWid : x,
+            axis == 1 ? y + lyWid : y, axis == 2 ? z + lzWid : z,
+            lxWid, lyWid, lzWid, depth + 1);
+    }
+
+    /**
+     * Same rule as CollisionEngine.report(): report a pair only in the
+     * leaf holding the corner where their overlap starts.
+     */
+    private void reportCollision(StringBuilder sb, int a, int b, int x,
+        int y, int z, int xWid, int yWid, int zWid) {
+        int ra = record(a);
+        int rb = record(b);
+        int ix = Math.max(getInt(ra), getInt(rb));
+        int iy = Math.max(getInt(ra + 4), getInt(rb + 4));
+        int iz = Math.max(getInt(ra + 8), getInt(rb + 8));
+        if (ix >= x && ix < x + xWid && iy >= y && iy < y + yWid
+            && iz >= z && iz < z + zWid) {
+            if (name(a).compareTo(name(b)) > 0) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            sb.append("(").append(text(a)).append(") and (")
+              .append(text(b)).append(")\n");
+        }
+    }
+
+    private int intersect(StringBuilder sb, int[] q, int node, int x, int y,
+        int z, int xWid, int yWid, int zWid, int depth) {
+        if (node == 0) {
+            return 1;
+        }
+        if (getInt(node + N_TAG) == LEAF) {
+            sb.append("In leaf node ");
+            region(sb, x, y, z, xWid, yWid, zWid);
+            sb.append(depth).append("\n");
+            for (int id : sortedIds(node, q, x, y, z, xWid, yWid, zWid)) {
+                sb.append(text(id)).append("\n");
+            }
+            return 1;
+        }
+        sb.append("In Internal node ");
+        region(sb, x, y, z, xWid, yWid, zWid);
+        sb.append(depth).append("\n");
+        int axis = depth % 3;
+        int lxWid = axis == 0 ? xWid / 2 : xWid;
+        int lyWid = axis == 1 ? yWid / 2 : yWid;
+        int lzWid = axis == 2 ? zWid / 2 : zWid;
+        int rx = axis == 0 ? x + lxWid : x;
+        int ry = axis == 1 ? y + lyWid : y;
+        int rz = axis == 2 ? z + lzWid : z;
+        int visited = 1;
+        if (overlaps(q, x, y, z, lxWid, lyWid, lzWid)) {
+            visited += intersect(sb, q, getInt(node + N_LEFT), x, y, z,
+                lxWid, lyWid, lzWid, depth + 1);
+        }
+        if (overlaps(q, rx, ry, rz, lxWid, lyWid, lzWid)) {
+            visited += intersect(sb, q, getInt(node + N_RIGHT), rx, ry, rz,
+                lxWid, lyWid, lzWid, depth + 1);
+        }
+        return visited;
+    }
+
+    private static boolean overlaps(int[] q, int x, int y, int z,
+        int xWid, int yWid, int zWid) {
+        return q[0] < x + xWid && q[0] + q[3] > x
+            && q[1] < y + yWid && q[1] + q[4] > y
+            && q[2] < z + zWid && q[2] + q[5] > z;
+    }
+
+    /**
+     * Gets a leaf's ids sorted by name. With a query box, only the
+     * objects that intersect it and have their origin in the leaf's
+     * region (so each is listed once) are kept.
+     */
+    private int[] sortedIds(int leaf, int[] q, int x, int y, int z,
+        int xWid, int yWid, int zWid) {
+        int size = getInt(leaf + N_COUNT);
+        int run = getInt(leaf + N_LEFT);
+        int[] ids = new int[size];
+        String[] names = new String[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int id = getInt(run + 4 * i);
+            if (q != null) {
+                int rec = record(id);
+                if (!intersects(id, q[0], q[1], q[2], q[3], q[4], q[5])
+                    || getInt(rec) < x || getInt(rec) >= x + xWid
+                    || getInt(rec + 4) < y || getInt(rec + 4) >= y + yWid
+                    || getInt(rec + 8) < z || getInt(rec + 8) >= z + zWid) {
+                    continue;
+                }
+            }
+            // Insertion sort: stable, like the bubble sort in LeafNode
+            String name = name(id);
+            int j = n++;
+            while (j > 0 && names[j - 1].compareTo(name) > 0) {
+                ids[j] = ids[j - 1];
+                names[j] = names[j - 1];
+                j--;
+            }
+            ids[j] = id;
+            names[j] = name;
+        }
+        if (n == size) {
+            return ids;
+        }
+        int[] kept = new int[n];
+        System.arraycopy(ids, 0, kept, 0, n);
+        return kept;
+    }
+
+    // ----------------------------------------------------------
+    // File blocks
+
+    /**
+     * Get a block of at least some bytes, from the free list of its size
+     * if possible, else from the end of the file.
+     * @param bytes The bytes needed.
+     * @return The block's address.
+     */
+    private int allocate(int bytes) {
+        int cls = sizeClass(bytes);
+        int head = H_FREE_BLOCKS + 4 * cls;
+        int block = getInt(head);
+        if (block != 0) {
+            putInt(head, getInt(block));
+            return block;
+        }
+        int top = getInt(H_TOP);
+        long end = (long) top + (1 << cls);
+        if (end > 1 << MAX_CLASS) {
+            throw new IllegalStateException("Bintree file is full");
+        }
+        if (end > buf.capacity()) {
+            grow(end);
+        }
+        putInt(H_TOP, (int) end);
+        return top;
+    }
+
+    private void free(int block, int bytes) {
+        int head = H_FREE_BLOCKS + 4 * sizeClass(bytes);
+        putInt(block, getInt(head));
+        putInt(head, block);
+    }
+
+    private static int sizeClass(int bytes) {
+        int cls = 32 - Integer.numberOfLeadingZeros(Math.max(bytes, 1) - 1);
+        return Math.max(cls, MIN_CLASS);
+    }
+
+    /**
+     * Map a larger file, at least doubling it.
+     * @param needed The bytes that must fit.
+     */
+    private void grow(long needed) {
+        long size = buf.capacity();
+        while (size < needed) {
+            size *= 2;
+        }
+        size = Math.min(size, 1L << MAX_CLASS);
+        try {
+            buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Could not grow Bintree file", e);
+        }
+    }
+
+    private void copy(int from, int to, int bytes) {
+        ByteBuffer src = buf.duplicate();
+        src.position(from).limit(from + bytes);
+        ByteBuffer dst = buf.duplicate();
+        dst.position(to);
+        dst.put(src);
+    }
+
+    private String decode(int at, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buf.get(at + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int getInt(int at) {
+        return buf.getInt(at);
+    }
+
+    private void putInt(int at, int value) {
+        buf.putInt(at, value);
+    }
+
+    private int getShort(int at) {
+        return buf.getShort(at) & 0xFFFF;
+    }
+}
@@ -0,0 +1,166 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the MappedBintree class.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class MappedBintreeTest extends TestCase {
+
+    private Path file;
+
+    /**
+     * Sets up a temporary file for the tree.
+     * @throws IOException if it cannot be created.
+     */
+    public void setUp() throws IOException {
+        file = File.createTempFile("bintree", ".map").toPath();
+    }
+
+    /**
+     * Deletes the temporary file.
+     * @throws IOException if it cannot be deleted.
+     */
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Make a random object, some of them clustered so that leaves hold
+     * more than 3 objects.
+     */
+    private AirObject object(int i, Random rnd) {
+        if (i % 5 == 0) {
+            return new Bird("flock" + i, 500 + rnd.nextInt(10),
+                500 + rnd.nextInt(10), 500, 30, 30, 30, "geese", 40);
+        }
+        int w = 1 + rnd.nextInt(100);
+        return new AirPlane("P" + i, rnd.nextInt(1024 - w),
+            rnd.nextInt(1024 - w), rnd.nextInt(1024 - w), w, w, w,
+            "Delta", i + 1, 2);
+    }
+
+    /**
+     * Tests that the mapped tree gives the same output as Bintree under
+     * random inserts and removes, including after reopening the file.
+     * @throws IOException if the file fails.
+     */
+    public void testMatchesBintree() throws IOException {
+        Bintree tree = new Bintree(1024);
+        MappedBintree mapped = MappedBintree.create(file, 1024);
+        Random rnd = new Random(7);
+        AirObject[] objs = new AirObject[600];
+        int[] ids = new int[objs.length];
+        for (int i = 0; i < 3000; i++) {
+            int k = rnd.nextInt(objs.length);
+            if (objs[k] == null) {
+                objs[k] = object(i, rnd);
+                tree.insert(objs[k]);
+                ids[k] = mapped.insert(objs[k]);
+            }
+            else if (rnd.nextInt(2) == 0) {
+                tree.remove(objs[k]);
+                assertTrue(mapped.remove(ids[k]));
+                assertFalse(mapped.remove(ids[k]));
+                objs[k] = null;
+            }
+        }
+        assertEquals(tree.print(), mapped.print());
+        assertEquals(tree.collisions(), mapped.collisions());
+        assertEquals(tree.intersect(100, 200, 300, 500, 400, 300),
+            mapped.intersect(100, 200, 300, 500, 400, 300));
+        int live = mapped.size();
+        mapped.close();
+
+        mapped = MappedBintree.open(file);
+        assertEquals(live, mapped.size());
+        assertEquals(1024, mapped.getWorldSize());
+        assertEquals(tree.print(), mapped.print());
+        assertEquals(tree.collisions(), mapped.collisions());
+        assertEquals(tree.intersect(0, 0, 0, 600, 600, 600),
+            mapped.intersect(0, 0, 0, 600, 600, 600));
+
+        // Keep changing it after the restart
+        for (int k = 0; k < objs.length; k++) {
+            if (objs[k] != null) {
+                tree.remove(objs[k]);
+                mapped.remove(ids[k]);
+            }
+        }
+        assertEquals(0, mapped.size());
+        assertEquals(tree.print(), mapped.print());
+        assertEquals("E (0, 0, 0, 1024, 1024, 1024) 0\n"
+            + "1 Bintree nodes printed\n", mapped.print());
+        mapped.close();
+    }
+
+    /**
+     * Tests that freed records and ids are reused, so churn does not grow
+     * the file.
+     * @throws IOException if the file fails.
+     */
+    public void testReuse() throws IOException {
+        MappedBintree mapped = MappedBintree.create(file, 1024);
+        Random rnd = new Random(3);
+        AirObject[] objs = new AirObject[500];
+        for (int i = 0; i < objs.length; i++) {
+            objs[i] = object(i, rnd);
+        }
+        int[] ids = new int[objs.length];
+        for (int i = 0; i < objs.length; i++) {
+            ids[i] = mapped.insert(objs[i]);
+        }
+        assertEquals("P1", mapped.name(ids[1]));
+        assertEquals(objs[1].toString(), mapped.text(ids[1]));
+        int used = mapped.usedBytes();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < objs.length; i++) {
+                mapped.remove(ids[i]);
+            }
+            assertNull(mapped.text(ids[0]));
+            for (int i = 0; i < objs.length; i++) {
+                ids[i] = mapped.insert(objs[i]);
+            }
+        }
+        assertEquals(used, mapped.usedBytes());
+        mapped.close();
+    }
+
+    /**
+     * Tests that open() rejects files that are not tree files or were not
+     * closed cleanly.
+     * @throws IOException if the file fails.
+     */
+    public void testOpenRejects() throws IOException {
+        Files.write(file, new byte[1024]);
+        Exception thrown = null;
+        try {
+            MappedBintree.open(file);
+        }
+        catch (IOException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+
+        MappedBintree mapped = MappedBintree.create(file, 64);
+        mapped.insert(new Balloon("B1", 1, 1, 1, 2, 2, 2, "hot", 3));
+        mapped.flush();
+        thrown = null;
+        try {
+            MappedBintree.open(file);
+        }
+        catch (IOException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertTrue(thrown.getMessage().contains("not closed cleanly"));
+        mapped.close();
+        MappedBintree.open(file).close();
+    }
+}
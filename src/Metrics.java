@@ -0,0 +1,290 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for one WorldDB. Recording is off by
+ * default; while it is off, the hooks in the data structures only read a
+ * static field and the ATC methods only read a boolean.
+ *
+ * Work done deep inside the structures (splits, merges, SkipList steps,
+ * leaf sizes) is credited to the database whose ATC method is running on
+ * the current thread. Everything is recorded with LongAdders and atomic
+ * arrays, so writers never block and a snapshot never stops them.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class Metrics implements WorldDBMetricsMXBean {
+
+    /**
+     * The ATC methods that are timed.
+     */
+    public enum Op {
+        /** clear() */
+        CLEAR,
+        /** add() */
+        ADD,
+        /** delete() */
+        DELETE,
+        /** printskiplist() */
+        PRINTSKIPLIST,
+        /** printbintree() */
+        PRINTBINTREE,
+        /** print() */
+        PRINT,
+        /** rangeprint() */
+        RANGEPRINT,
+        /** rangeprintDescending() */
+        RANGEPRINT_DESCENDING,
+        /** collisions() */
+        COLLISIONS,
+        /** intersect() */
+        INTERSECT
+    }
+
+    /**
+     * Returned by start() when nothing is being recorded.
+     */
+    static final long OFF = Long.MIN_VALUE;
+
+    private static final ThreadLocal<Metrics> CURRENT = new ThreadLocal<>();
+    private static final Metrics SUSPENDED = new Metrics(); // never enabled
+    private static volatile int enabledCount;
+
+    private volatile boolean enabled;
+    private final Histogram[] latencies;
+    private final LongAdder skipSteps = new LongAdder();
+    private final LongAdder nodesVisited = new LongAdder();
+    private final LongAdder splits = new LongAdder();
+    private final LongAdder merges = new LongAdder();
+    private final Histogram leafSizes = new Histogram();
+
+    /**
+     * Creates a disabled set of metrics.
+     */
+    public Metrics() {
+        latencies = new Histogram[Op.values().length];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new Histogram();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public synchronized void setEnabled(boolean enabled) {
+        if (enabled != this.enabled) {
+            this.enabled = enabled;
+            synchronized (Metrics.class) {
+                enabledCount += enabled ? 1 : -1;
+            }
+        }
+    }
+
+    /**
+     * Start timing an ATC method on this thread. A call made while
+     * another ATC method is already being timed on this thread (such as a
+     * subclass calling the method it overrides) is not timed again.
+     * @return The start time, or OFF if disabled or nested.
+     */
+    long start() {
+        if (!enabled || CURRENT.get() != null) {
+            return OFF;
+        }
+        CURRENT.set(this);
+        return System.nanoTime();
+    }
+
+    /**
+     * Stop timing an ATC method.
+     * @param op    The method.
+     * @param start The value start() returned.
+     */
+    void stop(Op op, long start) {
+        if (start != OFF) {
+            latencies[op.ordinal()].record(System.nanoTime() - start);
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Attribute this thread's structure work to these metrics until
+     * unbound, for worker threads that run on behalf of one database.
+     * @param metrics The metrics, or null to unbind.
+     */
+    static void bind(Metrics metrics) {
+        if (metrics == null) {
+            CURRENT.remove();
+        }
+        else {
+            CURRENT.set(metrics);
+        }
+    }
+
+    /**
+     * Stop counting structure work on this thread, for a query that is
+     * run again after its work was counted once. Nested ATC methods are
+     * not timed either. Undo with bind(), given the value returned.
+     * @return The metrics bound to this thread before, or null.
+     */
+    static Metrics suspend() {
+        Metrics previous = CURRENT.get();
+        CURRENT.set(SUSPENDED);
+        return previous;
+    }
+
+    /**
+     * Gets the metrics of the database working on this thread.
+     * @return The metrics, or null if none is recording.
+     */
+    private static Metrics current() {
+        if (enabledCount == 0) {
+            return null;
+        }
+        Metrics m = CURRENT.get();
+        return m != null && m.enabled ? m : null;
+    }
+
+    /**
+     * Hook: a SkipList search took some steps.
+     * @param steps Levels descended plus forward moves.
+     */
+    static void skipListSteps(int steps) {
+        Metrics m = current();
+        if (m != null) {
+            m.skipSteps.add(steps);
+        }
+    }
+
+    /**
+     * Hook: a Bintree query visited some nodes.
+     * @param nodes The number of nodes.
+     */
+    static void bintreeNodesVisited(int nodes) {
+        Metrics m = current();
+        if (m != null) {
+            m.nodesVisited.add(nodes);
+        }
+    }
+
+    /**
+     * Hook: a leaf split into an internal node.
+     */
+    static void split() {
+        Metrics m = current();
+        if (m != null) {
+            m.splits.increment();
+        }
+    }
+
+    /**
+     * Hook: an internal node merged back into a leaf.
+     */
+    static void merge() {
+        Metrics m = current();
+        if (m != null) {
+            m.merges.increment();
+        }
+    }
+
+    /**
+     * Hook: an object was added to a leaf, which now has this size.
+     * @param size The leaf size.
+     */
+    static void leafSize(int size) {
+        Metrics m = current();
+        if (m != null) {
+            m.leafSizes.record(size);
+        }
+    }
+
+    /**
+     * Take a consistent-enough copy of the current values.
+     * Each value is read once, without stopping writers.
+     * @return The snapshot.
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(this);
+    }
+
+    /**
+     * Gets the latency histogram of an ATC method.
+     * @param op The method.
+     * @return Its histogram.
+     */
+    Histogram latency(Op op) {
+        return latencies[op.ordinal()];
+    }
+
+    /**
+     * Gets the histogram of leaf sizes seen on insert.
+     * @return The histogram.
+     */
+    Histogram leafSizes() {
+        return leafSizes;
+    }
+
+    @Override
+    public String getOperationCounts() {
+        StringBuilder sb = new StringBuilder();
+        for (Op op : Op.values()) {
+            sb.append(op.name().toLowerCase()).append(" ")
+              .append(latency(op).count()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String getLatencies() {
+        StringBuilder sb = new StringBuilder();
+        for (Op op : Op.values()) {
+            Histogram h = latency(op);
+            sb.append(op.name().toLowerCase()).append(" ")
+              .append(h.count()).append(" ")
+              .append(h.percentile(50)).append(" ")
+              .append(h.percentile(99)).append(" ")
+              .append(h.percentile(99.9)).append(" ")
+              .append(h.max()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public long getSkipListSteps() {
+        return skipSteps.sum();
+    }
+
+    @Override
+    public long getBintreeNodesVisited() {
+        return nodesVisited.sum();
+    }
+
+    @Override
+    public long getSplits() {
+        return splits.sum();
+    }
+
+    @Override
+    public long getMerges() {
+        return merges.sum();
+    }
+
+    @Override
+    public long getLeafSizeP99() {
+        return leafSizes.percentile(99);
+    }
+
+    @Override
+    public void reset() {
+        for (Histogram h : latencies) {
+            h.reset();
+        }
+        skipSteps.reset();
+        nodesVisited.reset();
+        splits.reset();
+        merges.reset();
+        leafSizes.reset();
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * An immutable copy of a WorldDB's metrics at one point in time.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class MetricsSnapshot {
+
+    private final long[] counts;
+    private final long[] p50;
+    private final long[] p99;
+    private final long[] p999;
+    private final long[] max;
+    private final long skipListSteps;
+    private final long bintreeNodesVisited;
+    private final long splits;
+    private final long merges;
+    private final long leafSizeP50;
+    private final long leafSizeP99;
+    private final long leafSizeMax;
+
+    /**
+     * Copy the current values of some metrics.
+     * @param m The metrics.
+     */
+    MetricsSnapshot(Metrics m) {
+        int n = Metrics.Op.values().length;
+        counts = new long[n];
+        p50 = new long[n];
+        p99 = new long[n];
+        p999 = new long[n];
+        max = new long[n];
+        for (Metrics.Op op : Metrics.Op.values()) {
+            Histogram h = m.latency(op);
+            int i = op.ordinal();
+            counts[i] = h.count();
+            p50[i] = h.percentile(50);
+            p99[i] = h.percentile(99);
+            p999[i] = h.percentile(99.9);
+            max[i] = h.max();
+        }
+        skipListSteps = m.getSkipListSteps();
+        bintreeNodesVisited = m.getBintreeNodesVisited();
+        splits = m.getSplits();
+        merges = m.getMerges();
+        leafSizeP50 = m.leafSizes().percentile(50);
+        leafSizeP99 = m.leafSizes().percentile(99);
+        leafSizeMax = m.leafSizes().max();
+    }
+
+    /**
+     * Gets the number of calls of an ATC method.
+     * @param op The method.
+     * @return The count.
+     */
+    public long count(Metrics.Op op) {
+        return counts[op.ordinal()];
+    }
+
+    /**
+     * Gets a latency percentile of an ATC method.
+     * @param op         The method.
+     * @param percentile 50, 99 or 99.9.
+     * @return The latency in nanoseconds.
+     * @throws IllegalArgumentException for any other percentile.
+     */
+    public long latency(Metrics.Op op, double percentile) {
+        if (percentile == 50) {
+            return p50[op.ordinal()];
+        }
+        if (percentile == 99) {
+            return p99[op.ordinal()];
+        }
+        if (percentile == 99.9) {
+            return p999[op.ordinal()];
+        }
+        throw new IllegalArgumentException(
+            "Only p50, p99 and p99.9 are kept: " + percentile);
+    }
+
+    /**
+     * Gets the largest latency of an ATC method.
+     * @param op The method.
+     * @return The latency in nanoseconds.
+     */
+    public long maxLatency(Metrics.Op op) {
+        return max[op.ordinal()];
+    }
+
+    /**
+     * Gets the number of SkipList steps taken by searches.
+     * @return The step count.
+     */
+    public long skipListSteps() {
+        return skipListSteps;
+    }
+
+    /**
+     * Gets the number of Bintree nodes visited by print and intersect.
+     * @return The node count.
+     */
+    public long bintreeNodesVisited() {
+        return bintreeNodesVisited;
+    }
+
+    /**
+     * Gets the number of leaf splits.
+     * @return The split count.
+     */
+    public long splits() {
+        return splits;
+    }
+
+    /**
+     * Gets the number of merges back into leaves.
+     * @return The merge count.
+     */
+    public long merges() {
+        return merges;
+    }
+
+    /**
+     * Gets the median leaf size seen on insert.
+     * @return The leaf size.
+     */
+    public long leafSizeP50() {
+        return leafSizeP50;
+    }
+
+    /**
+     * Gets the 99th percentile leaf size seen on insert.
+     * @return The leaf size.
+     */
+    public long leafSizeP99() {
+        return leafSizeP99;
+    }
+
+    /**
+     * Gets the largest leaf size seen on insert.
+     * @return The leaf size.
+     */
+    public long leafSizeMax() {
+        return leafSizeMax;
+    }
+
+    /**
+     * Returns a multi-line report of the snapshot.
+     * @return The report.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("op count p50 p99 p99.9 max (ns)\n");
+        for (Metrics.Op op : Metrics.Op.values()) {
+            int i = op.ordinal();
+            sb.append(op.name().toLowerCase()).append(" ").append(counts[i])
+              .append(" ").append(p50[i]).append(" ").append(p99[i])
+              .append(" ").append(p999[i]).append(" ").append(max[i])
+              .append("\n");
+        }
+        sb.append("skiplist steps ").append(skipListSteps).append("\n");
+        sb.append("bintree nodes visited ").append(bintreeNodesVisited)
+          .append("\n");
+        sb.append("splits ").append(splits).append("\n");
+        sb.append("merges ").append(merges).append("\n");
+        sb.append("leaf size p50 ").append(leafSizeP50).append(" p99 ")
+          .append(leafSizeP99).append(" max ").append(leafSizeMax)
+          .append("\n");
+        return sb.toString();
+    }
+}
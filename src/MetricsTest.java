@@ -0,0 +1,181 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import student.TestCase;
+
+/**
+ * Tests for Metrics, Histogram and WorldDB's metrics surface.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class MetricsTest extends TestCase {
+
+    private WorldDB db;
+
+    /**
+     * Sets up an empty database.
+     */
+    public void setUp() {
+        db = new WorldDB(new Random(7));
+    }
+
+    /**
+     * Tests the histogram's buckets and percentiles.
+     */
+    public void testHistogram() {
+        Histogram h = new Histogram();
+        assertEquals(0, h.percentile(50));
+        for (int i = 1; i <= 100; i++) {
+            h.record(i);
+        }
+        assertEquals(100, h.count());
+        assertEquals(100, h.max());
+        assertEquals(50, h.percentile(50), 2);
+        assertEquals(100, h.percentile(100));
+        assertTrue(h.percentile(99) >= 99);
+
+        // Every value lands in a bucket whose bound is within 1/16 of it
+        long[] values = {0, 31, 32, 33, 1000, 123456789L, Long.MAX_VALUE};
+        for (long v : values) {
+            long bound = Histogram.upperBound(
+                Histogram.bucketOf(v));
+            assertTrue(bound >= v);
+            assertTrue(bound - v <= v / 16);
+        }
+
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.max());
+    }
+
+    /**
+     * Tests that nothing is recorded until metrics are enabled.
+     */
+    public void testDisabledByDefault() {
+        db.add(new Bird("b", 1, 1, 1, 1, 1, 1, "crow", 1));
+        db.print("b");
+        MetricsSnapshot snap = db.metrics();
+        assertEquals(0, snap.count(Metrics.Op.ADD));
+        assertEquals(0, snap.skipListSteps());
+    }
+
+    /**
+     * Tests operation counts and structure counters.
+     */
+    public void testCounters() {
+        db.setMetricsEnabled(true);
+        for (int i = 0; i < 10; i++) {
+            db.add(new Bird("b" + i, i * 100, i * 100, i * 100, 10, 10, 10,
+                "crow", 1));
+        }
+        db.print("b3");
+        db.print("none");
+        db.rangeprint("b1", "b5");
+        db.rangeprintDescending("b1", "b5");
+        db.rangeprintDescending("b1", "b9");
+        db.intersect(0, 0, 0, 1024, 1024, 1024);
+        db.printbintree();
+        for (int i = 0; i < 10; i++) {
+            db.delete("b" + i);
+        }
+
+        MetricsSnapshot snap = db.metrics();
+        assertEquals(10, snap.count(Metrics.Op.ADD));
+        assertEquals(2, snap.count(Metrics.Op.PRINT));
+        assertEquals(1, snap.count(Metrics.Op.RANGEPRINT));
+        assertEquals(2, snap.count(Metrics.Op.RANGEPRINT_DESCENDING));
+        assertEquals(1, snap.count(Metrics.Op.INTERSECT));
+        assertEquals(1, snap.count(Metrics.Op.PRINTBINTREE));
+        assertEquals(10, snap.count(Metrics.Op.DELETE));
+        assertEquals(0, snap.count(Metrics.Op.COLLISIONS));
+        assertTrue(snap.splits() > 0);
+        assertTrue(snap.merges() > 0);
+        assertTrue(snap.skipListSteps() > 0);
+        assertTrue(snap.bintreeNodesVisited() > 0);
+        assertEquals(4, snap.leafSizeMax());
+        assertTrue(snap.maxLatency(Metrics.Op.ADD)
+            >= snap.latency(Metrics.Op.ADD, 50));
+        assertTrue(snap.toString().contains("splits " + snap.splits()));
+
+        // Turning metrics off keeps what was recorded
+        db.setMetricsEnabled(false);
+        db.print("b3");
+        assertEquals(2, db.metrics().count(Metrics.Op.PRINT));
+    }
+
+    /**
+     * Tests that an override calling its super method is counted once.
+     */
+    public void testSubclassCountedOnce() {
+        ConcurrentWorldDB cdb = new ConcurrentWorldDB(new Random(7));
+        cdb.setMetricsEnabled(true);
+        cdb.add(new Bird("b", 1, 1, 1, 1, 1, 1, "crow", 1));
+        cdb.print("b");
+        cdb.printskiplist();
+        cdb.collisions();
+        MetricsSnapshot snap = cdb.metrics();
+        assertEquals(1, snap.count(Metrics.Op.ADD));
+        assertEquals(1, snap.count(Metrics.Op.PRINT));
+        assertEquals(1, snap.count(Metrics.Op.PRINTSKIPLIST));
+        assertEquals(1, snap.count(Metrics.Op.COLLISIONS));
+    }
+
+    /**
+     * Tests that suspended work is not counted, and that binding the
+     * returned metrics again counts it.
+     */
+    public void testSuspend() {
+        Metrics metrics = new Metrics();
+        metrics.setEnabled(true);
+        Metrics.bind(metrics);
+        try {
+            Metrics.skipListSteps(3);
+            Metrics counted = Metrics.suspend();
+            assertSame(metrics, counted);
+            Metrics.skipListSteps(5);
+            assertEquals(Metrics.OFF, metrics.start());
+            Metrics.bind(counted);
+            Metrics.skipListSteps(7);
+            assertEquals(10, metrics.getSkipListSteps());
+        }
+        finally {
+            Metrics.bind(null);
+            metrics.setEnabled(false);
+        }
+    }
+
+    /**
+     * Tests the MXBean view.
+     * @throws Exception if JMX fails.
+     */
+    public void testMBean() throws Exception {
+        ObjectName name = db.registerMetricsMBean("MetricsTest");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.setAttribute(name,
+                new javax.management.Attribute("Enabled", true));
+            assertTrue(db.getMetrics().isEnabled());
+            db.add(new Bird("b", 1, 1, 1, 1, 1, 1, "crow", 1));
+            String counts = (String)server.getAttribute(name,
+                "OperationCounts");
+            assertTrue(counts.contains("add 1\n"));
+
+            Exception thrown = null;
+            try {
+                db.registerMetricsMBean("MetricsTest");
+            }
+            catch (IllegalStateException e) {
+                thrown = e;
+            }
+            assertNotNull(thrown);
+
+            server.invoke(name, "reset", null, null);
+            assertEquals(0, db.metrics().count(Metrics.Op.ADD));
+        }
+        finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
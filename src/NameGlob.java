@@ -0,0 +1,68 @@
+/**
+ * Simple glob patterns over AirObject names: '*' matches any run of
+ * characters, including none, and '?' matches any one character. Every
+ * other character matches itself.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public final class NameGlob {
+
+    private NameGlob() {
+    }
+
+    /**
+     * Gets the part of a pattern before its first wildcard. Every name
+     * the pattern matches starts with it, so a scan of the sorted names
+     * can seek to it and stop at the first name that does not.
+     * @param pattern The pattern.
+     * @return The literal prefix, possibly empty.
+     */
+    public static String literalPrefix(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?') {
+                return pattern.substring(0, i);
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * Checks if a name matches a pattern. This is the usual greedy match
+     * that backs up to the last '*' on a mismatch, so it takes time
+     * proportional to the product of the lengths at worst.
+     * @param pattern The pattern.
+     * @param name    The name.
+     * @return True if the whole name matches.
+     */
+    public static boolean matches(String pattern, String name) {
+        int p = 0;
+        int n = 0;
+        int star = -1; // position in pattern after the last '*'
+        int mark = 0; // position in name that '*' was matched up to
+        while (n < name.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?'
+                || (pattern.charAt(p) != '*'
+                    && pattern.charAt(p) == name.charAt(n)))) {
+                p++;
+                n++;
+            }
+            else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = ++p;
+                mark = n;
+            }
+            else if (star >= 0) {
+                p = star;
+                n = ++mark;
+            }
+            else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+}
@@ -0,0 +1,428 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * A SkipList keyed by String whose nodes live outside the Java heap.
+ * Each node (its UTF-8 key bytes, its forward pointers and an int handle
+ * for its value) is a block in an arena of direct ByteBuffers, so the
+ * garbage collector sees a few large buffers and one value array no
+ * matter how many entries there are.
+ *
+ * Blocks are carved from the arena by a bump allocator and freed
+ * explicitly on remove onto per-size free lists, which later inserts of
+ * the same size reuse. Pointers are int addresses: the top bits pick the
+ * buffer (chunk) and the low 24 bits the offset in it. Address 0 is the
+ * head node, which nothing points to, so 0 also means null.
+ *
+ * Keys are compared byte by byte as unsigned UTF-8. That is the same
+ * order as String.compareTo except for characters outside the Basic
+ * Multilingual Plane, which sort after all others here. Levels are drawn
+ * exactly as in SkipList, so with the same Random and the same inserts
+ * both lists have the same shape and print the same output.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ *
+ * @param <V> The type of the value being stored.
+ */
+public class OffHeapSkipList<V> {
+
+    private static final int MAX_LEVEL = 10;
+
+    // Node layout: value handle, key length, level, then forward
+    // pointers and the key bytes
+    private static final int VALUE = 0;
+    private static final int KEY_LEN = 4;
+    private static final int LEVEL = 6;
+    private static final int FORWARD = 8;
+
+    private static final int MAX_KEY_BYTES = 0xFFFF;
+    private static final int OFFSET_BITS = 24;
+    private static final int OFFSET_MASK = (1 << OFFSET_BITS) - 1;
+    private static final int MAX_CHUNKS = 1 << (31 - OFFSET_BITS);
+    private static final int FIRST_CHUNK = 1 << 16;
+
+    private final Random rnd;
+    private ByteBuffer[] chunks;
+    private int chunkCount;
+    private int top; // next free offset in the last chunk
+    private int[] freeBlocks; // free list heads by block size / 8
+    private long reservedBytes;
+    private long usedBytes;
+
+    private Object[] values;
+    private int[] freeValues;
+    private int freeValueCount;
+    private int nextValue;
+
+    private int level;
+    private int size;
+
+    /**
+     * Constructor.
+     * @param r The Random used for node levels.
+     */
+    public OffHeapSkipList(Random r) {
+        this.rnd = r;
+        clear();
+    }
+
+    /**
+     * Remove every entry and give the arena back to the garbage
+     * collector, keeping only a small first chunk.
+     */
+    public void clear() {
+        chunks = new ByteBuffer[4];
+        chunkCount = 0;
+        top = 0;
+        freeBlocks = new int[32];
+        reservedBytes = 0;
+        usedBytes = 0;
+        values = new Object[16];
+        freeValues = new int[16];
+        freeValueCount = 0;
+        nextValue = 0;
+        level = 1;
+        size = 0;
+        int head = allocate(blockSize(MAX_LEVEL, 0));
+        writeHeader(head, -1, 0, MAX_LEVEL);
+    }
+
+    public int level() { return level; }
+    public int size() { return size; }
+
+    /**
+     * Gets the bytes of direct memory reserved by the arena.
+     * @return The reserved bytes.
+     */
+    public long reservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * Gets the bytes of the arena taken by live nodes, including the head.
+     * @return The bytes in use.
+     */
+    public long usedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Same coin flips as SkipList.randomLevel().
+     * @return The random level (1 to MAX_LEVEL).
+     */
+    private int randomLevel() {
+        int lev = 1;
+        while (lev < MAX_LEVEL && (rnd.nextInt() % 2) == 0) {
+            lev++;
+        }
+        return lev;
+    }
+
+    /**
+     * Insert an entry. Like SkipList, duplicate keys are allowed.
+     * @param key   The key.
+     * @param value The value.
+     * @throws IllegalArgumentException if the key is longer than 65535
+     *         UTF-8 bytes.
+     * @throws IllegalStateException if the arena is full.
+     */
+    public void insert(String key, V value) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        if (k.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException(
+                "Key is " + k.length + " bytes; at most " + MAX_KEY_BYTES);
+        }
+        int newLevel = randomLevel();
+        int[] update = new int[MAX_LEVEL];
+        search(k, update);
+        if (newLevel > level) {
+            // update[] is already 0 (the head) above the old level
+            level = newLevel;
+        }
+
+        int node = allocate(blockSize(newLevel, k.length));
+        writeHeader(node, newValue(value), k.length, newLevel);
+        ByteBuffer b = chunk(node);
+        int keyAt = offset(node) + FORWARD + 4 * newLevel;
+        for (int j = 0; j < k.length; j++) {
+            b.put(keyAt + j, k[j]);
+        }
+        for (int i = 0; i < newLevel; i++) {
+            setForward(node, i, forward(update[i], i));
+            setForward(update[i], i, node);
+        }
+        size++;
+    }
+
+    /**
+     * Remove the first entry with a key and free its node.
+     * @param key The key.
+     * @return The removed value, or null if there is no such key.
+     */
+    public V remove(String key) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        int[] update = new int[MAX_LEVEL];
+        int x = search(k, update);
+        if (x == 0 || compare(x, k) != 0) {
+            return null;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (forward(update[i], i) == x) {
+                setForward(update[i], i, forward(x, i));
+            }
+        }
+        size--;
+        while (level > 1 && forward(0, level - 1) == 0) {
+            level--;
+        }
+
+        V value = releaseValue(chunk(x).getInt(offset(x) + VALUE));
+        free(x, blockSize(levelOf(x), keyLength(x)));
+        return value;
+    }
+
+    /**
+     * Find the value of the first entry with a key.
+     * @param key The key.
+     * @return The value, or null if there is no such key.
+     */
+    public V find(String key) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        int x = search(k, null);
+        if (x != 0 && compare(x, k) == 0) {
+            return valueOf(x);
+        }
+        return null;
+    }
+
+    /**
+     * Same output as SkipList.print().
+     * @return The list, one node per line.
+     */
+    public String print() {
+        if (size == 0) {
+            return "SkipList is empty";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Node has depth ").append(level).append(", Value (null)\n");
+        int nodeCount = 0;
+        for (int x = forward(0, 0); x != 0; x = forward(x, 0)) {
+            sb.append("Node has depth ").append(levelOf(x));
+            sb.append(", Value (").append(valueOf(x).toString())
+              .append(")\n");
+            nodeCount++;
+        }
+        sb.append(nodeCount).append(" skiplist nodes printed\n");
+        return sb.toString();
+    }
+
+    /**
+     * Same output as SkipList.range().
+     * @param start The lowest key to list.
+     * @param end   The highest key to list.
+     * @return The values with keys in the range, one per line.
+     */
+    public String range(String start, String end) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Found these records in the range ");
+        sb.append(start).append(" to ").append(end).append("\n");
+        byte[] e = end.getBytes(StandardCharsets.UTF_8);
+        int x = search(start.getBytes(StandardCharsets.UTF_8), null);
+        while (x != 0 && compare(x, e) <= 0) {
+            sb.append(valueOf(x).toString()).append("\n");
+            x = forward(x, 0);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Find the first node with a key at or after some key bytes.
+     * @param key    The key bytes.
+     * @param update If not null, gets the last node before the key on
+     *               each level (0, the head, above the list's level).
+     * @return The node, or 0 if every key is smaller.
+     */
+    private int search(byte[] key, int[] update) {
+        int x = 0;
+        int steps = level;
+        for (int i = level - 1; i >= 0; i--) {
+            int next = forward(x, i);
+            while (next != 0 && compare(next, key) < 0) {
+                x = next;
+                next = forward(x, i);
+                steps++;
+            }
+            if (update != null) {
+                update[i] = x;
+            }
+        }
+        Metrics.skipListSteps(steps);
+        return forward(x, 0);
+    }
+
+    /**
+     * Compare a node's key with some key bytes, as unsigned bytes.
+     * @return Negative, zero or positive as the node's key is smaller,
+     *         equal or larger.
+     */
+    private int compare(int node, byte[] key) {
+        ByteBuffer b = chunk(node);
+        int n = keyLength(node);
+        int at = offset(node) + FORWARD + 4 * levelOf(node);
+        int len = Math.min(n, key.length);
+        for (int j = 0; j < len; j++) {
+            int c = (b.get(at + j) & 0xFF) - (key[j] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return n - key.length;
+    }
+
+    // ----------------------------------------------------------
+    // Node fields
+
+    private ByteBuffer chunk(int node) {
+        return chunks[node >>> OFFSET_BITS];
+    }
+
+    private static int offset(int node) {
+        return node & OFFSET_MASK;
+    }
+
+    private void writeHeader(int node, int value, int keyLen, int lev) {
+        ByteBuffer b = chunk(node);
+        int at = offset(node);
+        b.putInt(at + VALUE, value);
+        b.putShort(at + KEY_LEN, (short) keyLen);
+        b.put(at + LEVEL, (byte) lev);
+        for (int i = 0; i < lev; i++) {
+            b.putInt(at + FORWARD + 4 * i, 0);
+        }
+    }
+
+    private int forward(int node, int i) {
+        return chunk(node).getInt(offset(node) + FORWARD + 4 * i);
+    }
+
+    private void setForward(int node, int i, int to) {
+        chunk(node).putInt(offset(node) + FORWARD + 4 * i, to);
+    }
+
+    private int levelOf(int node) {
+        return chunk(node).get(offset(node) + LEVEL);
+    }
+
+    private int keyLength(int node) {
+        return chunk(node).getShort(offset(node) + KEY_LEN) & 0xFFFF;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueOf(int node) {
+        return (V) values[chunk(node).getInt(offset(node) + VALUE)];
+    }
+
+    private static int blockSize(int lev, int keyLen) {
+        return (FORWARD + 4 * lev + keyLen + 7) & ~7;
+    }
+
+    // ----------------------------------------------------------
+    // Arena allocator
+
+    /**
+     * Get a block, from the free list of its size if possible.
+     * @param bytes The block size, a multiple of 8.
+     * @return The block's address.
+     */
+    private int allocate(int bytes) {
+        int cls = bytes >>> 3;
+        usedBytes += bytes;
+        if (cls < freeBlocks.length && freeBlocks[cls] != 0) {
+            int block = freeBlocks[cls];
+            freeBlocks[cls] = chunk(block).getInt(offset(block));
+            return block;
+        }
+        if (chunkCount == 0
+            || top + bytes > chunks[chunkCount - 1].capacity()) {
+            newChunk(bytes);
+        }
+        int block = ((chunkCount - 1) << OFFSET_BITS) | top;
+        top += bytes;
+        return block;
+    }
+
+    /**
+     * Put a block on the free list of its size.
+     * @param block The block's address.
+     * @param bytes The block size.
+     */
+    private void free(int block, int bytes) {
+        int cls = bytes >>> 3;
+        if (cls >= freeBlocks.length) {
+            int[] bigger = new int[Math.max(cls + 1, freeBlocks.length * 2)];
+            System.arraycopy(freeBlocks, 0, bigger, 0, freeBlocks.length);
+            freeBlocks = bigger;
+        }
+        chunk(block).putInt(offset(block), freeBlocks[cls]);
+        freeBlocks[cls] = block;
+        usedBytes -= bytes;
+    }
+
+    /**
+     * Add a chunk, twice the size of the last one up to 16 MB. The rest
+     * of the last chunk is left unused.
+     * @param bytes The block that must fit.
+     */
+    private void newChunk(int bytes) {
+        if (chunkCount == MAX_CHUNKS) {
+            throw new IllegalStateException("Off-heap arena is full");
+        }
+        int capacity = chunkCount == 0 ? FIRST_CHUNK
+            : Math.min(OFFSET_MASK + 1, chunks[chunkCount - 1].capacity() * 2);
+        if (chunkCount == chunks.length) {
+            ByteBuffer[] bigger = new ByteBuffer[chunks.length * 2];
+            System.arraycopy(chunks, 0, bigger, 0, chunkCount);
+            chunks = bigger;
+        }
+        chunks[chunkCount++] = ByteBuffer.allocateDirect(
+            Math.max(capacity, bytes));
+        reservedBytes += chunks[chunkCount - 1].capacity();
+        top = 0;
+    }
+
+    // ----------------------------------------------------------
+    // Value handles
+
+    private int newValue(V value) {
+        int handle;
+        if (freeValueCount > 0) {
+            handle = freeValues[--freeValueCount];
+        }
+        else {
+            if (nextValue == values.length) {
+                Object[] bigger = new Object[values.length * 2];
+                System.arraycopy(values, 0, bigger, 0, nextValue);
+                values = bigger;
+            }
+            handle = nextValue++;
+        }
+        values[handle] = value;
+        return handle;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V releaseValue(int handle) {
+        V value = (V) values[handle];
+        values[handle] = null;
+        if (freeValueCount == freeValues.length) {
+            int[] bigger = new int[freeValues.length * 2];
+            System.arraycopy(freeValues, 0, bigger, 0, freeValueCount);
+            freeValues = bigger;
+        }
+        freeValues[freeValueCount++] = handle;
+        return value;
+    }
+}
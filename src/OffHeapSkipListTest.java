@@ -0,0 +1,136 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the OffHeapSkipList class.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class OffHeapSkipListTest extends TestCase {
+
+    private OffHeapSkipList<String> list;
+
+    /**
+     * Sets up an empty list with a fixed seed.
+     */
+    public void setUp() {
+        list = new OffHeapSkipList<>(new Random(0));
+    }
+
+    /**
+     * Tests basic insert, find and remove.
+     */
+    public void testInsertFindRemove() {
+        assertEquals("SkipList is empty", list.print());
+        assertNull(list.find("A"));
+        assertNull(list.remove("A"));
+        list.insert("B", "Value B");
+        list.insert("A", "Value A");
+        list.insert("C", "Value C");
+        assertEquals(3, list.size());
+        assertEquals("Value A", list.find("A"));
+        assertEquals("Value C", list.find("C"));
+        assertNull(list.find("AB"));
+        assertEquals("Value B", list.remove("B"));
+        assertNull(list.find("B"));
+        assertEquals(2, list.size());
+        assertEquals("Found these records in the range A to Z\n"
+            + "Value A\nValue C\n", list.range("A", "Z"));
+    }
+
+    /**
+     * Tests that the list behaves exactly like SkipList under random
+     * inserts and removes with the same seed.
+     */
+    public void testMatchesSkipList() {
+        SkipList<String, String> heap = new SkipList<>(new Random(11));
+        OffHeapSkipList<String> off = new OffHeapSkipList<>(new Random(11));
+        Random ops = new Random(5);
+        for (int i = 0; i < 3000; i++) {
+            String key = "N" + ops.nextInt(800);
+            if (ops.nextInt(3) == 0) {
+                assertEquals(heap.remove(key), off.remove(key));
+            }
+            else if (heap.find(key) == null) {
+                heap.insert(key, "V" + key);
+                off.insert(key, "V" + key);
+            }
+            assertEquals(heap.find(key), off.find(key));
+        }
+        assertEquals(heap.size(), off.size());
+        assertEquals(heap.level(), off.level());
+        assertEquals(heap.print(), off.print());
+        assertEquals(heap.range("N2", "N5"), off.range("N2", "N5"));
+    }
+
+    /**
+     * Tests that freed nodes are reused, so churn does not grow the
+     * arena.
+     */
+    public void testFreeAndReuse() {
+        long empty = list.usedBytes();
+        for (int i = 0; i < 1000; i++) {
+            list.insert("K" + (1000 + i), "V");
+        }
+        long full = list.usedBytes();
+        long reserved = list.reservedBytes();
+        assertTrue(full > empty);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("V", list.remove("K" + (1000 + i)));
+            }
+            assertEquals(empty, list.usedBytes());
+            for (int i = 0; i < 1000; i++) {
+                list.insert("K" + (1000 + i), "V");
+            }
+        }
+        // Same keys, so each node fits a freed block of its size
+        assertEquals(reserved, list.reservedBytes());
+    }
+
+    /**
+     * Tests growth past the first chunk and clear().
+     */
+    public void testManyChunks() {
+        for (int i = 0; i < 20000; i++) {
+            list.insert(String.format("name%06d", i), "v" + i);
+        }
+        assertTrue(list.reservedBytes() > 1 << 16);
+        assertEquals("v0", list.find("name000000"));
+        assertEquals("v19999", list.find("name019999"));
+        assertEquals("v12345", list.find("name012345"));
+        list.clear();
+        assertEquals(0, list.size());
+        assertEquals(1 << 16, list.reservedBytes());
+        assertNull(list.find("name000000"));
+    }
+
+    /**
+     * Tests that keys are compared as unsigned UTF-8 bytes.
+     */
+    public void testUtf8Keys() {
+        list.insert("\u00e9t\u00e9", "ete");
+        list.insert("zulu", "zulu");
+        list.insert("\u65e5\u672c", "nihon");
+        list.insert("", "empty");
+        assertEquals("ete", list.find("\u00e9t\u00e9"));
+        assertEquals("nihon", list.find("\u65e5\u672c"));
+        assertEquals("empty", list.find(""));
+        assertEquals("Found these records in the range a to \u00ff\n"
+            + "zulu\nete\n", list.range("a", "\u00ff"));
+
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 70000; i++) {
+            big.append('x');
+        }
+        Exception thrown = null;
+        try {
+            list.insert(big.toString(), "big");
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * The original collision engine: checks every pair of objects in the
+ * leaf. This is the default, and is the fastest for the small leaves
+ * the split rule normally produces.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class PairwiseCollisionEngine implements CollisionEngine {
+
+    private static final PairwiseCollisionEngine INSTANCE =
+        new PairwiseCollisionEngine();
+
+    private PairwiseCollisionEngine() {
+    }
+
+    public static PairwiseCollisionEngine getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void leafCollisions(StringBuilder sb, SimpleList data, int x,
+        int y, int z, int xWid, int yWid, int zWid) {
+        for (int i = 0; i < data.size() - 1; i++) {
+            for (int j = i + 1; j < data.size(); j++) {
+                AirObject a = data.get(i);
+                AirObject b = data.get(j);
+
+                if (a.intersects(b)) {
+                    CollisionEngine.report(sb, a, b,
+                        x, y, z, xWid, yWid, zWid);
+                }
+            }
+        }
+    }
+}
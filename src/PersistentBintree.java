@@ -0,0 +1,69 @@
+/**
+ * A Bintree built from immutable nodes. Every insert or remove publishes
+ * a new root that shares all untouched subtrees with the previous one.
+ * Writers are serialized with each other, but readers never block:
+ * a snapshot is just the current root, and queries on it can run as long
+ * as they like while new versions are published.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class PersistentBintree extends Bintree {
+
+    /**
+     * Constructor for an empty tree.
+     * @param worldSize The size of the world in each dimension.
+     */
+    public PersistentBintree(int worldSize) {
+        super(worldSize);
+    }
+
+    /**
+     * Constructor for a tree sharing an existing root.
+     * @param worldSize The size of the world in each dimension.
+     * @param root      The (immutable) root node.
+     */
+    private PersistentBintree(int worldSize, BintreeNode root) {
+        super(worldSize);
+        setRoot(root);
+    }
+
+    @Override
+    public synchronized void insert(AirObject obj) {
+        int size = getWorldSize();
+        setRoot(PersistentInternalNode.insertInto(getRoot(), obj,
+            0, 0, 0, size, size, size, 0));
+    }
+
+    @Override
+    public synchronized void remove(AirObject obj) {
+        int size = getWorldSize();
+        setRoot(getRoot().remove(obj, 0, 0, 0, size, size, size, 0));
+    }
+
+    @Override
+    public synchronized void bulkLoad(AirObject[] objs) {
+        super.bulkLoad(objs);
+    }
+
+    @Override
+    LeafNode newLeaf(SimpleList data) {
+        return new PersistentLeafNode(data);
+    }
+
+    @Override
+    InternalNode newInternal(BintreeNode left, BintreeNode right,
+        int count) {
+        return new PersistentInternalNode(left, right, count);
+    }
+
+    /**
+     * Take a snapshot of the current version of the tree.
+     * This is constant time, and later changes to this tree are not
+     * visible in the snapshot (or the other way around).
+     * @return A tree sharing the current root.
+     */
+    public PersistentBintree snapshot() {
+        return new PersistentBintree(getWorldSize(), getRoot());
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the persistent (copy-on-write) Bintree.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class PersistentBintreeTest extends TestCase {
+
+    private Bintree plain;
+    private PersistentBintree tree;
+    private AirObject[] objs;
+
+    /**
+     * Sets up a plain and a persistent tree and a batch of objects.
+     */
+    public void setUp() {
+        plain = new Bintree(1024);
+        tree = new PersistentBintree(1024);
+        Random rnd = new Random(7);
+        objs = new AirObject[60];
+        for (int i = 0; i < objs.length; i++) {
+            int x = rnd.nextInt(1000);
+            int y = rnd.nextInt(1000);
+            int z = rnd.nextInt(1000);
+            objs[i] = new AirPlane("P" + i, x, y, z,
+                1 + rnd.nextInt(24), 1 + rnd.nextInt(24), 1 + rnd.nextInt(24),
+                "Delta", i + 1, 2);
+        }
+    }
+
+    /**
+     * Tests that the persistent tree has the same shape as the plain one
+     * through a mix of inserts and removes.
+     */
+    public void testMatchesPlainTree() {
+        for (int i = 0; i < objs.length; i++) {
+            plain.insert(objs[i]);
+            tree.insert(objs[i]);
+            assertEquals(plain.print(), tree.print());
+        }
+        assertEquals(plain.collisions(), tree.collisions());
+        assertEquals(plain.intersect(0, 0, 0, 500, 500, 500),
+            tree.intersect(0, 0, 0, 500, 500, 500));
+        for (int i = 0; i < objs.length; i += 2) {
+            plain.remove(objs[i]);
+            tree.remove(objs[i]);
+            assertEquals(plain.print(), tree.print());
+        }
+        for (int i = 1; i < objs.length; i += 2) {
+            plain.remove(objs[i]);
+            tree.remove(objs[i]);
+            assertEquals(plain.print(), tree.print());
+        }
+        assertEquals("E (0, 0, 0, 1024, 1024, 1024) 0\n"
+            + "1 Bintree nodes printed\n", tree.print());
+    }
+
+    /**
+     * Tests that a snapshot does not see later changes.
+     */
+    public void testSnapshotIsolation() {
+        for (int i = 0; i < 10; i++) {
+            tree.insert(objs[i]);
+        }
+        String before = tree.print();
+        PersistentBintree snap = tree.snapshot();
+        for (int i = 10; i < 30; i++) {
+            tree.insert(objs[i]);
+        }
+        tree.remove(objs[0]);
+        assertEquals(before, snap.print());
+        assertFalse(before.equals(tree.print()));
+
+        // Writing to the snapshot does not affect the original
+        String after = tree.print();
+        snap.remove(objs[1]);
+        assertEquals(after, tree.print());
+    }
+
+    /**
+     * Tests that removing an absent object keeps the same root.
+     */
+    public void testRemoveMissingSharesRoot() {
+        tree.insert(objs[0]);
+        tree.insert(objs[1]);
+        BintreeNode root = tree.getRoot();
+        tree.remove(objs[2]);
+        assertSame(root, tree.getRoot());
+    }
+
+    /**
+     * Tests that an insert leaves the other half of the tree shared.
+     */
+    public void testUntouchedSubtreeShared() {
+        AirObject low = new AirPlane("low", 10, 10, 10, 5, 5, 5, "D", 1, 1);
+        AirObject high = new AirPlane("high", 900, 10, 10, 5, 5, 5,
+            "D", 2, 1);
+        AirObject high2 = new AirPlane("high2", 950, 10, 10, 5, 5, 5,
+            "D", 3, 1);
+        AirObject low2 = new AirPlane("low2", 200, 10, 10, 5, 5, 5,
+            "D", 4, 1);
+        tree.insert(low);
+        tree.insert(high);
+        tree.insert(high2);
+        tree.insert(low2);
+        InternalNode root = (InternalNode) tree.getRoot();
+        BintreeNode right = root.getRight();
+
+        tree.insert(new AirPlane("low3", 300, 10, 10, 5, 5, 5, "D", 5, 1));
+        InternalNode newRoot = (InternalNode) tree.getRoot();
+        assertNotSame(root, newRoot);
+        assertSame(right, newRoot.getRight());
+    }
+}
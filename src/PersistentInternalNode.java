@@ -0,0 +1,162 @@
+/**
+ * An immutable internal node for the persistent (copy-on-write) Bintree.
+ * Insert and remove copy only the nodes on the path to the changed
+ * leaves. Untouched subtrees are shared between the old and new versions.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class PersistentInternalNode extends InternalNode {
+
+    /**
+     * Constructor for a node with two empty children.
+     */
+    public PersistentInternalNode() {
+        super();
+    }
+
+    /**
+     * Constructor with the given children.
+     * @param left  The left (lower half) child.
+     * @param right The right (upper half) child.
+     * @param count The number of unique objects in the two children.
+     */
+    PersistentInternalNode(BintreeNode left, BintreeNode right, int count) {
+        super(left, right, count);
+    }
+
+    @Override
+    public BintreeNode insert(AirObject obj, int x, int y, int z,
+                              int xWid, int yWid, int zWid, int depth) {
+        int axis = depth % 3; // 0=x, 1=y, 2=z
+        int newDepth = depth + 1;
+        int lxWid = xWid;
+        int lyWid = yWid;
+        int lzWid = zWid;
+        int rx = x;
+        int ry = y;
+        int rz = z;
+        if (axis == 0) {
+            lxWid = xWid / 2;
+            rx = x + lxWid;
+        }
+        else if (axis == 1) {
+            lyWid = yWid / 2;
+            ry = y + lyWid;
+        }
+        else {
+            lzWid = zWid / 2;
+            rz = z + lzWid;
+        }
+
+        BintreeNode newLeft = getLeft();
+        BintreeNode newRight = getRight();
+        if (obj.intersects(x, y, z, lxWid, lyWid, lzWid)) {
+            newLeft = insertInto(newLeft, obj, x, y, z,
+                                 lxWid, lyWid, lzWid, newDepth);
+        }
+        if (obj.intersects(rx, ry, rz, lxWid, lyWid, lzWid)) {
+            newRight = insertInto(newRight, obj, rx, ry, rz,
+                                  lxWid, lyWid, lzWid, newDepth);
+        }
+        int newCount = getCount();
+        if (countOf(newLeft) + countOf(newRight)
+            > countOf(getLeft()) + countOf(getRight())) {
+            newCount++;
+        }
+        return new PersistentInternalNode(newLeft, newRight, newCount);
+    }
+
+    @Override
+    public BintreeNode remove(AirObject obj, int x, int y, int z,
+                              int xWid, int yWid, int zWid, int depth) {
+        int axis = depth % 3;
+        int newDepth = depth + 1;
+        int lxWid = xWid;
+        int lyWid = yWid;
+        int lzWid = zWid;
+        int rx = x;
+        int ry = y;
+        int rz = z;
+        if (axis == 0) {
+            lxWid = xWid / 2;
+            rx = x + lxWid;
+        }
+        else if (axis == 1) {
+            lyWid = yWid / 2;
+            ry = y + lyWid;
+        }
+        else {
+            lzWid = zWid / 2;
+            rz = z + lzWid;
+        }
+
+        BintreeNode newLeft = getLeft();
+        BintreeNode newRight = getRight();
+        if (obj.intersects(x, y, z, lxWid, lyWid, lzWid)) {
+            newLeft = newLeft.remove(obj, x, y, z,
+                                     lxWid, lyWid, lzWid, newDepth);
+        }
+        if (obj.intersects(rx, ry, rz, lxWid, lyWid, lzWid)) {
+            newRight = newRight.remove(obj, rx, ry, rz,
+                                       lxWid, lyWid, lzWid, newDepth);
+        }
+
+        if (newLeft == getLeft() && newRight == getRight()) {
+            return this;
+        }
+        if (newLeft instanceof EmptyNode && newRight instanceof EmptyNode) {
+            BintreeChanges.changed(x, y, z, xWid, yWid, zWid);
+            return EmptyNode.getInstance();
+        }
+        int newCount = getCount();
+        if (countOf(newLeft) + countOf(newRight)
+            < countOf(getLeft()) + countOf(getRight())) {
+            newCount--;
+        }
+        PersistentInternalNode next =
+            new PersistentInternalNode(newLeft, newRight, newCount);
+        if (next.shouldMerge()) {
+            Metrics.merge();
+            BintreeChanges.changed(x, y, z, xWid, yWid, zWid);
+            BintreeMergeEvent event = new BintreeMergeEvent();
+            event.begin();
+            SimpleList merged =
+                next.mergedData(x, y, z, xWid, yWid, zWid, depth);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setRegion(x, y, z, xWid, yWid, zWid, depth);
+                event.objects = merged.size();
+                event.commit();
+            }
+            return new PersistentLeafNode(merged);
+        }
+        return next;
+    }
+
+    /**
+     * Inserts into a node of the persistent tree. The EmptyNode flyweight
+     * would create a mutable LeafNode, so an empty position starts from
+     * an empty persistent leaf instead.
+     *
+     * @param node   The node to insert into.
+     * @param obj    The AirObject to insert.
+     * @param x      The x-origin of the node's region.
+     * @param y      The y-origin of the node's region.
+     * @param z      The z-origin of the node's region.
+     * @param xWid   The width of the region in x.
+     * @param yWid   The width of the region in y.
+     * @param zWid   The width of the region in z.
+     * @param depth  The depth of the node in the tree.
+     * @return The new node for that position.
+     */
+    static BintreeNode insertInto(BintreeNode node, AirObject obj,
+                                  int x, int y, int z,
+                                  int xWid, int yWid, int zWid, int depth) {
+        if (node instanceof EmptyNode) {
+            BintreeChanges.changed(x, y, z, xWid, yWid, zWid);
+            node = new PersistentLeafNode(new SimpleList());
+        }
+        return node.insert(obj, x, y, z, xWid, yWid, zWid, depth);
+    }
+}
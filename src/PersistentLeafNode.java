@@ -0,0 +1,69 @@
+/**
+ * An immutable leaf node for the persistent (copy-on-write) Bintree.
+ * Insert and remove never change this node; they return a new node
+ * holding a copy of the list, so any reader still holding the old root
+ * keeps seeing the old contents.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class PersistentLeafNode extends LeafNode {
+
+    /**
+     * Constructor. The list must not be changed after it is handed over.
+     * @param data The objects this leaf holds.
+     */
+    PersistentLeafNode(SimpleList data) {
+        super(data);
+    }
+
+    @Override
+    public BintreeNode insert(AirObject obj, int x, int y, int z,
+                              int xWid, int yWid, int zWid, int depth) {
+        SimpleList next = getData().copy();
+        next.add(obj);
+        PersistentLeafNode newLeaf = new PersistentLeafNode(next);
+        Metrics.leafSize(next.size());
+
+        // Same split rule as LeafNode: > 3 objects that do not all intersect
+        if (next.size() > 3 && !newLeaf.allIntersect()) {
+            Metrics.split();
+            BintreeChanges.changed(x, y, z, xWid, yWid, zWid);
+            BintreeSplitEvent event = new BintreeSplitEvent();
+            event.begin();
+            BintreeNode newInternal = new PersistentInternalNode();
+            for (int i = 0; i < next.size(); i++) {
+                newInternal = newInternal.insert(next.get(i), x, y, z,
+                                                 xWid, yWid, zWid, depth);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.setRegion(x, y, z, xWid, yWid, zWid, depth);
+                event.objects = next.size();
+                event.commit();
+            }
+            return newInternal;
+        }
+        return newLeaf;
+    }
+
+    @Override
+    public BintreeNode remove(AirObject obj, int x, int y, int z,
+                              int xWid, int yWid, int zWid, int depth) {
+        SimpleList data = getData();
+        boolean found = false;
+        for (int i = 0; i < data.size() && !found; i++) {
+            found = data.get(i) == obj;
+        }
+        if (!found) {
+            return this;
+        }
+        if (data.size() == 1) {
+            BintreeChanges.changed(x, y, z, xWid, yWid, zWid);
+            return EmptyNode.getInstance();
+        }
+        SimpleList next = data.copy();
+        next.remove(obj);
+        return new PersistentLeafNode(next);
+    }
+}
@@ -0,0 +1,294 @@
+import java.util.Random;
+
+/**
+ * A bounded least-recently-used cache of intersect() and rangeprint()
+ * results, for displays that repeat the same queries between updates.
+ *
+ * A write only drops the results it could have changed:
+ * <ul>
+ * <li>an intersect result if its box overlaps the object added or
+ * deleted, or a region of the Bintree whose nodes the write changed
+ * (see BintreeChanges); everywhere else the query walks the same nodes
+ * and lists the same objects, so the result stays valid;</li>
+ * <li>a rangeprint result if the range contains the object's name.</li>
+ * </ul>
+ * Results are found through a SkipList keyed on the query, and kept in
+ * a doubly linked list in order of use. A write checks every cached
+ * result, so the cost of a write grows with the capacity.
+ *
+ * Every method is synchronized, so concurrent databases can share one
+ * cache. There, a query may overlap a write, and its result must not be
+ * cached after the write's invalidation has run: such callers read
+ * version() before running the query and pass it to the put method,
+ * which drops the result if any write was seen since.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ *
+ * @param <V> The type of the cached results.
+ */
+public class QueryCache<V> {
+
+    /**
+     * One cached result, and its place in the use order.
+     */
+    private static final class Entry<V> {
+        private final String key;
+        private final V result;
+        private final int[] box; // intersect only
+        private final String start; // rangeprint only
+        private final String end;
+        private Entry<V> prev;
+        private Entry<V> next;
+
+        Entry(String key, V result, int[] box, String start,
+            String end) {
+            this.key = key;
+            this.result = result;
+            this.box = box;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final int capacity;
+    private SkipList<String, Entry<V>> index;
+    private final Entry<V> head = new Entry<>(null, null, null, null, null);
+    private int size;
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long version; // bumped by every invalidate() and clear()
+
+    /**
+     * Constructor.
+     * @param capacity The largest number of results kept.
+     */
+    public QueryCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                "capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        clear();
+    }
+
+    /**
+     * Drop every result. The counters are kept.
+     */
+    public synchronized void clear() {
+        version++;
+        index = new SkipList<>(new Random(0));
+        head.prev = head;
+        head.next = head;
+        size = 0;
+    }
+
+    /**
+     * Gets the largest number of results kept.
+     * @return The capacity.
+     */
+    public synchronized int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of results kept.
+     * @return The count.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of lookups that found a result.
+     * @return The count.
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that found none.
+     * @return The count.
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of results dropped by writes.
+     * @return The count.
+     */
+    public synchronized long invalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Gets the number of writes seen so far, counting clears.
+     * @return The version.
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    // ----------------------------------------------------------
+    // Lookups
+
+    /**
+     * Gets a cached intersect() result.
+     * @param box The query box: x, y, z, xWid, yWid, zWid.
+     * @return The result, or null if not cached.
+     */
+    public synchronized V intersect(int[] box) {
+        return lookup(intersectKey(box));
+    }
+
+    /**
+     * Cache an intersect() result.
+     * @param box    The query box: x, y, z, xWid, yWid, zWid.
+     * @param result The result.
+     */
+    public void putIntersect(int[] box, V result) {
+        putIntersect(box, result, version());
+    }
+
+    /**
+     * Cache an intersect() result, unless a write was seen since the
+     * query started.
+     * @param box     The query box: x, y, z, xWid, yWid, zWid.
+     * @param result  The result.
+     * @param version The version() read before the query ran.
+     */
+    public synchronized void putIntersect(int[] box, V result,
+        long version) {
+        if (version == this.version) {
+            put(new Entry<>(intersectKey(box), result, box.clone(), null,
+                null));
+        }
+    }
+
+    /**
+     * Gets a cached rangeprint() result.
+     * @param start Minimum of the range.
+     * @param end   Maximum of the range.
+     * @return The result, or null if not cached.
+     */
+    public synchronized V rangeprint(String start, String end) {
+        return lookup(rangeKey(start, end));
+    }
+
+    /**
+     * Cache a rangeprint() result.
+     * @param start  Minimum of the range.
+     * @param end    Maximum of the range.
+     * @param result The result.
+     */
+    public void putRangeprint(String start, String end, V result) {
+        putRangeprint(start, end, result, version());
+    }
+
+    /**
+     * Cache a rangeprint() result, unless a write was seen since the
+     * query started.
+     * @param start   Minimum of the range.
+     * @param end     Maximum of the range.
+     * @param result  The result.
+     * @param version The version() read before the query ran.
+     */
+    public synchronized void putRangeprint(String start, String end,
+        V result, long version) {
+        if (version == this.version) {
+            put(new Entry<>(rangeKey(start, end), result, null, start, end));
+        }
+    }
+
+    private static String intersectKey(int[] box) {
+        return "i " + box[0] + " " + box[1] + " " + box[2] + " " + box[3]
+            + " " + box[4] + " " + box[5];
+    }
+
+    private static String rangeKey(String start, String end) {
+        // The length prefix marks where start ends, whatever it holds
+        return "r" + start.length() + ":" + start + end;
+    }
+
+    private V lookup(String key) {
+        Entry<V> e = index.find(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        unlink(e);
+        linkFirst(e);
+        return e.result;
+    }
+
+    private void put(Entry<V> e) {
+        Entry<V> old = index.find(e.key);
+        if (old != null) {
+            drop(old);
+        }
+        else if (size == capacity) {
+            drop(head.prev);
+        }
+        index.insert(e.key, e);
+        linkFirst(e);
+        size++;
+    }
+
+    // ----------------------------------------------------------
+    // Invalidation
+
+    /**
+     * Drop the results an add or delete could have changed.
+     * @param obj     The object added or deleted.
+     * @param changes The Bintree regions whose nodes the write changed.
+     */
+    synchronized void invalidate(AirObject obj, BintreeChanges changes) {
+        version++;
+        int ox = obj.getXorig();
+        int oy = obj.getYorig();
+        int oz = obj.getZorig();
+        Entry<V> e = head.next;
+        while (e != head) {
+            Entry<V> next = e.next;
+            boolean stale;
+            if (e.box != null) {
+                int[] b = e.box;
+                stale = (b[0] <= ox + obj.getXwidth() && b[0] + b[3] >= ox
+                    && b[1] <= oy + obj.getYwidth() && b[1] + b[4] >= oy
+                    && b[2] <= oz + obj.getZwidth() && b[2] + b[5] >= oz)
+                    || changes.touches(b);
+            }
+            else {
+                stale = e.start.compareTo(obj.getName()) <= 0
+                    && obj.getName().compareTo(e.end) <= 0;
+            }
+            if (stale) {
+                drop(e);
+                invalidations++;
+            }
+            e = next;
+        }
+    }
+
+    private void drop(Entry<V> e) {
+        index.remove(e.key);
+        unlink(e);
+        size--;
+    }
+
+    private void unlink(Entry<V> e) {
+        e.prev.next = e.next;
+        e.next.prev = e.prev;
+    }
+
+    private void linkFirst(Entry<V> e) {
+        e.prev = head;
+        e.next = head.next;
+        head.next.prev = e;
+        head.next = e;
+    }
+}
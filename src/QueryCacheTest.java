@@ -0,0 +1,204 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the QueryCache class and its use in WorldDB.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class QueryCacheTest extends TestCase {
+
+    /**
+     * Tests that a cached database always answers the same as an uncached
+     * one while objects come and go, and that repeated queries hit.
+     */
+    public void testMatchesUncached() {
+        checkMatchesUncached(new WorldDB(new Random(3)),
+            new WorldDB(new Random(3)));
+    }
+
+    /**
+     * Tests the same for the concurrent and sharded databases.
+     */
+    public void testMatchesUncachedConcurrentAndSharded() {
+        checkMatchesUncached(new ConcurrentWorldDB(new Random(3)),
+            new ConcurrentWorldDB(new Random(3)));
+        try (ShardedWorldDB plain = new ShardedWorldDB(new Random(3), 3);
+            ShardedWorldDB cached = new ShardedWorldDB(new Random(3), 3)) {
+            checkMatchesUncached(plain, cached);
+        }
+    }
+
+    private void checkMatchesUncached(WorldDB plain, WorldDB cached) {
+        cached.setQueryCacheSize(64);
+        Random rnd = new Random(21);
+        int[][] boxes = new int[40][];
+        for (int i = 0; i < boxes.length; i++) {
+            int w = 1 + rnd.nextInt(300);
+            boxes[i] = new int[] {rnd.nextInt(1024 - w), rnd.nextInt(1024 - w),
+                rnd.nextInt(1024 - w), w, w, w};
+        }
+        String[] names = {"a", "d", "h", "m", "p", "t", "x", "z"};
+        for (Workload.Operation op : new Workload(2, 1024).generate(4000)) {
+            assertEquals(op.apply(plain), op.apply(cached));
+            int[] b = boxes[rnd.nextInt(boxes.length)];
+            assertEquals(plain.intersect(b[0], b[1], b[2], b[3], b[4], b[5]),
+                cached.intersect(b[0], b[1], b[2], b[3], b[4], b[5]));
+            int i = rnd.nextInt(names.length - 1);
+            String end = names[i + 1 + rnd.nextInt(names.length - i - 1)];
+            assertEquals(plain.rangeprint(names[i], end),
+                cached.rangeprint(names[i], end));
+        }
+        QueryCache<String> cache = cached.queryCache();
+        assertTrue(cache.hits() > 0);
+        assertTrue(cache.invalidations() > 0);
+        assertTrue(cache.size() <= 64);
+
+        cached.clear();
+        assertEquals(0, cache.size());
+        cached.setQueryCacheSize(0);
+        assertNull(cached.queryCache());
+    }
+
+    /**
+     * Tests that a write far from a cached box, which changes no nodes
+     * the box reaches, keeps the cached result.
+     */
+    public void testKeepsUnaffected() {
+        WorldDB db = new WorldDB(new Random(1));
+        db.setQueryCacheSize(8);
+        db.add(new Balloon("near", 10, 10, 10, 5, 5, 5, "hot", 3));
+        db.add(new Balloon("far", 900, 900, 900, 5, 5, 5, "hot", 3));
+        String before = db.intersect(0, 0, 0, 50, 50, 50);
+        assertEquals(1, db.queryCache().size());
+
+        // Joins the leaf holding "far", which does not split
+        db.add(new Balloon("far2", 950, 950, 950, 5, 5, 5, "hot", 3));
+        assertEquals(1, db.queryCache().size());
+        assertEquals(before, db.intersect(0, 0, 0, 50, 50, 50));
+        assertEquals(1, db.queryCache().hits());
+
+        // Splits the root leaf, which the box reaches
+        db.add(new Balloon("far3", 700, 700, 700, 5, 5, 5, "hot", 3));
+        assertEquals(0, db.queryCache().size());
+        assertFalse(before.equals(db.intersect(0, 0, 0, 50, 50, 50)));
+
+        db.rangeprint("a", "g");
+        db.rangeprint("m", "z");
+        db.delete("far2");
+        assertNull(db.queryCache().rangeprint("a", "g"));
+        assertNotNull(db.queryCache().rangeprint("m", "z"));
+    }
+
+    /**
+     * Tests least-recently-used eviction.
+     */
+    public void testEviction() {
+        QueryCache<String> cache = new QueryCache<>(2);
+        cache.putRangeprint("a", "b", "ab");
+        cache.putRangeprint("c", "d", "cd");
+        assertEquals("ab", cache.rangeprint("a", "b"));
+        cache.putRangeprint("e", "f", "ef");
+        assertNull(cache.rangeprint("c", "d"));
+        assertEquals("ab", cache.rangeprint("a", "b"));
+        assertEquals("ef", cache.rangeprint("e", "f"));
+        cache.putRangeprint("e", "f", "ef2");
+        assertEquals(2, cache.size());
+        assertEquals("ef2", cache.rangeprint("e", "f"));
+
+        Exception thrown = null;
+        try {
+            new QueryCache<>(0);
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests that a result whose query started before a write is not
+     * cached.
+     */
+    public void testStalePut() {
+        QueryCache<String> cache = new QueryCache<>(4);
+        long version = cache.version();
+        cache.invalidate(new Balloon("b", 1, 1, 1, 1, 1, 1, "hot", 3),
+            BintreeChanges.none());
+        cache.putRangeprint("x", "y", "old", version);
+        cache.putIntersect(new int[] {0, 0, 0, 9, 9, 9}, "old", version);
+        assertEquals(0, cache.size());
+        cache.putRangeprint("x", "y", "new", cache.version());
+        assertEquals("new", cache.rangeprint("x", "y"));
+        version = cache.version();
+        cache.clear();
+        cache.putRangeprint("x", "y", "old", version);
+        assertNull(cache.rangeprint("x", "y"));
+    }
+
+    /**
+     * Tests that range bounds holding spaces do not share a cache entry.
+     */
+    public void testRangeKeysWithSpaces() {
+        WorldDB plain = new WorldDB(new Random(3));
+        WorldDB cached = new WorldDB(new Random(3));
+        cached.setQueryCacheSize(8);
+        for (String name : new String[] {"a", "b", "bb", "c"}) {
+            AirObject obj = new Balloon(name, 1, 1, 1, 1, 1, 1, "hot", 3);
+            plain.add(obj);
+            cached.add(obj);
+        }
+        assertEquals(plain.rangeprint("a b", "c"),
+            cached.rangeprint("a b", "c"));
+        assertEquals(plain.rangeprint("a", "b c"),
+            cached.rangeprint("a", "b c"));
+        assertFalse(cached.rangeprint("a b", "c").equals(
+            cached.rangeprint("a", "b c")));
+    }
+
+    /**
+     * Tests that a ConcurrentWorldDB's cached results are right after
+     * writers and readers ran in parallel.
+     */
+    public void testConcurrentWriters() throws InterruptedException {
+        ConcurrentWorldDB db = new ConcurrentWorldDB(new Random(5));
+        db.setQueryCacheSize(32);
+        int[][] boxes = {{0, 0, 0, 512, 512, 512}, {500, 0, 0, 30, 1024,
+            1024}, {100, 100, 100, 200, 200, 200}, {0, 0, 0, 1024, 1024,
+            1024}};
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                Random rnd = new Random(id);
+                for (int i = 0; i < 2000; i++) {
+                    String name = "o" + id + "-" + rnd.nextInt(60);
+                    if (rnd.nextBoolean()) {
+                        db.add(new Balloon(name, rnd.nextInt(1000),
+                            rnd.nextInt(1000), rnd.nextInt(1000), 10, 10, 10,
+                            "hot", 3));
+                    }
+                    else {
+                        db.delete(name);
+                    }
+                    int[] b = boxes[rnd.nextInt(boxes.length)];
+                    db.intersect(b[0], b[1], b[2], b[3], b[4], b[5]);
+                    db.rangeprint("o1", "o3");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        for (int[] b : boxes) {
+            assertEquals(db.getBintree().intersect(b[0], b[1], b[2], b[3],
+                b[4], b[5]), db.intersect(b[0], b[1], b[2], b[3], b[4],
+                b[5]));
+        }
+        assertEquals(db.getSkipList().range("o1", "o3"),
+            db.rangeprint("o1", "o3"));
+        assertTrue(db.queryCache().hits() > 0);
+    }
+}
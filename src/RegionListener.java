@@ -0,0 +1,25 @@
+/**
+ * Receives the changes inside a subscribed region of the world. The
+ * methods are called asynchronously, on the database's notification
+ * executor, after the write that caused them has finished.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public interface RegionListener {
+
+    /**
+     * An object intersecting the region was added.
+     * @param fence The subscription it matched.
+     * @param obj   The object.
+     */
+    void added(Geofence fence, AirObject obj);
+
+
+    /**
+     * An object intersecting the region was deleted.
+     * @param fence The subscription it matched.
+     * @param obj   The object.
+     */
+    void deleted(Geofence fence, AirObject obj);
+}
@@ -0,0 +1,220 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+/**
+ * Replays a stream of generated operations against any ATC
+ * implementation and reports throughput, latency percentiles and the
+ * bytes allocated.
+ *
+ * Allocation is measured on the replaying thread only, so work handed to
+ * other threads (such as ShardedWorldDB's shard workers) is not counted.
+ * It is reported as -1 on JVMs that cannot measure it.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class Replay {
+
+    /**
+     * What one replay measured.
+     */
+    public static class Result {
+        private final Histogram all = new Histogram();
+        private final Histogram[] byKind =
+            new Histogram[Workload.Kind.values().length];
+        private long nanos;
+        private long allocatedBytes = -1;
+        private int checksum = 1;
+
+        private Result() {
+            for (int i = 0; i < byKind.length; i++) {
+                byKind[i] = new Histogram();
+            }
+        }
+
+        /**
+         * Gets the number of operations replayed.
+         * @return The count.
+         */
+        public long operations() {
+            return all.count();
+        }
+
+        /**
+         * Gets the number of operations of one kind replayed.
+         * @param kind The kind.
+         * @return The count.
+         */
+        public long operations(Workload.Kind kind) {
+            return byKind[kind.ordinal()].count();
+        }
+
+        /**
+         * Gets the time spent inside the ATC methods.
+         * @return The time in nanoseconds.
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        /**
+         * Gets the throughput, counting only time inside the ATC methods.
+         * @return Operations per second.
+         */
+        public double throughput() {
+            return nanos == 0 ? 0 : operations() * 1e9 / nanos;
+        }
+
+        /**
+         * Gets a latency percentile over all operations.
+         * @param percentile The percentile, 0 to 100.
+         * @return The latency in nanoseconds.
+         */
+        public long latency(double percentile) {
+            return all.percentile(percentile);
+        }
+
+        /**
+         * Gets a latency percentile of one kind of operation.
+         * @param kind       The kind.
+         * @param percentile The percentile, 0 to 100.
+         * @return The latency in nanoseconds.
+         */
+        public long latency(Workload.Kind kind, double percentile) {
+            return byKind[kind.ordinal()].percentile(percentile);
+        }
+
+        /**
+         * Gets the bytes allocated by the replaying thread.
+         * @return The bytes, or -1 if not measured.
+         */
+        public long allocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * Gets a hash of every result returned, in order. Two ATC
+         * implementations that behave the same give the same checksum.
+         * @return The checksum.
+         */
+        public int checksum() {
+            return checksum;
+        }
+
+        /**
+         * Returns a multi-line report.
+         * @return The report.
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d ops in %.1f ms, %.0f ops/s%n",
+                operations(), nanos / 1e6, throughput()));
+            sb.append("kind count p50 p99 p99.9 max (ns)\n");
+            appendRow(sb, "all", all);
+            for (Workload.Kind kind : Workload.Kind.values()) {
+                appendRow(sb, kind.name().toLowerCase(),
+                    byKind[kind.ordinal()]);
+            }
+            if (allocatedBytes >= 0) {
+                sb.append(String.format("allocated %d bytes, %.0f per op%n",
+                    allocatedBytes, operations() == 0 ? 0.0
+                        : (double)allocatedBytes / operations()));
+            }
+            sb.append("checksum ").append(checksum).append("\n");
+            return sb.toString();
+        }
+
+        private static void appendRow(StringBuilder sb, String name,
+            Histogram h) {
+            sb.append(name).append(" ").append(h.count()).append(" ")
+              .append(h.percentile(50)).append(" ")
+              .append(h.percentile(99)).append(" ")
+              .append(h.percentile(99.9)).append(" ")
+              .append(h.max()).append("\n");
+        }
+    }
+
+    /**
+     * Run the operations against an ATC, in order, on this thread.
+     * @param atc The implementation under test.
+     * @param ops The operations.
+     * @return What was measured.
+     */
+    public static Result run(ATC atc, Workload.Operation[] ops) {
+        Result result = new Result();
+        long threadId = Thread.currentThread().getId();
+        long allocBefore = allocatedBytes(threadId);
+        for (Workload.Operation op : ops) {
+            long start = System.nanoTime();
+            String out = op.apply(atc);
+            long elapsed = System.nanoTime() - start;
+            result.nanos += elapsed;
+            result.all.record(elapsed);
+            result.byKind[op.getKind().ordinal()].record(elapsed);
+            result.checksum = 31 * result.checksum
+                + (out == null ? 0 : out.hashCode());
+        }
+        long allocAfter = allocatedBytes(threadId);
+        if (allocBefore >= 0 && allocAfter >= 0) {
+            result.allocatedBytes = allocAfter - allocBefore;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the bytes a thread has allocated so far.
+     * @param threadId The thread.
+     * @return The bytes, or -1 if this JVM cannot tell.
+     */
+    private static long allocatedBytes(long threadId) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun =
+                (com.sun.management.ThreadMXBean) bean;
+            if (sun.isThreadAllocatedMemorySupported()
+                && sun.isThreadAllocatedMemoryEnabled()) {
+                return sun.getThreadAllocatedBytes(threadId);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replay a generated workload against one of the WorldDB variants
+     * and print the report. A first pass on a separate database warms
+     * up the JIT.
+     *
+     * @param args Optional: number of operations (default 100000),
+     *             seed (default 1) and implementation: plain,
+     *             concurrent or sharded (default plain).
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        String impl = args.length > 2 ? args[2] : "plain";
+
+        Workload.Operation[] ops = new Workload(seed, 1024).generate(n);
+        for (int pass = 0; pass < 2; pass++) {
+            WorldDB db = newWorldDB(impl, seed);
+            Result result = run(db, ops);
+            if (pass == 1) {
+                System.out.println(impl + ": " + result);
+            }
+            if (db instanceof ShardedWorldDB) {
+                ((ShardedWorldDB) db).close();
+            }
+        }
+    }
+
+    private static WorldDB newWorldDB(String impl, long seed) {
+        if (impl.equals("concurrent")) {
+            return new ConcurrentWorldDB(new Random(seed));
+        }
+        if (impl.equals("sharded")) {
+            return new ShardedWorldDB(new Random(seed), 3);
+        }
+        return new WorldDB(new Random(seed));
+    }
+}
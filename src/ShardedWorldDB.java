@@ -0,0 +1,568 @@
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A WorldDB whose world is split into 2^k sub-volumes (shards), each
+ * holding its own Bintree nodes and owned by its own worker thread.
+ * Nothing is shared between shards: the shard's nodes are only ever
+ * touched from its worker, so no locking is needed inside a shard.
+ *
+ * The shards are exactly the subtrees at depth k of the normal Bintree
+ * decomposition, cut along the same x/y/z halving planes. An object that
+ * straddles a boundary is inserted into every shard it touches, just as
+ * the Bintree would put it in every leaf it touches. The first k levels
+ * of the tree here are always internal nodes; once the top k levels of a
+ * plain WorldDB are internal too, its output is identical to this one.
+ *
+ * The SkipList stays with the calling thread, like WorldDB, so this class
+ * is meant to be driven by one controller thread. Writes are queued to
+ * the shard workers without waiting, and queries fan out to the shards
+ * they touch and merge the results in tree order. Call close() to stop
+ * the workers.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class ShardedWorldDB extends WorldDB implements AutoCloseable {
+
+    /**
+     * Largest supported number of shard levels (64 shards).
+     */
+    public static final int MAX_SHARD_BITS = 6;
+
+    private final int worldSize = getBintree().getWorldSize();
+    private final int[] worldBox =
+        {0, 0, 0, worldSize, worldSize, worldSize};
+    private final int shardBits;
+    private final Shard[] shards;
+
+    /**
+     * One sub-volume of the world and the worker that owns it.
+     */
+    private static class Shard {
+        private final int x;
+        private final int y;
+        private final int z;
+        private final int xWid;
+        private final int yWid;
+        private final int zWid;
+        private final int depth;
+        private final ExecutorService worker;
+        private BintreeNode root; // only touched by the worker
+        private QueryCache<Piece> cache; // likewise; null if none
+
+        Shard(int x, int y, int z, int xWid, int yWid, int zWid,
+            int depth, ExecutorService worker) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.xWid = xWid;
+            this.yWid = yWid;
+            this.zWid = zWid;
+            this.depth = depth;
+            this.worker = worker;
+            this.root = EmptyNode.getInstance();
+        }
+
+        boolean touches(int qx, int qy, int qz, int qxw, int qyw, int qzw) {
+            return qx < x + xWid && qx + qxw > x
+                && qy < y + yWid && qy + qyw > y
+                && qz < z + zWid && qz + qzw > z;
+        }
+    }
+
+    /**
+     * Text and node count produced by one shard for one query. A shard's
+     * cache keeps its intersect() pieces, which are not changed once
+     * built.
+     */
+    private static class Piece {
+        private final StringBuilder text = new StringBuilder();
+        private int count;
+    }
+
+    /**
+     * Constructor.
+     * @param r         The Random used for SkipList levels.
+     * @param shardBits The number of tree levels above the shards,
+     *                  so there are 2^shardBits shards.
+     */
+    public ShardedWorldDB(Random r, int shardBits) {
+        super(r);
+        if (shardBits < 0 || shardBits > MAX_SHARD_BITS) {
+            throw new IllegalArgumentException(
+                "shardBits must be 0 to " + MAX_SHARD_BITS + ": "
+                    + shardBits);
+        }
+        this.shardBits = shardBits;
+        this.shards = new Shard[1 << shardBits];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = newShard(i);
+        }
+    }
+
+    /**
+     * Get the number of shards.
+     * @return The shard count.
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Build shard i. Bit (shardBits - 1 - d) of i picks the upper half at
+     * depth d, so shard numbers are in Bintree preorder.
+     */
+    private Shard newShard(int i) {
+        int x = 0;
+        int y = 0;
+        int z = 0;
+        int xWid = worldSize;
+        int yWid = worldSize;
+        int zWid = worldSize;
+        for (int d = 0; d < shardBits; d++) {
+            boolean upper = ((i >> (shardBits - 1 - d)) & 1) == 1;
+            int axis = d % 3;
+            if (axis == 0) {
+                xWid /= 2;
+                x += upper ? xWid : 0;
+            }
+            else if (axis == 1) {
+                yWid /= 2;
+                y += upper ? yWid : 0;
+            }
+            else {
+                zWid /= 2;
+                z += upper ? zWid : 0;
+            }
+        }
+        String name = "WorldDB-shard-" + i;
+        Metrics metrics = getMetrics();
+        ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+            // Splits and merges on this worker count for this database
+            Thread t = new Thread(() -> {
+                Metrics.bind(metrics);
+                task.run();
+            }, name);
+            t.setDaemon(true);
+            return t;
+        });
+        return new Shard(x, y, z, xWid, yWid, zWid, shardBits, worker);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        for (Shard s : shards) {
+            s.worker.execute(() -> {
+                s.root = EmptyNode.getInstance();
+                if (s.cache != null) {
+                    s.cache.clear();
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean add(AirObject a) {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            if (!isValid(a) || getSkipList().find(a.getName()) != null) {
+                return false;
+            }
+            getSkipList().insert(a.getName(), a);
+            recordAdd(a);
+            invalidateNames(a);
+            for (Shard s : shards) {
+                if (touches(s, a)) {
+                    s.worker.execute(() -> write(s, a, true));
+                }
+            }
+            return true;
+        }
+        finally {
+            metrics.stop(Metrics.Op.ADD, began);
+        }
+    }
+
+    @Override
+    public String delete(String name) {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            if (name == null) {
+                return null;
+            }
+            AirObject obj = getSkipList().remove(name);
+            if (obj == null) {
+                return null;
+            }
+            recordDelete(obj);
+            invalidateNames(obj);
+            for (Shard s : shards) {
+                if (touches(s, obj)) {
+                    s.worker.execute(() -> write(s, obj, false));
+                }
+            }
+            return obj.toString();
+        }
+        finally {
+            metrics.stop(Metrics.Op.DELETE, began);
+        }
+    }
+
+    /**
+     * Cache rangeprint() results on the calling thread, as WorldDB does,
+     * and intersect() results per shard: each shard keeps up to capacity
+     * results for its own subtree. A shard's cache is only used by its
+     * worker, which runs the writes and queries for that shard in the
+     * order they were called, so a shard never sees a result that one of
+     * its earlier writes made stale. queryCache() gives the rangeprint()
+     * cache.
+     * @param capacity The number of results to keep in each cache, or 0
+     *                 for no cache.
+     */
+    @Override
+    public void setQueryCacheSize(int capacity) {
+        super.setQueryCacheSize(capacity);
+        for (Shard s : shards) {
+            s.worker.execute(() -> s.cache =
+                capacity == 0 ? null : new QueryCache<>(capacity));
+        }
+    }
+
+    /**
+     * Drop the cached rangeprint() results an add or delete changed.
+     */
+    private void invalidateNames(AirObject obj) {
+        QueryCache<String> names = queryCache();
+        if (names != null) {
+            names.invalidate(obj, BintreeChanges.none());
+        }
+    }
+
+    /**
+     * Insert or remove an object in a shard's subtree, and drop the
+     * shard's cached results the write could have changed. Runs on the
+     * shard's worker.
+     */
+    private static void write(Shard s, AirObject obj, boolean insert) {
+        BintreeChanges changes =
+            s.cache == null ? null : BintreeChanges.start();
+        try {
+            if (insert) {
+                s.root = s.root.insert(obj,
+                    s.x, s.y, s.z, s.xWid, s.yWid, s.zWid, s.depth);
+            }
+            else {
+                s.root = s.root.remove(obj,
+                    s.x, s.y, s.z, s.xWid, s.yWid, s.zWid, s.depth);
+            }
+        }
+        finally {
+            if (changes != null) {
+                changes.stop();
+            }
+        }
+        if (s.cache != null) {
+            s.cache.invalidate(obj, changes);
+        }
+    }
+
+    /**
+     * Run intersect() on a shard's subtree, through its cache. Runs on
+     * the shard's worker.
+     */
+    private static Piece intersect(Shard s, int[] box) {
+        Piece p = s.cache == null ? null : s.cache.intersect(box);
+        if (p != null) {
+            return p;
+        }
+        p = new Piece();
+        p.count = s.root.intersect(p.text, box[0], box[1], box[2], box[3],
+            box[4], box[5], s.x, s.y, s.z, s.xWid, s.yWid, s.zWid, s.depth);
+        if (s.cache != null) {
+            s.cache.putIntersect(box, p);
+        }
+        return p;
+    }
+
+    @Override
+    public String printbintree() {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            SlowQueryEvent event = new SlowQueryEvent();
+            event.begin();
+            Piece[] pieces = fanOut(s -> {
+                Piece p = new Piece();
+                p.count = s.root.print(p.text,
+                    s.x, s.y, s.z, s.xWid, s.yWid, s.zWid, s.depth);
+                return p;
+            }, null);
+            StringBuilder sb = new StringBuilder();
+            int nodeCount = printTop(sb, pieces, 0, 0, 0, 0,
+                worldSize, worldSize, worldSize, 0);
+            Metrics.bintreeNodesVisited(nodeCount);
+            sb.append(nodeCount);
+            sb.append(" Bintree nodes printed\n");
+            event.finish("printbintree", worldBox, nodeCount, sb);
+            return sb.toString();
+        }
+        finally {
+            metrics.stop(Metrics.Op.PRINTBINTREE, began);
+        }
+    }
+
+    @Override
+    public String collisions() {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            SlowQueryEvent event = new SlowQueryEvent();
+            event.begin();
+            CollisionEngine engine = getCollisionEngine();
+            Piece[] pieces = fanOut(s -> {
+                Piece p = new Piece();
+                s.root.collisions(p.text,
+                    s.x, s.y, s.z, s.xWid, s.yWid, s.zWid, s.depth, engine);
+                return p;
+            }, null);
+            StringBuilder sb = new StringBuilder();
+            sb.append("The following collisions exist in the database:\n");
+            for (Piece p : pieces) {
+                sb.append(p.text);
+            }
+            event.finish("collisions", worldBox, -1, sb);
+            return sb.toString();
+        }
+        finally {
+            metrics.stop(Metrics.Op.COLLISIONS, began);
+        }
+    }
+
+    @Override
+    public String intersect(int x, int y, int z, int xwid, int ywid, int zwid) {
+        Metrics metrics = getMetrics();
+        long began = metrics.start();
+        try {
+            if (!isValidBox(x, y, z, xwid, ywid, zwid)) {
+                return null;
+            }
+            SlowQueryEvent event = new SlowQueryEvent();
+            event.begin();
+            int[] box = {x, y, z, xwid, ywid, zwid};
+            Piece[] pieces = fanOut(s -> intersect(s, box), box);
+
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(
+                "The following objects intersect (%d %d %d %d %d %d):\n",
+                x, y, z, xwid, ywid, zwid));
+            int nodesVisited = intersectTop(sb, pieces, box, 0, 0, 0, 0,
+                worldSize, worldSize, worldSize, 0);
+            Metrics.bintreeNodesVisited(nodesVisited);
+            sb.append(nodesVisited);
+            sb.append(" nodes were visited in the bintree\n");
+            event.finish("intersect", box, nodesVisited, sb);
+            return sb.toString();
+        }
+        finally {
+            metrics.stop(Metrics.Op.INTERSECT, began);
+        }
+    }
+
+    /**
+     * Walk every shard on its own worker, one shard at a time, and
+     * report the shape of the whole tree. The levels above the shards
+     * count as internal nodes.
+     * @return The shape of the tree.
+     */
+    @Override
+    public BintreeShape bintreeShape() {
+        BintreeShape shape = new BintreeShape();
+        shape.addInternal(shards.length - 1);
+        for (Shard s : shards) {
+            await(s.worker.submit(() -> {
+                shape.walk(s.root, s.depth);
+                return null;
+            }));
+        }
+        return shape;
+    }
+
+    /**
+     * Stop the shard workers. Queued writes are still applied.
+     */
+    @Override
+    public void close() {
+        for (Shard s : shards) {
+            s.worker.shutdown();
+        }
+    }
+
+    /**
+     * A query run by a shard worker against its own subtree.
+     */
+    private interface ShardQuery {
+        Piece run(Shard s);
+    }
+
+    /**
+     * Run a query on every shard touching the box (or every shard if the
+     * box is null) in parallel, and wait for all of them.
+     * @return The pieces by shard number; null for shards not queried.
+     */
+    private Piece[] fanOut(ShardQuery query, int[] box) {
+        int n = shards.length;
+        @SuppressWarnings("unchecked")
+        Future<Piece>[] futures = (Future<Piece>[])new Future<?>[n];
+        for (int i = 0; i < n; i++) {
+            Shard s = shards[i];
+            if (box == null
+                || s.touches(box[0], box[1], box[2], box[3], box[4], box[5])) {
+                Callable<Piece> task = () -> query.run(s);
+                futures[i] = s.worker.submit(task);
+            }
+        }
+        Piece[] pieces = new Piece[n];
+        for (int i = 0; i < n; i++) {
+            if (futures[i] != null) {
+                pieces[i] = await(futures[i]);
+            }
+        }
+        return pieces;
+    }
+
+    private static Piece await(Future<Piece> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for shard",
+                e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private boolean touches(Shard s, AirObject a) {
+        return s.touches(a.getXorig(), a.getYorig(), a.getZorig(),
+            a.getXwidth(), a.getYwidth(), a.getZwidth());
+    }
+
+    /**
+     * Print the internal nodes above the shards in preorder, splicing in
+     * each shard's own output where its subtree belongs.
+     * @return The number of nodes printed.
+     */
+    private int printTop(StringBuilder sb, Piece[] pieces, int index,
+        int x, int y, int z, int xWid, int yWid, int zWid, int depth) {
+        if (depth == shardBits) {
+            sb.append(pieces[index].text);
+            return pieces[index].count;
+        }
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+        sb.append("I (").append(x).append(", ").append(y).append(", ")
+          .append(z).append(", ");
+        sb.append(xWid).append(", ").append(yWid).append(", ")
+          .append(zWid).append(") ");
+        sb.append(depth).append("\n");
+
+        int count = 1;
+        int axis = depth % 3;
+        int newDepth = depth + 1;
+        int left = index * 2;
+        if (axis == 0) {
+            int half = xWid / 2;
+            count += printTop(sb, pieces, left, x, y, z,
+                half, yWid, zWid, newDepth);
+            count += printTop(sb, pieces, left + 1, x + half, y, z,
+                half, yWid, zWid, newDepth);
+        }
+        else if (axis == 1) {
+            int half = yWid / 2;
+            count += printTop(sb, pieces, left, x, y, z,
+                xWid, half, zWid, newDepth);
+            count += printTop(sb, pieces, left + 1, x, y + half, z,
+                xWid, half, zWid, newDepth);
+        }
+        else {
+            int half = zWid / 2;
+            count += printTop(sb, pieces, left, x, y, z,
+                xWid, yWid, half, newDepth);
+            count += printTop(sb, pieces, left + 1, x, y, z + half,
+                xWid, yWid, half, newDepth);
+        }
+        return count;
+    }
+
+    /**
+     * Report the internal nodes above the shards that the query visits,
+     * splicing in each visited shard's own output.
+     * @return The number of nodes visited.
+     */
+    private int intersectTop(StringBuilder sb, Piece[] pieces, int[] box,
+        int index, int x, int y, int z, int xWid, int yWid, int zWid,
+        int depth) {
+        if (depth == shardBits) {
+            sb.append(pieces[index].text);
+            return pieces[index].count;
+        }
+        sb.append("In Internal node (").append(x).append(", ").append(y)
+          .append(", ").append(z);
+        sb.append(", ").append(xWid).append(", ").append(yWid).append(", ")
+          .append(zWid);
+        sb.append(") ").append(depth).append("\n");
+
+        int visited = 1;
+        int axis = depth % 3;
+        int newDepth = depth + 1;
+        int lxWid = xWid;
+        int lyWid = yWid;
+        int lzWid = zWid;
+        int rx = x;
+        int ry = y;
+        int rz = z;
+        if (axis == 0) {
+            lxWid = xWid / 2;
+            rx = x + lxWid;
+        }
+        else if (axis == 1) {
+            lyWid = yWid / 2;
+            ry = y + lyWid;
+        }
+        else {
+            lzWid = zWid / 2;
+            rz = z + lzWid;
+        }
+        int left = index * 2;
+        if (overlaps(box, x, y, z, lxWid, lyWid, lzWid)) {
+            visited += intersectTop(sb, pieces, box, left, x, y, z,
+                lxWid, lyWid, lzWid, newDepth);
+        }
+        if (overlaps(box, rx, ry, rz, lxWid, lyWid, lzWid)) {
+            visited += intersectTop(sb, pieces, box, left + 1, rx, ry, rz,
+                lxWid, lyWid, lzWid, newDepth);
+        }
+        return visited;
+    }
+
+    private static boolean overlaps(int[] box, int x, int y, int z,
+        int xWid, int yWid, int zWid) {
+        return box[0] < x + xWid && box[0] + box[3] > x
+            && box[1] < y + yWid && box[1] + box[4] > y
+            && box[2] < z + zWid && box[2] + box[5] > z;
+    }
+}
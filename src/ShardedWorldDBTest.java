@@ -0,0 +1,126 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the sharded WorldDB.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class ShardedWorldDBTest extends TestCase {
+
+    private ShardedWorldDB db;
+    private WorldDB plain;
+
+    /**
+     * Sets up an 8-shard and a plain database with the same seed.
+     */
+    public void setUp() {
+        db = new ShardedWorldDB(new Random(5), 3);
+        plain = new WorldDB(new Random(5));
+    }
+
+    /**
+     * Stops the shard workers.
+     */
+    public void tearDown() {
+        db.close();
+    }
+
+    /**
+     * Add the same random objects to both databases. Some are large
+     * enough to straddle shard boundaries.
+     */
+    private void fill(int n, long seed) {
+        Random rnd = new Random(seed);
+        for (int i = 0; i < n; i++) {
+            int w = i % 10 == 0 ? 200 : 10;
+            AirObject a = new Drone("D" + i, rnd.nextInt(1024 - w),
+                rnd.nextInt(1024 - w), rnd.nextInt(1024 - w), w, w, w,
+                "Droners", 3);
+            assertEquals(plain.add(a), db.add(a));
+        }
+    }
+
+    /**
+     * Tests that a populated sharded database matches WorldDB exactly.
+     */
+    public void testSameOutputAsWorldDB() {
+        assertEquals(8, db.shardCount());
+        fill(300, 17);
+        assertEquals(plain.printbintree(), db.printbintree());
+        assertEquals(plain.collisions(), db.collisions());
+        assertEquals(plain.intersect(0, 0, 0, 1024, 1024, 1024),
+            db.intersect(0, 0, 0, 1024, 1024, 1024));
+        assertEquals(plain.intersect(300, 10, 700, 200, 400, 100),
+            db.intersect(300, 10, 700, 200, 400, 100));
+        assertEquals(plain.printskiplist(), db.printskiplist());
+
+        for (int i = 0; i < 300; i += 4) {
+            assertEquals(plain.delete("D" + i), db.delete("D" + i));
+        }
+        assertEquals(plain.printbintree(), db.printbintree());
+        assertEquals(plain.collisions(), db.collisions());
+        assertNull(db.intersect(0, 0, 0, 0, 1, 1));
+    }
+
+    /**
+     * Tests that one shard behaves exactly like WorldDB, even when empty.
+     */
+    public void testSingleShard() {
+        ShardedWorldDB one = new ShardedWorldDB(new Random(5), 0);
+        try {
+            assertEquals(plain.printbintree(), one.printbintree());
+            AirObject a = new Bird("b", 1, 2, 3, 4, 5, 6, "crow", 9);
+            assertTrue(one.add(a));
+            assertFalse(one.add(a));
+            plain.add(a);
+            assertEquals(plain.printbintree(), one.printbintree());
+            assertEquals(plain.intersect(0, 0, 0, 8, 8, 8),
+                one.intersect(0, 0, 0, 8, 8, 8));
+            assertEquals(a.toString(), one.delete("b"));
+            assertNull(one.delete("b"));
+            assertNull(one.delete(null));
+        }
+        finally {
+            one.close();
+        }
+    }
+
+    /**
+     * Tests that clear empties every shard.
+     */
+    public void testClear() {
+        fill(50, 3);
+        db.clear();
+        plain.clear();
+        assertEquals(plain.collisions(), db.collisions());
+        assertTrue(db.printbintree().endsWith("15 Bintree nodes printed\n"));
+        assertNull(db.print("D1"));
+    }
+
+    /**
+     * Tests the shard count bounds.
+     */
+    public void testBadShardBits() {
+        Exception thrown = null;
+        try {
+            new ShardedWorldDB(null, ShardedWorldDB.MAX_SHARD_BITS + 1);
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+    }
+
+    /**
+     * Tests that the shape walked shard by shard matches WorldDB's.
+     */
+    public void testShapeMatchesWorldDB() {
+        fill(300, 17);
+        assertEquals(plain.bintreeShape().toString(),
+            db.bintreeShape().toString());
+        assertEquals(plain.skipListShape().toString(),
+            db.skipListShape().toString());
+    }
+}
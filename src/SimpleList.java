@@ -16,6 +16,12 @@ public class SimpleList {
      * The number of objects currently in the list.
      */
     private int size;
+
+    /**
+     * Counts changes to the list, so callers caching facts about its
+     * contents can tell when those facts are stale.
+     */
+    private int modCount;
     
     /**
      * The default initial capacity of the list.
@@ -40,6 +46,25 @@ public class SimpleList {
     }
 
 
+    /**
+     * Gets the length of the backing array.
+     * @return The capacity.
+     */
+    int capacity() {
+        return data.length;
+    }
+
+
+    /**
+     * Gets the number of changes made to the list so far. Any add, remove
+     * or clear changes this value.
+     * @return The modification count.
+     */
+    public int modCount() {
+        return modCount;
+    }
+
+
     /**
      * Gets the element at a specific index.
      * @param index The index.
@@ -65,14 +90,31 @@ public class SimpleList {
         }
         data[size] = obj;
         size++;
+        modCount++;
     }
     
     /**
-     * Clears all objects from list
+     * Creates a copy of this list sharing the same objects.
+     * @return A new list with the same contents, in the same order.
+     */
+    public SimpleList copy() {
+        SimpleList result = new SimpleList();
+        result.data = new AirObject[Math.max(DEFAULT_CAPACITY, data.length)];
+        System.arraycopy(data, 0, result.data, 0, size);
+        result.size = size;
+        return result;
+    }
+
+    /**
+     * Clears all objects from list.
+     * The backing array is kept for reuse.
      */
     public void clear() {
-        this.data = new AirObject[DEFAULT_CAPACITY];
+        for (int i = 0; i < size; i++) {
+            data[i] = null; // Help garbage collector
+        }
         this.size = 0;
+        modCount++;
     }
 
 
@@ -95,6 +137,8 @@ public class SimpleList {
                 }
                 size--;
                 data[size] = null; // Help garbage collector
+                modCount++;
+                shrink();
                 return removed;
             }
         }
@@ -102,11 +146,32 @@ public class SimpleList {
     }
 
 
+    /**
+     * Halves the internal array once it is a quarter full (but grows it
+     * only when full), so a list at the boundary does not resize on every
+     * add and remove.
+     */
+    private void shrink() {
+        if (data.length > DEFAULT_CAPACITY && size <= data.length / 4) {
+            resize(Math.max(DEFAULT_CAPACITY, data.length / 2));
+        }
+    }
+
+
     /**
      * Doubles the capacity of the internal array.
      */
     private void resize() {
-        int newCapacity = data.length * 2;
+        resize(data.length * 2);
+    }
+
+
+    /**
+     * Changes the capacity of the internal array.
+     *
+     * @param newCapacity The new capacity, at least size.
+     */
+    private void resize(int newCapacity) {
         AirObject[] newData = new AirObject[newCapacity];
         System.arraycopy(data, 0, newData, 0, size);
         data = newData;
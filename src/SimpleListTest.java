@@ -214,4 +214,47 @@ public class SimpleListTest extends TestCase {
         assertNull(removed);
         assertEquals(0, list.size());
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Tests that the backing array shrinks with hysteresis and that
+     * clear keeps it.
+     */
+    public void testShrinkAndClear() {
+        AirObject[] many = new AirObject[16];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = new AirPlane("m" + i, 0, 0, 0, 1, 1, 1, "D", 1, 1);
+            list.add(many[i]);
+        }
+        assertEquals(16, list.capacity());
+
+        // Half empty: no shrink yet
+        for (int i = 15; i >= 8; i--) {
+            list.remove(many[i]);
+        }
+        assertEquals(16, list.capacity());
+
+        // A quarter full: shrink to half
+        for (int i = 7; i >= 4; i--) {
+            list.remove(many[i]);
+        }
+        assertEquals(8, list.capacity());
+        assertEquals(4, list.size());
+        assertSame(many[3], list.get(3));
+
+        // Never below the default capacity
+        list.remove(many[3]);
+        list.remove(many[2]);
+        list.remove(many[1]);
+        assertEquals(4, list.capacity());
+
+        for (int i = 0; i < 9; i++) {
+            list.add(many[i]);
+        }
+        int before = list.modCount();
+        list.clear();
+        assertEquals(16, list.capacity());
+        assertEquals(0, list.size());
+        assertTrue(list.modCount() > before);
+    }
+}
@@ -1,10 +1,28 @@
 import java.util.Random;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
 
 /**
  * Implements a Skip List data structure.
  * This class is generic, storing key-value pairs where the
  * key must be Comparable.
  *
+ * Searches start from a finger: the path of the last insert or remove,
+ * the last node before its key on every level. A search climbs from the
+ * bottom of the finger only as high as it needs to get past the new key,
+ * so a key at distance d from the last one costs O(log d) instead of
+ * O(log n), and inserting or deleting keys in sorted order is close to
+ * linear. Only writes move the finger, so concurrent readers (as in
+ * ConcurrentWorldDB) never write to the list.
+ *
+ * The bottom level is also linked backward, so a descending scan or
+ * range costs O(log n + k) like an ascending one.
+ *
+ * A list may be given a compactor, which each inserted key passes
+ * through along with the key before it; the list keeps what it returns.
+ * CompactName.sharePrefix() is one, storing the prefix a name shares
+ * with its neighbour only once.
+ *
  * @author adsleptsov
  * @version Fall 2025
  *
@@ -17,6 +35,8 @@ public class SkipList<K extends Comparable<K>, V> {
     private int level;
     private int size;
     private Random rnd;
+    private SkipNode<K, V>[] finger; // finger[i] == head for i >= level
+    private final BinaryOperator<K> compactor;
     private static final int MAX_LEVEL = 10;
 
     /**
@@ -26,6 +46,7 @@ public class SkipList<K extends Comparable<K>, V> {
         private K key;
         private V value;
         private SkipNode<K, V>[] forward;
+        private SkipNode<K, V> back; // previous node on level 0
 
         @SuppressWarnings("unchecked")
         SkipNode(K key, V value, int depth) {
@@ -39,12 +60,97 @@ public class SkipList<K extends Comparable<K>, V> {
     }
 
     public SkipList(Random r) {
+        this(r, null);
+    }
+
+    /**
+     * Constructor with a key compactor.
+     * @param r         The Random used for levels.
+     * @param compactor Given a new key and the key before it (null at
+     *                  the front), returns an equal key to store; or
+     *                  null to store keys as given.
+     */
+    public SkipList(Random r, BinaryOperator<K> compactor) {
         this.rnd = r;
+        this.compactor = compactor;
         this.level = 1;
         this.size = 0;
         this.head = new SkipNode<>(null, null, MAX_LEVEL);
+        resetFinger();
     }
     
+    /**
+     * Remove every entry from the list.
+     */
+    public void clear() {
+        this.level = 1;
+        this.size = 0;
+        this.head = new SkipNode<>(null, null, MAX_LEVEL);
+        resetFinger();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resetFinger() {
+        finger = (SkipNode<K, V>[])new SkipNode[MAX_LEVEL];
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            finger[i] = head;
+        }
+    }
+
+    /**
+     * Checks if a node comes before a key: it is the head, or its key is
+     * smaller.
+     */
+    private boolean precedes(SkipNode<K, V> x, K key) {
+        return x == head || (x != null && x.key().compareTo(key) < 0);
+    }
+
+    /**
+     * Find the last node before a key on every level, starting from the
+     * finger. Level i of the finger can be kept if its node comes before
+     * the key and the next node on that level does not; if that holds
+     * for a level it holds for every level above, so the search starts
+     * at the lowest such level and only descends from there.
+     *
+     * @param key  The key.
+     * @param path Gets the last node before the key on each level below
+     *             level; may be the finger itself, or null.
+     * @return The last node before the key on the bottom level.
+     */
+    private SkipNode<K, V> search(K key, SkipNode<K, V>[] path) {
+        int top = 0;
+        while (top < level && !(precedes(finger[top], key)
+            && !precedes(finger[top].forward[top], key))) {
+            top++;
+        }
+        SkipNode<K, V> x;
+        int steps = top + 1;
+        if (top == level) {
+            x = head;
+            top = level - 1;
+        }
+        else {
+            x = finger[top];
+            if (path != null) {
+                for (int i = level - 1; i > top; i--) {
+                    path[i] = finger[i];
+                }
+            }
+        }
+        for (int i = top; i >= 0; i--) {
+            while ((x.forward[i] != null) &&
+                   (x.forward[i].key().compareTo(key) < 0)) {
+                x = x.forward[i];
+                steps++;
+            }
+            if (path != null) {
+                path[i] = x;
+            }
+        }
+        Metrics.skipListSteps(steps);
+        return x;
+    }
+
     public int level() { return level; }
     public int size() { return size; }
 
@@ -64,54 +170,109 @@ public class SkipList<K extends Comparable<K>, V> {
         return lev;
     }
 
-    @SuppressWarnings("unchecked")
     public void insert(K key, V value) {
         int newLevel = randomLevel();
         
-        SkipNode<K, V>[] update = (SkipNode<K, V>[])new SkipNode[MAX_LEVEL];
-        SkipNode<K, V> x = head;
-
-        // Fill update array for existing levels
-        for (int i = level - 1; i >= 0; i--) {
-            while ((x.forward[i] != null) &&
-                   (x.forward[i].key().compareTo(key) < 0)) {
-                x = x.forward[i];
-            }
-            update[i] = x;
-        }
+        // Fill the finger for existing levels; it is head above them
+        SkipNode<K, V>[] update = finger;
+        search(key, update);
 
         // Adjust head if new node is taller than current max level
         if (newLevel > level) {
-            for (int i = level; i < newLevel; i++) {
-                update[i] = head;
-            }
             level = newLevel;
         }
 
-        SkipNode<K, V> newNode = new SkipNode<>(key, value, newLevel);
+        SkipNode<K, V> newNode =
+            new SkipNode<>(compact(key, update[0]), value, newLevel);
 
         for (int i = 0; i < newLevel; i++) {
             newNode.forward[i] = update[i].forward[i];
             update[i].forward[i] = newNode;
         }
+        newNode.back = update[0];
+        if (newNode.forward[0] != null) {
+            newNode.forward[0].back = newNode;
+        }
 
         size++;
     }
 
+    /**
+     * Appends entries whose keys are already in increasing order, in
+     * linear time. Each new node is linked after the current tail of
+     * every level it spans, so no search is needed. Levels are drawn
+     * from the Random in key order, exactly as insert() would draw them,
+     * so for a given seed the result is the same list that inserting the
+     * keys one at a time in this order would build.
+     *
+     * @param keys   The keys, strictly increasing and all greater than
+     *               every key already in the list.
+     * @param values The values, one per key.
+     * @throws IllegalArgumentException if the arrays differ in length or
+     *         the keys are not in order. The list is unchanged.
+     */
     @SuppressWarnings("unchecked")
-    public V remove(K key) {
-        SkipNode<K, V>[] update = (SkipNode<K, V>[])new SkipNode[MAX_LEVEL];
-        SkipNode<K, V> x = head;
+    public void bulkLoad(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException(
+                "Got " + keys.length + " keys and " + values.length
+                    + " values");
+        }
 
+        // Find the last node on each level
+        SkipNode<K, V>[] tails = (SkipNode<K, V>[])new SkipNode[MAX_LEVEL];
+        SkipNode<K, V> x = head;
         for (int i = level - 1; i >= 0; i--) {
-            while ((x.forward[i] != null) &&
-                   (x.forward[i].key().compareTo(key) < 0)) {
+            while (x.forward[i] != null) {
                 x = x.forward[i];
             }
-            update[i] = x;
+            tails[i] = x;
+        }
+        for (int i = level; i < MAX_LEVEL; i++) {
+            tails[i] = head;
+        }
+
+        K last = tails[0].key();
+        for (int j = 0; j < keys.length; j++) {
+            if (last != null && last.compareTo(keys[j]) >= 0) {
+                throw new IllegalArgumentException(
+                    "Keys out of order at index " + j + ": " + keys[j]);
+            }
+            last = keys[j];
+        }
+
+        for (int j = 0; j < keys.length; j++) {
+            int newLevel = randomLevel();
+            SkipNode<K, V> newNode =
+                new SkipNode<>(compact(keys[j], tails[0]), values[j],
+                    newLevel);
+            newNode.back = tails[0];
+            for (int i = 0; i < newLevel; i++) {
+                tails[i].forward[i] = newNode;
+                tails[i] = newNode;
+            }
+            if (newLevel > level) {
+                level = newLevel;
+            }
+            size++;
         }
+    }
+
+    /**
+     * Gets the key to store for a new node.
+     * @param key  The key inserted.
+     * @param prev The node it goes after.
+     * @return The key, compacted if there is a compactor.
+     */
+    private K compact(K key, SkipNode<K, V> prev) {
+        return compactor == null ? key : compactor.apply(key, prev.key());
+    }
 
-        x = x.forward[0];
+    public V remove(K key) {
+        // The nodes before the key stay in the list, so the finger is
+        // still valid after the remove
+        SkipNode<K, V>[] update = finger;
+        SkipNode<K, V> x = search(key, update).forward[0];
 
         if ((x == null) || (x.key().compareTo(key) != 0)) {
             return null;
@@ -122,6 +283,9 @@ public class SkipList<K extends Comparable<K>, V> {
                 update[i].forward[i] = x.forward[i];
             }
         }
+        if (x.forward[0] != null) {
+            x.forward[0].back = update[0];
+        }
 
         size--;
 
@@ -134,20 +298,40 @@ public class SkipList<K extends Comparable<K>, V> {
     }
 
     public V find(K key) {
-        SkipNode<K, V> x = head;
-        for (int i = level - 1; i >= 0; i--) {
-            while ((x.forward[i] != null) &&
-                   (x.forward[i].key().compareTo(key) < 0)) {
-                x = x.forward[i];
-            }
-        }
-        x = x.forward[0];
+        SkipNode<K, V> x = search(key, null).forward[0];
         if ((x != null) && (x.key().compareTo(key) == 0)) {
             return x.value();
         }
         return null;
     }
 
+    /**
+     * Walk the list and report its height distribution and an estimate
+     * of the memory its nodes take.
+     * @return The shape of the list.
+     */
+    public SkipListShape shape() {
+        int[] byHeight = new int[MAX_LEVEL + 1];
+        long bytes = nodeBytes(MAX_LEVEL);
+        for (SkipNode<K, V> x = head.forward[0]; x != null;
+            x = x.forward[0]) {
+            byHeight[x.forward.length]++;
+            bytes += nodeBytes(x.forward.length);
+        }
+        return new SkipListShape(size, level, byHeight, bytes);
+    }
+
+    /**
+     * Estimate the bytes taken by a node and its forward array.
+     * @param height The node's height.
+     * @return The estimate.
+     */
+    private static long nodeBytes(int height) {
+        return BintreeShape.align(BintreeShape.HEADER + 4 * BintreeShape.REF)
+            + BintreeShape.align(BintreeShape.ARRAY_HEADER
+                + (long)BintreeShape.REF * height);
+    }
+
     public String print() {
         if (size == 0) {
             return "SkipList is empty";
@@ -167,19 +351,87 @@ public class SkipList<K extends Comparable<K>, V> {
         return sb.toString();
     }
 
-    public String range(K start, K end) {
+    /**
+     * Visit the entries in key order, from the first key not less than
+     * start, until the visitor returns false or the list ends. Nothing
+     * is copied, so a caller can stream results of any size.
+     * @param start   The key to start from.
+     * @param visitor Gets each key and value; returns false to stop.
+     * @return The number of entries given to the visitor.
+     */
+    public int scan(K start, BiPredicate<K, V> visitor) {
+        SkipNode<K, V> curr = search(start, null).forward[0];
+        int visited = 0;
+        while (curr != null) {
+            visited++;
+            if (!visitor.test(curr.key(), curr.value())) {
+                break;
+            }
+            curr = curr.forward[0];
+        }
+        return visited;
+    }
+
+    /**
+     * Visit the entries in descending key order, from the last key not
+     * greater than start, until the visitor returns false or the list
+     * ends.
+     * @param start   The key to start from.
+     * @param visitor Gets each key and value; returns false to stop.
+     * @return The number of entries given to the visitor.
+     */
+    public int scanDescending(K start, BiPredicate<K, V> visitor) {
+        SkipNode<K, V> curr = lastAtMost(start);
+        int visited = 0;
+        while (curr != head) {
+            visited++;
+            if (!visitor.test(curr.key(), curr.value())) {
+                break;
+            }
+            curr = curr.back;
+        }
+        return visited;
+    }
+
+    /**
+     * Like range(), but lists the values in descending key order.
+     * @param start The smallest key listed.
+     * @param end   The largest key listed.
+     * @return The same header as range(), then one value per line.
+     */
+    public String rangeDescending(K start, K end) {
         StringBuilder sb = new StringBuilder();
         sb.append("Found these records in the range ");
         sb.append(start.toString()).append(" to ").append(
             end.toString()).append("\n");
-        SkipNode<K, V> x = head;
-        for (int i = level - 1; i >= 0; i--) {
-            while ((x.forward[i] != null) &&
-                   (x.forward[i].key().compareTo(start) < 0)) {
-                x = x.forward[i];
-            }
+        SkipNode<K, V> curr = lastAtMost(end);
+        while (curr != head && curr.key().compareTo(start) >= 0) {
+            sb.append(curr.value().toString()).append("\n");
+            curr = curr.back;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Find the last node whose key is not greater than a key.
+     * @param key The key.
+     * @return The node, or head if every key is greater.
+     */
+    private SkipNode<K, V> lastAtMost(K key) {
+        SkipNode<K, V> x = search(key, null);
+        SkipNode<K, V> next = x.forward[0];
+        if (next != null && next.key().compareTo(key) == 0) {
+            return next;
         }
-        SkipNode<K, V> curr = x.forward[0];
+        return x;
+    }
+
+    public String range(K start, K end) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Found these records in the range ");
+        sb.append(start.toString()).append(" to ").append(
+            end.toString()).append("\n");
+        SkipNode<K, V> curr = search(start, null).forward[0];
         while (curr != null && curr.key().compareTo(end) <= 0) {
             sb.append(curr.value().toString()).append("\n");
             curr = curr.forward[0];
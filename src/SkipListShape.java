@@ -0,0 +1,91 @@
+/**
+ * The shape of a SkipList: how many nodes have each height, and roughly
+ * how much memory the nodes take. See SkipList.shape(). Byte estimates
+ * use the same JVM assumptions as BintreeShape and leave out the keys
+ * and values, which belong to the stored objects.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class SkipListShape {
+
+    private final int size;
+    private final int level;
+    private final int[] nodesByHeight;
+    private final long bytes;
+
+    /**
+     * Constructor.
+     * @param size          The number of entries.
+     * @param level         The list's current level.
+     * @param nodesByHeight Nodes (not counting the head) by height.
+     * @param bytes         Estimated bytes, including the head.
+     */
+    SkipListShape(int size, int level, int[] nodesByHeight, long bytes) {
+        this.size = size;
+        this.level = level;
+        this.nodesByHeight = nodesByHeight;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Gets the number of entries.
+     * @return The size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the list's level (the height of its tallest node, at least 1).
+     * @return The level.
+     */
+    public int level() {
+        return level;
+    }
+
+    /**
+     * Gets the number of nodes with a height.
+     * @param height The height.
+     * @return The count.
+     */
+    public int nodesOfHeight(int height) {
+        return height < nodesByHeight.length ? nodesByHeight[height] : 0;
+    }
+
+    /**
+     * Gets the total number of forward pointers in the data nodes.
+     * @return The count.
+     */
+    public long pointers() {
+        long n = 0;
+        for (int h = 0; h < nodesByHeight.length; h++) {
+            n += (long)h * nodesByHeight[h];
+        }
+        return n;
+    }
+
+    /**
+     * Gets the estimated bytes retained by the nodes.
+     * @return The estimate.
+     */
+    public long estimatedBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns a multi-line report of the shape.
+     * @return The report.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("SkipList: ").append(size).append(" nodes, level ")
+          .append(level).append("\n");
+        sb.append("nodes by height:");
+        BintreeShape.appendHistogram(sb, nodesByHeight);
+        sb.append("pointers ").append(pointers()).append("\n");
+        sb.append("estimated bytes ").append(bytes).append("\n");
+        return sb.toString();
+    }
+}
@@ -296,4 +296,234 @@ public class SkipListTest extends TestCase {
             "Found these records in the range F to G\n";
         assertEquals(expectedRange3, list.range("F", "G"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that bulk loading sorted keys gives the same list as
+     * inserting them one at a time with the same seed.
+     */
+    public void testBulkLoadMatchesInsert() {
+        String[] keys = new String[200];
+        String[] values = new String[200];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = String.format("K%04d", i);
+            values[i] = "Value " + keys[i];
+        }
+        SkipList<String, String> inserted =
+            new SkipList<String, String>(new Random(0));
+        for (int i = 0; i < keys.length; i++) {
+            inserted.insert(keys[i], values[i]);
+        }
+        list.bulkLoad(keys, values);
+
+        assertEquals(inserted.print(), list.print());
+        assertEquals(200, list.size());
+        assertEquals(inserted.level(), list.level());
+        assertEquals("Value K0123", list.find("K0123"));
+        assertEquals("Value K0050", list.remove("K0050"));
+        assertNull(list.find("K0050"));
+    }
+
+
+    /**
+     * Tests bulk loading after existing entries, and in two batches.
+     */
+    public void testBulkLoadAppend() {
+        list.insert("A", "Value A");
+        list.bulkLoad(new String[] {"B", "C"},
+            new String[] {"Value B", "Value C"});
+        list.bulkLoad(new String[] {"D"}, new String[] {"Value D"});
+        list.bulkLoad(new String[0], new String[0]);
+        assertEquals(4, list.size());
+        assertFuzzyEquals("Found these records in the range A to D\n"
+            + "Value A\nValue B\nValue C\nValue D\n", list.range("A", "D"));
+    }
+
+
+    /**
+     * Tests that bad bulk loads are rejected without changing the list.
+     */
+    public void testBulkLoadRejectsBadInput() {
+        list.insert("M", "Value M");
+        String[][] badKeys = {{"N", "N"}, {"P", "O"}, {"A"}, {"M"}};
+        for (String[] keys : badKeys) {
+            Exception thrown = null;
+            try {
+                list.bulkLoad(keys, new String[keys.length]);
+            }
+            catch (IllegalArgumentException e) {
+                thrown = e;
+            }
+            assertNotNull(thrown);
+        }
+        Exception thrown = null;
+        try {
+            list.bulkLoad(new String[] {"N"}, new String[0]);
+        }
+        catch (IllegalArgumentException e) {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertEquals(1, list.size());
+    }
+
+    /**
+     * Tests the height distribution and memory estimate.
+     */
+    public void testShape() {
+        SkipListShape empty = list.shape();
+        assertEquals(0, empty.size());
+        assertEquals(0, empty.pointers());
+        // Just the head: a node with a back link and a 10-slot forward
+        // array
+        assertEquals(32 + 56, empty.estimatedBytes());
+
+        for (int i = 0; i < 200; i++) {
+            list.insert("K" + (1000 + i), "V");
+        }
+        SkipListShape shape = list.shape();
+        assertEquals(200, shape.size());
+        assertEquals(list.level(), shape.level());
+        int nodes = 0;
+        long pointers = 0;
+        for (int h = 1; h <= 10; h++) {
+            nodes += shape.nodesOfHeight(h);
+            pointers += h * shape.nodesOfHeight(h);
+        }
+        assertEquals(200, nodes);
+        assertEquals(pointers, shape.pointers());
+        assertEquals(0, shape.nodesOfHeight(list.level() + 1));
+        assertTrue(shape.nodesOfHeight(list.level()) > 0);
+        // Coin flips: about half the nodes have height 1
+        assertTrue(shape.nodesOfHeight(1) > 70);
+        assertTrue(shape.nodesOfHeight(1) < 130);
+        assertTrue(shape.estimatedBytes() > 200 * 40);
+        assertTrue(shape.toString().contains("200 nodes"));
+    }
+
+    /**
+     * Tests that searches starting from the finger give the same results
+     * as the off-heap list, which always starts at the head, for random,
+     * sorted and reverse-sorted keys.
+     */
+    public void testFingerSearchMatches() {
+        SkipList<String, String> fingered = new SkipList<>(new Random(4));
+        OffHeapSkipList<String> plain = new OffHeapSkipList<>(new Random(4));
+        Random ops = new Random(9);
+        for (int i = 0; i < 4000; i++) {
+            int k;
+            if (i < 1000) {
+                k = ops.nextInt(2000);
+            }
+            else if (i < 2000) {
+                k = i;
+            }
+            else {
+                k = 4000 - i;
+            }
+            String key = "K" + (10000 + k);
+            if (ops.nextInt(3) == 0 || plain.find(key) != null) {
+                assertEquals(plain.remove(key), fingered.remove(key));
+            }
+            else {
+                plain.insert(key, "V" + k);
+                fingered.insert(key, "V" + k);
+            }
+            String probe = "K" + (10000 + ops.nextInt(4000));
+            assertEquals(plain.find(probe), fingered.find(probe));
+        }
+        assertEquals(plain.size(), fingered.size());
+        assertEquals(plain.level(), fingered.level());
+        assertEquals(plain.print(), fingered.print());
+        assertEquals(plain.range("K10500", "K11500"),
+            fingered.range("K10500", "K11500"));
+    }
+
+    /**
+     * Tests that inserting and then deleting keys in sorted order takes
+     * a few steps per key instead of about 2 log n.
+     */
+    public void testFingerSearchSortedCost() {
+        Metrics metrics = new Metrics();
+        metrics.setEnabled(true);
+        Metrics.bind(metrics);
+        try {
+            for (int i = 0; i < 20000; i++) {
+                list.insert("K" + (100000 + i), "V");
+            }
+            for (int i = 0; i < 20000; i++) {
+                assertEquals("V", list.remove("K" + (100000 + i)));
+            }
+        }
+        finally {
+            Metrics.bind(null);
+            metrics.setEnabled(false);
+        }
+        assertEquals(0, list.size());
+        assertTrue(metrics.getSkipListSteps() < 40000L * 5);
+    }
+
+    /**
+     * Tests scan() starts at the first key not less than the start and
+     * stops when the visitor says so
+     */
+    public void testScan() {
+        SkipList<String, String> list = new SkipList<>(new Random(3));
+        for (String k : new String[] {"d", "b", "f", "a", "e"}) {
+            list.insert(k, k.toUpperCase());
+        }
+        StringBuilder sb = new StringBuilder();
+        assertEquals(2, list.scan("c", (k, v) -> {
+            sb.append(v);
+            return !k.equals("e");
+        }));
+        assertEquals("DE", sb.toString());
+        assertEquals(0, list.scan("g", (k, v) -> true));
+        assertEquals(5, list.scan("", (k, v) -> true));
+    }
+
+    /**
+     * Tests the backward links stay right through inserts, removes and
+     * bulk loads, so descending scans and ranges mirror ascending ones
+     */
+    public void testDescending() {
+        SkipList<Integer, String> list = new SkipList<>(new Random(4));
+        list.bulkLoad(new Integer[] {2, 4, 6}, new String[] {"2", "4",
+            "6"});
+        Random ops = new Random(8);
+        for (int i = 0; i < 1500; i++) {
+            int key = ops.nextInt(300);
+            if (ops.nextInt(3) == 0) {
+                list.remove(key);
+            }
+            else if (list.find(key) == null) {
+                list.insert(key, String.valueOf(key));
+            }
+        }
+        list.bulkLoad(new Integer[] {400, 401}, new String[] {"400",
+            "401"});
+
+        StringBuilder up = new StringBuilder();
+        list.scan(50, (k, v) -> up.insert(0, v + "\n") != null);
+        String header = "Found these records in the range 50 to 1000\n";
+        assertEquals(header + up, list.rangeDescending(50, 1000));
+        String asc = list.range(50, 1000).substring(header.length());
+        String[] lines = asc.split("\n");
+        StringBuilder reversed = new StringBuilder();
+        for (int i = lines.length - 1; i >= 0; i--) {
+            reversed.append(lines[i]).append('\n');
+        }
+        assertEquals(header + reversed, list.rangeDescending(50, 1000));
+
+        // The last three keys not greater than 401 are 401, 400 and the
+        // largest key below 300
+        StringBuilder last = new StringBuilder();
+        assertEquals(3, list.scanDescending(401, (k, v) -> {
+            last.append(v).append(' ');
+            return last.length() < 9;
+        }));
+        assertTrue(last.toString().startsWith("401 400 2"));
+        assertEquals(0, list.scanDescending(-1, (k, v) -> true));
+        assertEquals("Found these records in the range 401 to 401\n401\n",
+            list.rangeDescending(401, 401));
+    }
+}
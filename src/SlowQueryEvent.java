@@ -0,0 +1,55 @@
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Recorded when a Bintree query (print, intersect or collisions) takes
+ * at least the threshold. The region is the query box (the whole world
+ * for print and collisions) and the depth is always 0.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+@Name("WorldDB.SlowQuery")
+@Label("Slow Bintree Query")
+@Description("A Bintree query that took longer than the threshold")
+@Threshold("20 ms")
+class SlowQueryEvent extends BintreeRegionEvent {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Nodes Visited")
+    @Description("Nodes visited, or -1 if not counted")
+    int nodesVisited;
+
+    @Label("Output Lines")
+    @Description("Lines of output, including the header")
+    int lines;
+
+    /**
+     * End the event and commit it if the query was slow enough. The
+     * fields are only filled in when it is committed.
+     * @param op     The operation.
+     * @param box    The query box: x, y, z, x-width, y-width, z-width.
+     * @param nodes  Nodes visited, or -1 if not counted.
+     * @param output The query output.
+     */
+    void finish(String op, int[] box, int nodes, CharSequence output) {
+        end();
+        if (shouldCommit()) {
+            setRegion(box[0], box[1], box[2], box[3], box[4], box[5], 0);
+            operation = op;
+            nodesVisited = nodes;
+            int n = 0;
+            for (int i = 0; i < output.length(); i++) {
+                if (output.charAt(i) == '\n') {
+                    n++;
+                }
+            }
+            lines = n;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,425 @@
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe Bintree whose writes are striped by top-level octant.
+ *
+ * The first three levels of the tree split the world on x, y and z,
+ * so once they are all internal nodes every depth 3 subtree covers one
+ * octant of the world. Writers then take a shared structure lock plus the
+ * stripe lock of each octant their object touches, and objects in
+ * disjoint octants are inserted or removed in parallel. A write that
+ * could change those first three levels (a small tree, or a remove that
+ * might merge an octant subtree back into a leaf) takes the structure
+ * lock exclusively instead.
+ *
+ * Queries first try an optimistic stamped read of the structure lock and
+ * the stripes they touch, and only fall back to read locks if a writer
+ * got in the way.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class StripedBintree extends Bintree {
+
+    private static final int STRIPES = 8;
+    private static final int ALL_STRIPES = (1 << STRIPES) - 1;
+    private static final int OCTANT_DEPTH = 3;
+
+    private final StampedLock structureLock;
+    private final StampedLock[] stripes;
+    private final Object countLock = new Object();
+
+    /**
+     * The locks held by one write, from lockFor() until unlock().
+     */
+    static final class WriteLocks {
+        private long structureStamp;
+        private boolean exclusive;
+        private int mask;
+        private final long[] stamps = new long[STRIPES];
+    }
+
+    /**
+     * Constructor.
+     * @param worldSize The size of the world in each dimension.
+     */
+    public StripedBintree(int worldSize) {
+        super(worldSize);
+        structureLock = new StampedLock();
+        stripes = new StampedLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new StampedLock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = structureLock.writeLock();
+        try {
+            super.clear();
+        }
+        finally {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void bulkLoad(AirObject[] objs) {
+        long stamp = structureLock.writeLock();
+        try {
+            super.bulkLoad(objs);
+        }
+        finally {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void insert(AirObject obj) {
+        WriteLocks locks = lockFor(obj, false);
+        try {
+            insertLocked(obj, locks);
+        }
+        finally {
+            unlock(locks);
+        }
+    }
+
+    @Override
+    public void remove(AirObject obj) {
+        WriteLocks locks = lockFor(obj, true);
+        try {
+            removeLocked(obj, locks);
+        }
+        finally {
+            unlock(locks);
+        }
+    }
+
+    @Override
+    public String print() {
+        return read(super::print, ALL_STRIPES);
+    }
+
+    @Override
+    public BintreeShape shape() {
+        return read(super::shape, ALL_STRIPES);
+    }
+
+    @Override
+    public String collisions(CollisionEngine engine) {
+        return read(() -> super.collisions(engine), ALL_STRIPES);
+    }
+
+    @Override
+    public String intersect(int x, int y, int z, int xwid, int ywid, int zwid) {
+        return read(() -> super.intersect(x, y, z, xwid, ywid, zwid),
+            octants(x, y, z, xwid, ywid, zwid));
+    }
+
+    /**
+     * Acquire the locks needed to insert or remove an object.
+     * Callers that must order this write after some other critical
+     * section (such as the name index) can take the locks while still
+     * inside it, then do the write with insertLocked() or removeLocked().
+     *
+     * @param obj      The object that will be written.
+     * @param removing True for a remove, false for an insert.
+     * @return The locks, to be passed to unlock() when done.
+     */
+    WriteLocks lockFor(AirObject obj, boolean removing) {
+        WriteLocks locks = new WriteLocks();
+        locks.mask = octants(obj.getXorig(), obj.getYorig(), obj.getZorig(),
+            obj.getXwidth(), obj.getYwidth(), obj.getZwidth());
+        locks.structureStamp = structureLock.readLock();
+        if (topIsInternal()) {
+            lockStripes(locks);
+            if (!removing || keepsOctantRoots(locks.mask)) {
+                return locks;
+            }
+            unlockStripes(locks);
+        }
+        structureLock.unlockRead(locks.structureStamp);
+        locks.structureStamp = structureLock.writeLock();
+        locks.exclusive = true;
+        return locks;
+    }
+
+    /**
+     * Release the locks taken by lockFor().
+     * @param locks The locks to release.
+     */
+    void unlock(WriteLocks locks) {
+        if (locks.exclusive) {
+            structureLock.unlockWrite(locks.structureStamp);
+        }
+        else {
+            unlockStripes(locks);
+            structureLock.unlockRead(locks.structureStamp);
+        }
+    }
+
+    /**
+     * Insert an object while holding the locks from lockFor().
+     * @param obj   The object to insert.
+     * @param locks The locks from lockFor(obj, false).
+     */
+    void insertLocked(AirObject obj, WriteLocks locks) {
+        if (locks.exclusive) {
+            super.insert(obj);
+            return;
+        }
+        int half = getWorldSize() / 2;
+        for (int o = 0; o < STRIPES; o++) {
+            if ((locks.mask & (1 << o)) != 0) {
+                setOctantRoot(o, getOctantRoot(o).insert(obj,
+                    octantX(o), octantY(o), octantZ(o),
+                    half, half, half, OCTANT_DEPTH));
+            }
+        }
+        adjustTopCounts(locks.mask, 1);
+    }
+
+    /**
+     * Remove an object while holding the locks from lockFor().
+     * @param obj   The object to remove.
+     * @param locks The locks from lockFor(obj, true).
+     */
+    void removeLocked(AirObject obj, WriteLocks locks) {
+        if (locks.exclusive) {
+            super.remove(obj);
+            return;
+        }
+        int half = getWorldSize() / 2;
+        for (int o = 0; o < STRIPES; o++) {
+            if ((locks.mask & (1 << o)) != 0) {
+                setOctantRoot(o, getOctantRoot(o).remove(obj,
+                    octantX(o), octantY(o), octantZ(o),
+                    half, half, half, OCTANT_DEPTH));
+            }
+        }
+        adjustTopCounts(locks.mask, -1);
+    }
+
+    /**
+     * Keep the object counts of the first three levels right after a
+     * striped write, which skips those nodes. They are shared by writers
+     * in different octants, so they are updated under their own lock.
+     * @param mask  The octants the object touches.
+     * @param delta +1 for an insert, -1 for a remove.
+     */
+    private void adjustTopCounts(int mask, int delta) {
+        synchronized (countLock) {
+            adjustTopCounts(getRoot(), 0, 0, mask, delta);
+        }
+    }
+
+    /**
+     * Adjust the count of a node above the octants, and of its children,
+     * if the object lies in its region.
+     * @param node   The node.
+     * @param depth  Its depth (0 to 2).
+     * @param prefix The octant bits chosen on the way down.
+     * @param mask   The octants the object touches.
+     * @param delta  The change in count.
+     */
+    private void adjustTopCounts(BintreeNode node, int depth, int prefix,
+        int mask, int delta) {
+        if (depth == OCTANT_DEPTH) {
+            return;
+        }
+        int below = OCTANT_DEPTH - depth;
+        int nodeOctants = ((1 << (1 << below)) - 1) << (prefix << below);
+        if ((mask & nodeOctants) == 0) {
+            return;
+        }
+        InternalNode internal = (InternalNode) node;
+        internal.adjustCount(delta);
+        adjustTopCounts(internal.getLeft(), depth + 1, prefix << 1,
+            mask, delta);
+        adjustTopCounts(internal.getRight(), depth + 1, (prefix << 1) | 1,
+            mask, delta);
+    }
+
+    /**
+     * Run a query, optimistically first and under read locks if a writer
+     * changed the tree while it ran.
+     * @param <T>   The result type.
+     * @param query The query to run.
+     * @param mask  The octants the query can look at.
+     * @return The query result.
+     */
+    private <T> T read(Supplier<T> query, int mask) {
+        long[] stamps = new long[STRIPES];
+        long stamp = structureLock.tryOptimisticRead();
+        boolean valid = stamp != 0;
+        for (int o = 0; o < STRIPES && valid; o++) {
+            if ((mask & (1 << o)) != 0) {
+                stamps[o] = stripes[o].tryOptimisticRead();
+                valid = stamps[o] != 0;
+            }
+        }
+        if (valid) {
+            try {
+                T result = query.get();
+                if (validate(stamp, stamps, mask)) {
+                    return result;
+                }
+            }
+            catch (RuntimeException e) {
+                // Saw a write in progress; retry under the read locks
+            }
+        }
+
+        stamp = structureLock.readLock();
+        for (int o = 0; o < STRIPES; o++) {
+            if ((mask & (1 << o)) != 0) {
+                stamps[o] = stripes[o].readLock();
+            }
+        }
+        try {
+            return query.get();
+        }
+        finally {
+            for (int o = STRIPES - 1; o >= 0; o--) {
+                if ((mask & (1 << o)) != 0) {
+                    stripes[o].unlockRead(stamps[o]);
+                }
+            }
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    private boolean validate(long stamp, long[] stamps, int mask) {
+        if (!structureLock.validate(stamp)) {
+            return false;
+        }
+        for (int o = 0; o < STRIPES; o++) {
+            if ((mask & (1 << o)) != 0 && !stripes[o].validate(stamps[o])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void lockStripes(WriteLocks locks) {
+        // Always in increasing order, so writers cannot deadlock
+        for (int o = 0; o < STRIPES; o++) {
+            if ((locks.mask & (1 << o)) != 0) {
+                locks.stamps[o] = stripes[o].writeLock();
+            }
+        }
+    }
+
+    private void unlockStripes(WriteLocks locks) {
+        for (int o = STRIPES - 1; o >= 0; o--) {
+            if ((locks.mask & (1 << o)) != 0) {
+                stripes[o].unlockWrite(locks.stamps[o]);
+            }
+        }
+    }
+
+    /**
+     * Get the octants a box touches, as a bit mask. Octant numbers use
+     * bit 2 for the upper x half, bit 1 for y and bit 0 for z.
+     * @param x  Box x-origin.
+     * @param y  Box y-origin.
+     * @param z  Box z-origin.
+     * @param xw Box x-width.
+     * @param yw Box y-width.
+     * @param zw Box z-width.
+     * @return The mask with bit o set for each octant o the box touches.
+     */
+    int octants(int x, int y, int z, int xw, int yw, int zw) {
+        int half = getWorldSize() / 2;
+        int mask = 0;
+        for (int o = 0; o < STRIPES; o++) {
+            if (x < octantX(o) + half && x + xw > octantX(o)
+                && y < octantY(o) + half && y + yw > octantY(o)
+                && z < octantZ(o) + half && z + zw > octantZ(o)) {
+                mask |= 1 << o;
+            }
+        }
+        return mask;
+    }
+
+    private int octantX(int o) {
+        return ((o >> 2) & 1) * (getWorldSize() / 2);
+    }
+
+    private int octantY(int o) {
+        return ((o >> 1) & 1) * (getWorldSize() / 2);
+    }
+
+    private int octantZ(int o) {
+        return (o & 1) * (getWorldSize() / 2);
+    }
+
+    /**
+     * Check that the first three levels are all internal nodes, so each
+     * octant has its own subtree.
+     * @return True iff the tree is deep enough to stripe.
+     */
+    private boolean topIsInternal() {
+        for (int o = 0; o < STRIPES; o += 2) {
+            if (getOctantParent(o) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check that removing one object from each masked octant cannot turn
+     * the octant subtree back into a leaf. That needs at least 5 unique
+     * objects now, so at least 4 (more than a leaf holds) remain.
+     * @param mask The octants the object touches.
+     * @return True iff the first three levels will not change.
+     */
+    private boolean keepsOctantRoots(int mask) {
+        for (int o = 0; o < STRIPES; o++) {
+            if ((mask & (1 << o)) != 0) {
+                BintreeNode node = getOctantRoot(o);
+                if (!(node instanceof InternalNode)
+                    || ((InternalNode) node).getCount() < 5) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the depth 2 node whose child is the subtree for an octant.
+     * @param o The octant.
+     * @return The parent, or null if the first levels are not all internal.
+     */
+    private InternalNode getOctantParent(int o) {
+        BintreeNode node = getRoot();
+        for (int bit = 2; bit >= 1; bit--) {
+            if (!(node instanceof InternalNode)) {
+                return null;
+            }
+            InternalNode internal = (InternalNode) node;
+            node = ((o >> bit) & 1) == 0 ? internal.getLeft()
+                : internal.getRight();
+        }
+        return node instanceof InternalNode ? (InternalNode) node : null;
+    }
+
+    private BintreeNode getOctantRoot(int o) {
+        InternalNode parent = getOctantParent(o);
+        return (o & 1) == 0 ? parent.getLeft() : parent.getRight();
+    }
+
+    private void setOctantRoot(int o, BintreeNode node) {
+        InternalNode parent = getOctantParent(o);
+        if ((o & 1) == 0) {
+            parent.setLeft(node);
+        }
+        else {
+            parent.setRight(node);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+/**
+ * A sort-and-sweep collision engine. The leaf's objects are sorted by
+ * x-origin, and each object is only checked against the objects whose
+ * x-origin falls inside its x extent, with a y and z overlap check on
+ * those. This is O(n log n + k) for k overlapping pairs, instead of
+ * O(n^2), which matters for the large leaves the "all intersect" rule
+ * can leave unsplit.
+ *
+ * The pairs found are sorted back into leaf order before printing, so
+ * the output is the same as the pairwise engine's.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class SweepCollisionEngine implements CollisionEngine {
+
+    private static final SweepCollisionEngine INSTANCE =
+        new SweepCollisionEngine();
+
+    /**
+     * Leaves this small are faster with the pairwise scan.
+     */
+    private static final int MIN_SWEEP_SIZE = 8;
+
+    private SweepCollisionEngine() {
+    }
+
+    public static SweepCollisionEngine getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void leafCollisions(StringBuilder sb, SimpleList data, int x,
+        int y, int z, int xWid, int yWid, int zWid) {
+        int n = data.size();
+        if (n < MIN_SWEEP_SIZE) {
+            PairwiseCollisionEngine.getInstance().leafCollisions(
+                sb, data, x, y, z, xWid, yWid, zWid);
+            return;
+        }
+
+        // Sort leaf positions by x-origin: x in the high half, the
+        // position in the low half.
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = ((long)data.get(i).getXorig() << 32) | i;
+        }
+        Arrays.sort(order);
+
+        // Sweep, recording each pair as (first position, second position)
+        long[] pairs = new long[n];
+        int count = 0;
+        for (int s = 0; s < n; s++) {
+            int i = (int)order[s];
+            AirObject a = data.get(i);
+            int end = a.getXorig() + a.getXwidth();
+            for (int t = s + 1; t < n && (int)(order[t] >> 32) < end; t++) {
+                int j = (int)order[t];
+                AirObject b = data.get(j);
+                if (overlaps(a.getYorig(), a.getYwidth(),
+                        b.getYorig(), b.getYwidth())
+                    && overlaps(a.getZorig(), a.getZwidth(),
+                        b.getZorig(), b.getZwidth())) {
+                    if (count == pairs.length) {
+                        pairs = Arrays.copyOf(pairs, count * 2);
+                    }
+                    pairs[count++] = i < j
+                        ? ((long)i << 32) | j
+                        : ((long)j << 32) | i;
+                }
+            }
+        }
+
+        // Back to the pairwise scan's order
+        Arrays.sort(pairs, 0, count);
+        for (int p = 0; p < count; p++) {
+            CollisionEngine.report(sb, data.get((int)(pairs[p] >> 32)),
+                data.get((int)pairs[p]), x, y, z, xWid, yWid, zWid);
+        }
+    }
+
+    /**
+     * Check that two intervals overlap ("touching is not intersecting").
+     */
+    private static boolean overlaps(int a, int aWid, int b, int bWid) {
+        return a < b + bWid && b < a + aWid;
+    }
+}
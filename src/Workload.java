@@ -0,0 +1,399 @@
+import java.util.Random;
+
+/**
+ * A seeded generator of realistic ATC operations for benchmarks. The
+ * same seed and settings always give the same stream of operations.
+ *
+ * New objects come from four kinds of traffic:
+ * <ul>
+ * <li>approach: AirPlanes on glide paths into a few airports, so they
+ * cluster along narrow lines near the ground;</li>
+ * <li>en route: AirPlanes, Drones and Balloons spread evenly through
+ * the upper airspace;</li>
+ * <li>flocks: Birds with large numbers, in tight overlapping groups
+ * around a few centers;</li>
+ * <li>rockets: long, thin vertical boxes rising from the ground.</li>
+ * </ul>
+ * Deletes, prints and range prints pick names of objects added earlier
+ * in the stream and not yet deleted.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class Workload {
+
+    /**
+     * The kinds of generated operations.
+     */
+    public enum Kind {
+        /** add() */
+        ADD,
+        /** delete() */
+        DELETE,
+        /** print() */
+        PRINT,
+        /** rangeprint() */
+        RANGEPRINT,
+        /** intersect() */
+        INTERSECT,
+        /** collisions() */
+        COLLISIONS
+    }
+
+    /**
+     * One generated operation.
+     */
+    public static class Operation {
+        private final Kind kind;
+        private final AirObject object;
+        private final String name;
+        private final String end;
+        private final int[] box;
+
+        private Operation(Kind kind, AirObject object, String name,
+            String end, int[] box) {
+            this.kind = kind;
+            this.object = object;
+            this.name = name;
+            this.end = end;
+            this.box = box;
+        }
+
+        /**
+         * Gets the kind of operation.
+         * @return The kind.
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Gets the object an add stores.
+         * @return The object, or null for other kinds.
+         */
+        public AirObject getObject() {
+            return object;
+        }
+
+        /**
+         * Run the operation.
+         * @param atc The implementation to run it against.
+         * @return What the ATC method returned, as a string (or null).
+         */
+        public String apply(ATC atc) {
+            switch (kind) {
+                case ADD:
+                    return String.valueOf(atc.add(object));
+                case DELETE:
+                    return atc.delete(name);
+                case PRINT:
+                    return atc.print(name);
+                case RANGEPRINT:
+                    return atc.rangeprint(name, end);
+                case INTERSECT:
+                    return atc.intersect(box[0], box[1], box[2],
+                        box[3], box[4], box[5]);
+                default:
+                    return atc.collisions();
+            }
+        }
+
+        /**
+         * Returns a readable form of the operation.
+         * @return The operation.
+         */
+        @Override
+        public String toString() {
+            switch (kind) {
+                case ADD:
+                    return "add " + object.toString();
+                case DELETE:
+                case PRINT:
+                    return kind.name().toLowerCase() + " " + name;
+                case RANGEPRINT:
+                    return "rangeprint " + name + " " + end;
+                case INTERSECT:
+                    return "intersect " + box[0] + " " + box[1] + " "
+                        + box[2] + " " + box[3] + " " + box[4] + " "
+                        + box[5];
+                default:
+                    return "collisions";
+            }
+        }
+    }
+
+    private static final int AIRPORTS = 4;
+    private static final int FLOCKS = 12;
+    private static final int FLOCK_SPREAD = 160;
+    private static final String[] CARRIERS =
+        {"Delta", "United", "American", "Southwest", "JetBlue"};
+
+    private final Random rnd;
+    private final int worldSize;
+    private final int[] opWeights = {40, 15, 20, 10, 14, 1};
+    private final int[] trafficWeights = {40, 35, 20, 5};
+    private final int[][] airports = new int[AIRPORTS][];
+    private final int[][] flocks = new int[FLOCKS][];
+
+    /**
+     * Names of the objects added and not yet deleted. Unordered; a
+     * deleted name is replaced by the last one.
+     */
+    private String[] live = new String[64];
+    private int liveCount;
+    private int nextId;
+
+    /**
+     * Create a generator with the default mix: mostly adds, then
+     * lookups, intersects and deletes, with an occasional collisions.
+     * @param seed      The seed.
+     * @param worldSize The size of the world objects must fit in.
+     */
+    public Workload(long seed, int worldSize) {
+        this.rnd = new Random(seed);
+        this.worldSize = worldSize;
+        for (int i = 0; i < AIRPORTS; i++) {
+            // Airports on the ground, away from the edges
+            airports[i] = new int[] {
+                worldSize / 8 + rnd.nextInt(worldSize * 3 / 4),
+                worldSize / 8 + rnd.nextInt(worldSize * 3 / 4),
+                rnd.nextInt(4) // approach from +x, -x, +y or -y
+            };
+        }
+        for (int i = 0; i < FLOCKS; i++) {
+            flocks[i] = new int[] {rnd.nextInt(worldSize - FLOCK_SPREAD),
+                rnd.nextInt(worldSize - FLOCK_SPREAD),
+                rnd.nextInt(worldSize / 4)};
+        }
+    }
+
+    /**
+     * Set the relative weights of the operation kinds, in the order of
+     * Kind. Deletes, prints and range prints fall back to adds while
+     * nothing is stored.
+     * @param weights One non-negative weight per kind.
+     * @return This generator.
+     * @throws IllegalArgumentException if the weights are unusable.
+     */
+    public Workload mix(int... weights) {
+        copyWeights(weights, opWeights);
+        return this;
+    }
+
+    /**
+     * Set the relative weights of the traffic kinds of new objects:
+     * approach, en route, flocks and rockets.
+     * @param weights One non-negative weight per traffic kind.
+     * @return This generator.
+     * @throws IllegalArgumentException if the weights are unusable.
+     */
+    public Workload traffic(int... weights) {
+        copyWeights(weights, trafficWeights);
+        return this;
+    }
+
+    private static void copyWeights(int[] from, int[] to) {
+        if (from.length != to.length) {
+            throw new IllegalArgumentException(
+                "Expected " + to.length + " weights, got " + from.length);
+        }
+        int total = 0;
+        for (int w : from) {
+            if (w < 0) {
+                throw new IllegalArgumentException("Negative weight " + w);
+            }
+            total += w;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("All weights are zero");
+        }
+        System.arraycopy(from, 0, to, 0, to.length);
+    }
+
+    /**
+     * Generate a batch of operations.
+     * @param n The number of operations.
+     * @return The operations, in order.
+     */
+    public Operation[] generate(int n) {
+        Operation[] ops = new Operation[n];
+        for (int i = 0; i < n; i++) {
+            ops[i] = next();
+        }
+        return ops;
+    }
+
+    /**
+     * Generate the next operation.
+     * @return The operation.
+     */
+    public Operation next() {
+        Kind kind = Kind.values()[pick(opWeights)];
+        if (liveCount == 0 && (kind == Kind.DELETE || kind == Kind.PRINT
+            || kind == Kind.RANGEPRINT)) {
+            kind = Kind.ADD;
+        }
+        switch (kind) {
+            case ADD:
+                AirObject obj = newObject();
+                addLive(obj.getName());
+                return new Operation(kind, obj, null, null, null);
+            case DELETE:
+                int i = rnd.nextInt(liveCount);
+                String name = live[i];
+                live[i] = live[--liveCount];
+                live[liveCount] = null;
+                return new Operation(kind, null, name, null, null);
+            case PRINT:
+                return new Operation(kind, null, live[rnd.nextInt(liveCount)],
+                    null, null);
+            case RANGEPRINT:
+                String a = live[rnd.nextInt(liveCount)];
+                String b = live[rnd.nextInt(liveCount)];
+                if (a.compareTo(b) > 0) {
+                    String t = a;
+                    a = b;
+                    b = t;
+                }
+                return new Operation(kind, null, a, b, null);
+            case INTERSECT:
+                return new Operation(kind, null, null, null, queryBox());
+            default:
+                return new Operation(kind, null, null, null, null);
+        }
+    }
+
+    /**
+     * Gets the number of objects the stream has added and not deleted.
+     * @return The count.
+     */
+    public int liveObjects() {
+        return liveCount;
+    }
+
+    private void addLive(String name) {
+        if (liveCount == live.length) {
+            String[] bigger = new String[live.length * 2];
+            System.arraycopy(live, 0, bigger, 0, liveCount);
+            live = bigger;
+        }
+        live[liveCount++] = name;
+    }
+
+    /**
+     * Pick an index with probability proportional to its weight.
+     */
+    private int pick(int[] weights) {
+        int total = 0;
+        for (int w : weights) {
+            total += w;
+        }
+        int r = rnd.nextInt(total);
+        int i = 0;
+        while (r >= weights[i]) {
+            r -= weights[i];
+            i++;
+        }
+        return i;
+    }
+
+    private AirObject newObject() {
+        int id = nextId++;
+        switch (pick(trafficWeights)) {
+            case 0:
+                return approach(String.format("app%07d", id));
+            case 1:
+                return enRoute(String.format("enr%07d", id));
+            case 2:
+                return flock(String.format("flk%07d", id));
+            default:
+                return rocket(String.format("rkt%07d", id));
+        }
+    }
+
+    /**
+     * A plane on the glide path of an airport: the further out, the
+     * higher, with a little jitter.
+     */
+    private AirObject approach(String name) {
+        int[] port = airports[rnd.nextInt(AIRPORTS)];
+        int dist = rnd.nextInt(worldSize / 4);
+        int dx = port[2] == 0 ? dist : port[2] == 1 ? -dist : 0;
+        int dy = port[2] == 2 ? dist : port[2] == 3 ? -dist : 0;
+        int w = 4 + rnd.nextInt(8);
+        int x = clamp(port[0] + dx + rnd.nextInt(9) - 4, w);
+        int y = clamp(port[1] + dy + rnd.nextInt(9) - 4, w);
+        int z = clamp(dist / 6 + rnd.nextInt(4), w);
+        return new AirPlane(name, x, y, z, w, w, 1 + w / 2,
+            CARRIERS[rnd.nextInt(CARRIERS.length)], 1 + rnd.nextInt(9999),
+            2 + rnd.nextInt(3));
+    }
+
+    /**
+     * A plane, drone or balloon anywhere in the upper half of the sky.
+     */
+    private AirObject enRoute(String name) {
+        int w = 2 + rnd.nextInt(24);
+        int x = rnd.nextInt(worldSize - w);
+        int y = rnd.nextInt(worldSize - w);
+        int r = rnd.nextInt(10);
+        if (r < 6) {
+            int z = worldSize / 2 + rnd.nextInt(worldSize / 2 - w);
+            return new AirPlane(name, x, y, z, w, w, w,
+                CARRIERS[rnd.nextInt(CARRIERS.length)],
+                1 + rnd.nextInt(9999), 2 + rnd.nextInt(3));
+        }
+        int z = rnd.nextInt(worldSize / 2);
+        if (r < 9) {
+            return new Drone(name, x, y, z, w, w, w, "DJI",
+                1 + rnd.nextInt(8));
+        }
+        return new Balloon(name, x, y, z, w, w, w, "hot_air",
+            rnd.nextInt(20));
+    }
+
+    /**
+     * A large flock of birds near one of the flock centers.
+     */
+    private AirObject flock(String name) {
+        int[] c = flocks[rnd.nextInt(FLOCKS)];
+        int w = 4 + rnd.nextInt(12);
+        int x = clamp(c[0] + rnd.nextInt(FLOCK_SPREAD), w);
+        int y = clamp(c[1] + rnd.nextInt(FLOCK_SPREAD), w);
+        int z = clamp(c[2] + rnd.nextInt(FLOCK_SPREAD / 4), w);
+        return new Bird(name, x, y, z, w, w, 1 + w / 4, "geese",
+            50 + rnd.nextInt(450));
+    }
+
+    /**
+     * A rocket: a few units wide, rising a long way from the ground.
+     */
+    private AirObject rocket(String name) {
+        int w = 2 + rnd.nextInt(6);
+        int h = worldSize / 5 + rnd.nextInt(worldSize / 2);
+        return new Rocket(name, rnd.nextInt(worldSize - w),
+            rnd.nextInt(worldSize - w), 0, w, w, h,
+            100 + rnd.nextInt(900), rnd.nextInt(90));
+    }
+
+    /**
+     * A query window, usually small (like a sector display) and now
+     * and then a large part of the world.
+     */
+    private int[] queryBox() {
+        int w = rnd.nextInt(10) == 0
+            ? worldSize / 4 + rnd.nextInt(worldSize / 2)
+            : 16 + rnd.nextInt(112);
+        int h = rnd.nextInt(10) == 0 ? worldSize / 2 : 16 + rnd.nextInt(112);
+        return new int[] {rnd.nextInt(worldSize - w + 1),
+            rnd.nextInt(worldSize - w + 1), rnd.nextInt(worldSize - h + 1),
+            w, w, h};
+    }
+
+    /**
+     * Keep an origin inside the world for a box of width w.
+     */
+    private int clamp(int v, int w) {
+        return Math.max(0, Math.min(worldSize - w, v));
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.Random;
+import student.TestCase;
+
+/**
+ * Tests for the Workload generator and the Replay harness.
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public class WorkloadTest extends TestCase {
+
+    /**
+     * Tests that a seed always gives the same stream.
+     */
+    public void testDeterministic() {
+        Workload.Operation[] a = new Workload(9, 1024).generate(500);
+        Workload.Operation[] b = new Workload(9, 1024).generate(500);
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(a[i].toString(), b[i].toString());
+        }
+        Workload.Operation[] c = new Workload(10, 1024).generate(500);
+        boolean differs = false;
+        for (int i = 0; i < a.length; i++) {
+            differs |= !a[i].toString().equals(c[i].toString());
+        }
+        assertTrue(differs);
+    }
+
+    /**
+     * Tests that every generated add is accepted and every delete and
+     * print finds its object.
+     */
+    public void testOperationsAreValid() {
+        Workload w = new Workload(3, 1024).traffic(1, 1, 1, 1);
+        WorldDB db = new WorldDB(new Random(3));
+        int rockets = 0;
+        for (Workload.Operation op : w.generate(2000)) {
+            String out = op.apply(db);
+            switch (op.getKind()) {
+                case ADD:
+                    assertEquals("true", out);
+                    if (op.getObject() instanceof Rocket) {
+                        rockets++;
+                        assertTrue(op.getObject().getZwidth()
+                            > 10 * op.getObject().getXwidth());
+                    }
+                    break;
+                case DELETE:
+                case PRINT:
+                case RANGEPRINT:
+                case INTERSECT:
+                    assertNotNull(out);
+                    break;
+                default:
+                    break;
+            }
+        }
+        assertTrue(rockets > 0);
+        assertEquals(w.liveObjects(), db.skipListShape().size());
+    }
+
+    /**
+     * Tests the operation mix and its validation.
+     */
+    public void testMix() {
+        Workload w = new Workload(1, 1024).mix(1, 0, 0, 0, 1, 0);
+        int adds = 0;
+        for (Workload.Operation op : w.generate(400)) {
+            Workload.Kind k = op.getKind();
+            assertTrue(k == Workload.Kind.ADD || k == Workload.Kind.INTERSECT);
+            adds += k == Workload.Kind.ADD ? 1 : 0;
+        }
+        assertTrue(adds > 150 && adds < 250);
+
+        int[][] bad = {{1, 1}, {0, 0, 0, 0, 0, 0}, {1, -1, 1, 1, 1, 1}};
+        for (int[] weights : bad) {
+            Exception thrown = null;
+            try {
+                w.mix(weights);
+            }
+            catch (IllegalArgumentException e) {
+                thrown = e;
+            }
+            assertNotNull(thrown);
+        }
+    }
+
+    /**
+     * Tests that the replay harness measures every operation, and that
+     * ConcurrentWorldDB gives the same results as WorldDB.
+     */
+    public void testReplay() {
+        Workload.Operation[] ops = new Workload(4, 1024).generate(1500);
+        Replay.Result plain = Replay.run(new WorldDB(new Random(4)), ops);
+        assertEquals(1500, plain.operations());
+        long sum = 0;
+        for (Workload.Kind k : Workload.Kind.values()) {
+            sum += plain.operations(k);
+        }
+        assertEquals(1500, sum);
+        assertTrue(plain.nanos() > 0);
+        assertTrue(plain.throughput() > 0);
+        assertTrue(plain.latency(99) >= plain.latency(50));
+        assertTrue(plain.allocatedBytes() != 0);
+        assertTrue(plain.toString().contains("1500 ops"));
+
+        Replay.Result concurrent =
+            Replay.run(new ConcurrentWorldDB(new Random(4)), ops);
+        assertEquals(plain.checksum(), concurrent.checksum());
+    }
+}
@@ -1,4 +1,10 @@
+import java.lang.management.ManagementFactory;
 import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * The world for this project. We have a Skip List and a Bintree
@@ -12,115 +18,555 @@ public class WorldDB implements ATC {
 
     private SkipList<String, AirObject> skipList;
     private Bintree bintree;
+    private CollisionEngine collisionEngine =
+        PairwiseCollisionEngine.getInstance();
+    private final Metrics metrics = new Metrics();
+    private final GeofenceIndex geofences = new GeofenceIndex(worldSize);
+    private volatile ChangeFeed feed;
+    private volatile QueryCache<String> queryCache;
 
     public WorldDB(Random r) {
         rnd = r;
         if (rnd == null) {
             rnd = new Random();
         }
-        clear();
+        skipList = new SkipList<>(rnd);
+        bintree = newBintree(worldSize);
     }
 
     public void clear() {
-        skipList = new SkipList<>(rnd);
-        bintree = new Bintree(worldSize);
+        long began = metrics.start();
+        try {
+            recordClear();
+            skipList = new SkipList<>(rnd);
+            bintree = newBintree(worldSize);
+            QueryCache<String> cache = queryCache;
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        finally {
+            metrics.stop(Metrics.Op.CLEAR, began);
+        }
     }
 
-    public boolean add(AirObject a) {
-        if (!isValid(a)) {
-            return false;
+    /**
+     * Create the Bintree used by this database.
+     * Subclasses can substitute another Bintree implementation.
+     * @param size The size of the world.
+     * @return A new empty Bintree.
+     */
+    Bintree newBintree(int size) {
+        return new Bintree(size);
+    }
+
+    /**
+     * Publish an add to the region subscriptions and the change feed.
+     * Called from the write path, one write at a time.
+     * @param obj The object added.
+     */
+    void recordAdd(AirObject obj) {
+        geofences.publish(obj, true);
+        ChangeFeed f = feed;
+        if (f != null) {
+            f.append(ChangeEvent.Kind.ADD, obj);
         }
-        
-        if (skipList.find(a.getName()) != null) {
-            return false;
+    }
+
+    /**
+     * Publish a delete to the region subscriptions and the change feed.
+     * @param obj The object deleted.
+     */
+    void recordDelete(AirObject obj) {
+        geofences.publish(obj, false);
+        ChangeFeed f = feed;
+        if (f != null) {
+            f.append(ChangeEvent.Kind.DELETE, obj);
         }
+    }
 
-        skipList.insert(a.getName(), a);
-        bintree.insert(a);
-        return true;
+    /**
+     * Publish a clear. The region subscriptions are told about every
+     * stored object, as deleted. Called before the objects are dropped.
+     */
+    void recordClear() {
+        if (geofences.size() > 0) {
+            skipList.scan("", (name, obj) -> {
+                geofences.publish(obj, false);
+                return true;
+            });
+        }
+        ChangeFeed f = feed;
+        if (f != null) {
+            f.append(ChangeEvent.Kind.CLEAR, null);
+        }
     }
 
-    public String delete(String name) {
-        if (name == null) {
+    /**
+     * Get the feed of changes made to this database, starting it with
+     * the default capacity on the first call. Changes made before it
+     * started are not in it; use feedSnapshot() to start a follower.
+     * @return The change feed.
+     */
+    public synchronized ChangeFeed changeFeed() {
+        if (feed == null) {
+            feed = new ChangeFeed(ChangeFeed.DEFAULT_CAPACITY);
+        }
+        return feed;
+    }
+
+    /**
+     * Take the stored objects and the change feed position together, so
+     * a follower can copy the objects and then apply the events from the
+     * snapshot's cursor on.
+     * @return The snapshot.
+     */
+    public ChangeFeed.Snapshot feedSnapshot() {
+        ChangeFeed f = changeFeed();
+        AirObject[] objects = new AirObject[skipList.size()];
+        int[] n = {0};
+        skipList.scan("", (name, obj) -> {
+            objects[n[0]++] = obj;
+            return true;
+        });
+        return new ChangeFeed.Snapshot(f, objects);
+    }
+
+    /**
+     * Subscribe to the objects added and deleted inside a box, instead
+     * of polling intersect(). The listener is called asynchronously after
+     * each add or delete of an object that intersects the box, and for
+     * every such object on clear(). Subscriptions are kept across
+     * clear().
+     * @param x        Box x-origin.
+     * @param y        Box y-origin.
+     * @param z        Box z-origin.
+     * @param xwid     Box x-width.
+     * @param ywid     Box y-width.
+     * @param zwid     Box z-width.
+     * @param listener Told about each change.
+     * @return The subscription, or null if the box or listener is invalid.
+     */
+    public Geofence subscribe(int x, int y, int z, int xwid, int ywid,
+        int zwid, RegionListener listener) {
+        if (listener == null || !isValidBox(x, y, z, xwid, ywid, zwid)) {
             return null;
         }
-        
-        AirObject obj = skipList.remove(name);
-        
-        if (obj == null) {
-            return null; 
+        return geofences.subscribe(x, y, z, xwid, ywid, zwid, listener);
+    }
+
+    /**
+     * Choose the executor region listeners are called on. By default it
+     * is one daemon thread, so listeners see changes in order.
+     * @param executor The executor.
+     */
+    public void setNotificationExecutor(Executor executor) {
+        geofences.setExecutor(executor);
+    }
+
+    /**
+     * Get the name index.
+     * @return The SkipList of AirObjects by name.
+     */
+    SkipList<String, AirObject> getSkipList() {
+        return skipList;
+    }
+
+    /**
+     * Get the spatial index.
+     * @return The Bintree of AirObjects.
+     */
+    Bintree getBintree() {
+        return bintree;
+    }
+
+    public boolean add(AirObject a) {
+        long began = metrics.start();
+        try {
+            if (!isValid(a)) {
+                return false;
+            }
+
+            if (skipList.find(a.getName()) != null) {
+                return false;
+            }
+
+            skipList.insert(a.getName(), a);
+            QueryCache<String> cache = queryCache;
+            if (cache == null) {
+                bintree.insert(a);
+            }
+            else {
+                BintreeChanges changes = BintreeChanges.start();
+                try {
+                    bintree.insert(a);
+                }
+                finally {
+                    changes.stop();
+                }
+                cache.invalidate(a, changes);
+            }
+            recordAdd(a);
+            return true;
+        }
+        finally {
+            metrics.stop(Metrics.Op.ADD, began);
+        }
+    }
+
+    public String delete(String name) {
+        long began = metrics.start();
+        try {
+            if (name == null) {
+                return null;
+            }
+
+            AirObject obj = skipList.remove(name);
+
+            if (obj == null) {
+                return null; 
+            }
+
+            QueryCache<String> cache = queryCache;
+            if (cache == null) {
+                bintree.remove(obj);
+            }
+            else {
+                BintreeChanges changes = BintreeChanges.start();
+                try {
+                    bintree.remove(obj);
+                }
+                finally {
+                    changes.stop();
+                }
+                cache.invalidate(obj, changes);
+            }
+            recordDelete(obj);
+
+            return obj.toString();
+        }
+        finally {
+            metrics.stop(Metrics.Op.DELETE, began);
         }
-        
-        // Fixed: Uncommented this line
-        bintree.remove(obj);
-        
-        return obj.toString();
     }
 
     public String printskiplist() {
-        return skipList.print();
+        long began = metrics.start();
+        try {
+            return skipList.print();
+        }
+        finally {
+            metrics.stop(Metrics.Op.PRINTSKIPLIST, began);
+        }
     }
 
     public String printbintree() {
-        return bintree.print();
+        long began = metrics.start();
+        try {
+            return bintree.print();
+        }
+        finally {
+            metrics.stop(Metrics.Op.PRINTBINTREE, began);
+        }
     }
 
     public String print(String name) {
-        if (name == null) {
-            return null;
+        long began = metrics.start();
+        try {
+            if (name == null) {
+                return null;
+            }
+
+            AirObject obj = skipList.find(name);
+            if (obj == null) {
+                return null;
+            }
+
+            return obj.toString();
         }
-        
-        AirObject obj = skipList.find(name);
-        if (obj == null) {
-            return null;
+        finally {
+            metrics.stop(Metrics.Op.PRINT, began);
         }
-        
-        return obj.toString();
     }
 
     public String rangeprint(String start, String end) {
-        if (start == null || end == null) {
-            return null;
+        long began = metrics.start();
+        try {
+            if (start == null || end == null) {
+                return null;
+            }
+            if (start.compareTo(end) > 0) {
+                return null;
+            }
+            QueryCache<String> cache = queryCache;
+            if (cache == null) {
+                return readRange(start, end);
+            }
+            long version = cache.version();
+            String result = cache.rangeprint(start, end);
+            if (result == null) {
+                result = readRange(start, end);
+                cache.putRangeprint(start, end, result, version);
+            }
+            return result;
         }
-        if (start.compareTo(end) > 0) {
-            return null;
+        finally {
+            metrics.stop(Metrics.Op.RANGEPRINT, began);
         }
+    }
+
+    /**
+     * Run the SkipList part of rangeprint(). Subclasses can wrap it in
+     * their own locking.
+     * @param start Minimum of the range.
+     * @param end   Maximum of the range.
+     * @return The records in the range.
+     */
+    String readRange(String start, String end) {
         return skipList.range(start, end);
     }
 
-    public String collisions() {
-        return bintree.collisions();
+    /**
+     * Like rangeprint(), but lists the AirObjects in descending name
+     * order. The SkipList is walked backward from end, so this costs the
+     * same as rangeprint(). Results are not cached.
+     * @param start Minimum of the range.
+     * @param end   Maximum of the range.
+     * @return The same header as rangeprint(), then the objects from end
+     *         down to start; or null if an argument is null or
+     *         start > end.
+     */
+    public String rangeprintDescending(String start, String end) {
+        long began = metrics.start();
+        try {
+            if (start == null || end == null) {
+                return null;
+            }
+            if (start.compareTo(end) > 0) {
+                return null;
+            }
+            return skipList.rangeDescending(start, end);
+        }
+        finally {
+            metrics.stop(Metrics.Op.RANGEPRINT_DESCENDING, began);
+        }
     }
 
-    public String intersect(int x, int y, int z, int xwid, int ywid, int zwid) {
-        if (x < 0 || x >= worldSize || y < 0 || y >= worldSize || 
-            z < 0 || z >= worldSize) {
-            return null;
+    /**
+     * Pass AirObjects to a sink in descending name order, starting from
+     * the last name not greater than a given one, until the sink has had
+     * enough. For example, the last 10 names before "UAL5" are the first
+     * 10 objects passed from "UAL5" less the one named "UAL5", if any.
+     * @param from The largest name to pass.
+     * @param sink Gets each object; returns false to stop.
+     * @return The number of objects passed, 0 if an argument is null.
+     */
+    public int descendingScan(String from, Predicate<AirObject> sink) {
+        if (from == null || sink == null) {
+            return 0;
         }
-        if (xwid <= 0 || xwid > worldSize || ywid <= 0 || 
-            ywid > worldSize || zwid <= 0 || zwid > worldSize) {
-            return null;
+        return skipList.scanDescending(from, (name, obj) -> sink.test(obj));
+    }
+
+    /**
+     * Pass every AirObject whose name starts with a prefix to a sink, in
+     * name order. The scan seeks to the prefix and stops at the first
+     * name without it, and builds no output of its own.
+     * @param prefix The prefix; "" gives every object.
+     * @param sink   Gets each object.
+     * @return The number of objects passed, 0 if an argument is null.
+     */
+    public int prefixScan(String prefix, Consumer<AirObject> sink) {
+        if (prefix == null || sink == null) {
+            return 0;
         }
-        if (x + xwid > worldSize || y + ywid > worldSize || 
-            z + zwid > worldSize) {
-            return null;
+        int[] found = {0};
+        skipList.scan(prefix, (name, obj) -> {
+            if (!name.startsWith(prefix)) {
+                return false;
+            }
+            sink.accept(obj);
+            found[0]++;
+            return true;
+        });
+        return found[0];
+    }
+
+    /**
+     * Pass every AirObject whose name matches a glob pattern ('*' for any
+     * run of characters, '?' for one) to a sink, in name order. Only the
+     * names starting with the pattern's literal prefix are looked at.
+     * @param pattern The pattern, such as "UAL*" or "DRONE-*-77".
+     * @param sink    Gets each object.
+     * @return The number of objects passed, 0 if an argument is null.
+     */
+    public int globScan(String pattern, Consumer<AirObject> sink) {
+        if (pattern == null || sink == null) {
+            return 0;
         }
+        int[] found = {0};
+        String prefix = NameGlob.literalPrefix(pattern);
+        skipList.scan(prefix, (name, obj) -> {
+            if (!name.startsWith(prefix)) {
+                return false;
+            }
+            if (NameGlob.matches(pattern, name)) {
+                sink.accept(obj);
+                found[0]++;
+            }
+            return true;
+        });
+        return found[0];
+    }
 
-        return bintree.intersect(x, y, z, xwid, ywid, zwid);
+    public String collisions() {
+        long began = metrics.start();
+        try {
+            return bintree.collisions(collisionEngine);
+        }
+        finally {
+            metrics.stop(Metrics.Op.COLLISIONS, began);
+        }
     }
 
-    private boolean isValid(AirObject a) {
-        if (a == null || a.getName() == null || a.getName().isEmpty()) {
-            return false;
+    /**
+     * Choose how collisions() finds the colliding pairs inside a leaf.
+     * The output is the same for every engine. The choice is kept
+     * across clear().
+     * @param engine The engine, or null for the default pairwise scan.
+     */
+    public void setCollisionEngine(CollisionEngine engine) {
+        collisionEngine = engine;
+        if (collisionEngine == null) {
+            collisionEngine = PairwiseCollisionEngine.getInstance();
+        }
+    }
+
+    /**
+     * Walk the spatial index and report its shape.
+     * @return The shape of the Bintree.
+     */
+    public BintreeShape bintreeShape() {
+        return bintree.shape();
+    }
+
+    /**
+     * Walk the name index and report its shape.
+     * @return The shape of the SkipList.
+     */
+    public SkipListShape skipListShape() {
+        return skipList.shape();
+    }
+
+    /**
+     * Cache intersect() and rangeprint() results, keeping at most the
+     * given number. Adds and deletes drop only the results they could
+     * have changed (see QueryCache). The cache is emptied by clear().
+     * @param capacity The number of results to keep, or 0 for no cache
+     *                 (the default).
+     */
+    public void setQueryCacheSize(int capacity) {
+        queryCache = capacity == 0 ? null : new QueryCache<>(capacity);
+    }
+
+    /**
+     * Get the query result cache, to read its counters.
+     * @return The cache, or null if there is none.
+     */
+    public QueryCache<String> queryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Turn recording of latencies and structure counters on or off.
+     * Recording is off by default. The metrics are kept across clear().
+     * @param enabled True to record.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        metrics.setEnabled(enabled);
+    }
+
+    /**
+     * Take a snapshot of the recorded metrics. Writers are not blocked.
+     * @return The snapshot.
+     */
+    public MetricsSnapshot metrics() {
+        return metrics.snapshot();
+    }
+
+    /**
+     * Get the live metrics of this database.
+     * @return The metrics.
+     */
+    Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Publish the metrics of this database on the platform MBean server.
+     * @param id Distinguishes this database from others; used in the
+     *           object name "WorldDB:type=Metrics,id=<id>".
+     * @return The name the metrics were registered under.
+     * @throws IllegalStateException if the name is taken or invalid.
+     */
+    public ObjectName registerMetricsMBean(String id) {
+        try {
+            ObjectName name = new ObjectName(
+                "WorldDB:type=Metrics,id=" + ObjectName.quote(id));
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(metrics, name);
+            return name;
+        }
+        catch (JMException e) {
+            throw new IllegalStateException(
+                "Could not register metrics for " + id, e);
         }
+    }
 
-        int x = a.getXorig();
-        int y = a.getYorig();
-        int z = a.getZorig();
-        int xw = a.getXwidth();
-        int yw = a.getYwidth();
-        int zw = a.getZwidth();
+    /**
+     * Get the engine collisions() uses inside each leaf.
+     * @return The collision engine.
+     */
+    public CollisionEngine getCollisionEngine() {
+        return collisionEngine;
+    }
 
+    public String intersect(int x, int y, int z, int xwid, int ywid, int zwid) {
+        long began = metrics.start();
+        try {
+            if (!isValidBox(x, y, z, xwid, ywid, zwid)) {
+                return null;
+            }
+
+            QueryCache<String> cache = queryCache;
+            if (cache == null) {
+                return bintree.intersect(x, y, z, xwid, ywid, zwid);
+            }
+            int[] box = {x, y, z, xwid, ywid, zwid};
+            long version = cache.version();
+            String result = cache.intersect(box);
+            if (result == null) {
+                result = bintree.intersect(x, y, z, xwid, ywid, zwid);
+                cache.putIntersect(box, result, version);
+            }
+            return result;
+        }
+        finally {
+            metrics.stop(Metrics.Op.INTERSECT, began);
+        }
+    }
+
+    /**
+     * Check that a box lies entirely inside the world.
+     * @param x  Box x-origin.
+     * @param y  Box y-origin.
+     * @param z  Box z-origin.
+     * @param xw Box x-width.
+     * @param yw Box y-width.
+     * @param zw Box z-width.
+     * @return True iff the box is valid.
+     */
+    boolean isValidBox(int x, int y, int z, int xw, int yw, int zw) {
         if (x < 0 || x >= worldSize || y < 0 || 
             y >= worldSize || z < 0 || z >= worldSize) {
             return false;
@@ -129,8 +575,22 @@ public class WorldDB implements ATC {
             yw > worldSize || zw <= 0 || zw > worldSize) {
             return false;
         }
+        return x + xw <= worldSize && y + yw <= worldSize && 
+            z + zw <= worldSize;
+    }
+
+    /**
+     * Check that an AirObject can be stored in the database.
+     * @param a The AirObject.
+     * @return True iff it has a name, a valid box and valid fields.
+     */
+    boolean isValid(AirObject a) {
+        if (a == null || a.getName() == null || a.getName().isEmpty()) {
+            return false;
+        }
 
-        if (x + xw > worldSize || y + yw > worldSize || z + zw > worldSize) {
+        if (!isValidBox(a.getXorig(), a.getYorig(), a.getZorig(),
+            a.getXwidth(), a.getYwidth(), a.getZwidth())) {
             return false;
         }
 
@@ -0,0 +1,70 @@
+/**
+ * The JMX view of a WorldDB's metrics. Register it with
+ * WorldDB.registerMetricsMBean().
+ *
+ * @author adsleptsov
+ * @version Fall 2025
+ */
+public interface WorldDBMetricsMXBean {
+
+    /**
+     * Tells whether metrics are being recorded.
+     * @return True if enabled.
+     */
+    boolean isEnabled();
+
+    /**
+     * Turn recording on or off.
+     * @param enabled True to record.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Gets the number of calls of each ATC method.
+     * @return Method name and count, one per line.
+     */
+    String getOperationCounts();
+
+    /**
+     * Gets latency percentiles of each ATC method.
+     * @return Method name, count, p50, p99, p99.9 and max in
+     *         nanoseconds, one method per line.
+     */
+    String getLatencies();
+
+    /**
+     * Gets the number of SkipList steps (levels descended plus forward
+     * moves) taken by searches.
+     * @return The step count.
+     */
+    long getSkipListSteps();
+
+    /**
+     * Gets the number of Bintree nodes visited by print and intersect.
+     * @return The node count.
+     */
+    long getBintreeNodesVisited();
+
+    /**
+     * Gets the number of leaf splits.
+     * @return The split count.
+     */
+    long getSplits();
+
+    /**
+     * Gets the number of merges of internal nodes back into leaves.
+     * @return The merge count.
+     */
+    long getMerges();
+
+    /**
+     * Gets the 99th percentile of leaf sizes seen on insert.
+     * @return The leaf size.
+     */
+    long getLeafSizeP99();
+
+    /**
+     * Forget everything recorded so far.
+     */
+    void reset();
+}
@@ -805,4 +805,151 @@ public class WorldDBTest extends TestCase {
         assertNotNull("Should accept y=1023", db.intersect(0, 1023, 0, 10, 1, 10));
         assertNotNull("Should accept z=1023", db.intersect(0, 0, 1023, 10, 10, 1));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test the sweep collision engine against the default engine on a
+     * crowded holding pattern (one big non-splitting leaf) plus
+     * scattered traffic.
+     */
+    public void testSweepCollisionEngine() {
+        Random rnd = new Random(9);
+        for (int i = 0; i < 60; i++) {
+            // Everything in the stack contains the point (505, 505, 505)
+            db.add(new AirPlane("hold" + i, 490 + rnd.nextInt(15),
+                490 + rnd.nextInt(15), 490 + rnd.nextInt(15),
+                16 + rnd.nextInt(20), 16 + rnd.nextInt(20),
+                16 + rnd.nextInt(20), "Delta", i + 1, 2));
+        }
+        for (int i = 0; i < 200; i++) {
+            db.add(new Drone("d" + i, rnd.nextInt(1000), rnd.nextInt(1000),
+                rnd.nextInt(1000), 1 + rnd.nextInt(24), 1 + rnd.nextInt(24),
+                1 + rnd.nextInt(24), "Droners", 2));
+        }
+        String expected = db.collisions();
+        assertSame(PairwiseCollisionEngine.getInstance(),
+            db.getCollisionEngine());
+
+        db.setCollisionEngine(SweepCollisionEngine.getInstance());
+        assertEquals(expected, db.collisions());
+
+        // The choice survives clear()
+        db.clear();
+        assertSame(SweepCollisionEngine.getInstance(),
+            db.getCollisionEngine());
+
+        db.setCollisionEngine(null);
+        assertSame(PairwiseCollisionEngine.getInstance(),
+            db.getCollisionEngine());
+    }
+
+    /**
+     * Tests region subscriptions: adds and deletes inside the box are
+     * pushed to the listener, others are not, and clear() reports every
+     * object in the box as deleted.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void testSubscribe() throws InterruptedException {
+        StringBuilder log = new StringBuilder();
+        RegionListener listener = new RegionListener() {
+            public void added(Geofence fence, AirObject obj) {
+                synchronized (log) {
+                    log.append("+").append(obj.getName()).append(" ");
+                    log.notifyAll();
+                }
+            }
+
+            public void deleted(Geofence fence, AirObject obj) {
+                synchronized (log) {
+                    log.append("-").append(obj.getName()).append(" ");
+                    log.notifyAll();
+                }
+            }
+        };
+        assertNull(db.subscribe(0, 0, 0, 0, 10, 10, listener));
+        assertNull(db.subscribe(0, 0, 0, 10, 10, 10, null));
+        Geofence sector = db.subscribe(100, 100, 100, 100, 100, 100,
+            listener);
+        assertNotNull(sector);
+
+        // Default executor: delivered on another thread, in order
+        db.add(new Balloon("b1", 150, 150, 150, 10, 10, 10, "hot", 3));
+        db.add(new Balloon("far", 500, 500, 500, 10, 10, 10, "hot", 3));
+        db.delete("b1");
+        synchronized (log) {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (log.length() < "+b1 -b1 ".length()
+                && System.currentTimeMillis() < deadline) {
+                log.wait(100);
+            }
+        }
+        assertEquals("+b1 -b1 ", log.toString());
+
+        db.setNotificationExecutor(Runnable::run);
+        log.setLength(0);
+        db.add(new Balloon("edge", 190, 190, 190, 50, 50, 50, "hot", 3));
+        db.add(new Balloon("touch", 200, 100, 100, 5, 5, 5, "hot", 3));
+        db.clear();
+        assertEquals("+edge -edge ", log.toString());
+
+        sector.cancel();
+        db.add(new Balloon("late", 150, 150, 150, 10, 10, 10, "hot", 3));
+        assertEquals("+edge -edge ", log.toString());
+    }
+
+    /**
+     * Test prefix and glob scans over the names
+     */
+    public void testPrefixAndGlobScan() {
+        String[] names = {"DRONE-1-77", "DRONE-12-77", "DRONE-2-78",
+            "DRONE77", "UAL", "UAL1", "UAL22", "UAM3", "UA"};
+        for (String n : names) {
+            db.add(new Drone(n, 10, 10, 10, 5, 5, 5, "Droners", 2));
+        }
+        StringBuilder sb = new StringBuilder();
+        assertEquals(3, db.prefixScan("UAL", o -> sb.append(o.getName())
+            .append(' ')));
+        assertEquals("UAL UAL1 UAL22 ", sb.toString());
+
+        sb.setLength(0);
+        assertEquals(2, db.globScan("DRONE-*-77", o -> sb.append(
+            o.getName()).append(' ')));
+        assertEquals("DRONE-1-77 DRONE-12-77 ", sb.toString());
+
+        sb.setLength(0);
+        assertEquals(1, db.globScan("UA?", o -> sb.append(o.getName())
+            .append(' ')));
+        assertEquals("UAL ", sb.toString());
+        sb.setLength(0);
+        assertEquals(1, db.globScan("UA*3", o -> sb.append(o.getName())
+            .append(' ')));
+        assertEquals("UAM3 ", sb.toString());
+        assertEquals(names.length, db.prefixScan("", o -> { }));
+        assertEquals(0, db.prefixScan("ZZ", o -> fail()));
+        assertEquals(0, db.globScan(null, o -> { }));
+        assertEquals(0, db.prefixScan("UAL", null));
+    }
+
+    /**
+     * Test rangeprintDescending lists rangeprint's objects in reverse
+     */
+    public void testRangeprintDescending() {
+        String[] names = {"m", "c", "x", "a", "q"};
+        for (String n : names) {
+            db.add(new Drone(n, 10, 10, 10, 5, 5, 5, "Droners", 2));
+        }
+        assertNull(db.rangeprintDescending("z", "a"));
+        assertNull(db.rangeprintDescending(null, "a"));
+        String header = "Found these records in the range b to q\n";
+        assertEquals(header + db.print("q") + "\n" + db.print("m") + "\n"
+            + db.print("c") + "\n", db.rangeprintDescending("b", "q"));
+        assertEquals("Found these records in the range y to z\n",
+            db.rangeprintDescending("y", "z"));
+
+        StringBuilder sb = new StringBuilder();
+        assertEquals(2, db.descendingScan("p", o -> {
+            sb.append(o.getName());
+            return sb.length() < 2;
+        }));
+        assertEquals("mc", sb.toString());
+    }
+}